@@ -115,6 +115,12 @@ public final class IOpipeConfiguration
 	/** Use local coldstarts. */
 	protected final boolean localcoldstart;
 	
+	/** Send reports in the compact encoding. */
+	protected final boolean compactreport;
+	
+	/** The limit for the size of reports in bytes. */
+	protected final int reportbytelimit;
+	
 	/** The state of plugins. */
 	private final Map<String, Boolean> _pluginstate =
 		new TreeMap<>(_PLUGIN_COMPARATOR);
@@ -184,6 +190,7 @@ public final class IOpipeConfiguration
 		int timeoutwindow = __builder._timeoutwindow;
 		String installmethod = __builder._installmethod;
 		String serviceurl = __builder._serviceurl;
+		int reportbytelimit = __builder._reportbytelimit;
 		
 		if (token == null)
 			throw new IllegalArgumentException("A project token must be " +
@@ -197,6 +204,10 @@ public final class IOpipeConfiguration
 			throw new IllegalArgumentException("The timeout window cannot " +
 				"be negative.");
 		
+		if (reportbytelimit < 0)
+			throw new IllegalArgumentException("The report byte limit " +
+				"cannot be negative.");
+		
 		// If no custom URL was specified then fallback to the default
 		if (serviceurl == null)
 			this.serviceurl = IOpipeConstants.DEFAULT_SERVICE_URL;
@@ -208,6 +219,7 @@ public final class IOpipeConfiguration
 		this.connectionfactory = connectionfactory;
 		this.timeoutwindow = timeoutwindow;
 		this.installmethod = installmethod;
+		this.reportbytelimit = reportbytelimit;
 		
 		// Optional
 		String profilerurl = __builder._profilerurl;
@@ -217,6 +229,7 @@ public final class IOpipeConfiguration
 			this.profilerurl = profilerurl;
 		
 		this.localcoldstart = __builder._localcoldstart;
+		this.compactreport = __builder._compactreport;
 		this._pluginstate.putAll(__builder._pluginstate);
 	}
 	
@@ -241,7 +254,9 @@ public final class IOpipeConfiguration
 			Objects.equals(this.installmethod, o.installmethod) &&
 			this._pluginstate.equals(o._pluginstate) &&
 			Objects.equals(this.serviceurl, o.serviceurl) &&
-			Objects.equals(this.profilerurl, o.profilerurl);
+			Objects.equals(this.profilerurl, o.profilerurl) &&
+			this.compactreport == o.compactreport &&
+			this.reportbytelimit == o.reportbytelimit;
 	}
 	
 	/**
@@ -288,6 +303,17 @@ public final class IOpipeConfiguration
 		return this.token;
 	}
 	
+	/**
+	 * Returns the limit for the size of reports in bytes.
+	 *
+	 * @return The limit in bytes, zero means there is no limit.
+	 * @since 2026/10/19
+	 */
+	public final int getReportByteLimit()
+	{
+		return this.reportbytelimit;
+	}
+	
 	/**
 	 * Returns the URL to use for service events.
 	 *
@@ -325,7 +351,9 @@ public final class IOpipeConfiguration
 			Objects.hashCode(this.installmethod) ^
 			this._pluginstate.hashCode() ^
 			Objects.hashCode(this.serviceurl) ^
-			Objects.hashCode(this.profilerurl);
+			Objects.hashCode(this.profilerurl) ^
+			Boolean.hashCode(this.compactreport) ^
+			this.reportbytelimit;
 	}
 	
 	/**
@@ -379,12 +407,14 @@ public final class IOpipeConfiguration
 					"connectionfactory=%s, timeoutwindow=%d, " +
 					"installmethod=%s, " +
 					"pluginstate=%s, serviceurl=%s, profilerurl=%s, " +
-					"localcoldstart=%b}",
+					"localcoldstart=%b, compactreport=%b, " +
+					"reportbytelimit=%d}",
 					this.enabled,
 					this.token, this.connectionfactory, this.timeoutwindow,
 					this.installmethod,
 					this._pluginstate, this.serviceurl, this.profilerurl,
-					this.localcoldstart)));
+					this.localcoldstart, this.compactreport,
+					this.reportbytelimit)));
 		
 		return rv;
 	}
@@ -406,6 +436,18 @@ public final class IOpipeConfiguration
 		return this.localcoldstart;
 	}
 	
+	/**
+	 * Returns {@code true} if reports are sent in the compact binary
+	 * encoding (CBOR) instead of JSON.
+	 *
+	 * @return {@code true} if reports are sent in the compact encoding.
+	 * @since 2026/10/19
+	 */
+	public final boolean getUseCompactReport()
+	{
+		return this.compactreport;
+	}
+	
 	/**
 	 * This returns a configuration which is initialized by values using the
 	 * default means of obtaining them via system properties and then
@@ -447,6 +489,26 @@ public final class IOpipeConfiguration
 				rv.setTimeOutWindow(150);
 			}
 			
+			// Report size limit
+			try
+			{
+				rv.setReportByteLimit(Integer.valueOf(Objects.toString(
+					System.getProperty("com.iopipe.reportbytelimit",
+					System.getenv("IOPIPE_REPORT_BYTE_LIMIT")),
+					Integer.toString(
+						IOpipeConstants.DEFAULT_REPORT_BYTE_LIMIT))));
+			}
+			catch (NumberFormatException e)
+			{
+				rv.setReportByteLimit(
+					IOpipeConstants.DEFAULT_REPORT_BYTE_LIMIT);
+			}
+			
+			// Compact report encoding
+			rv.setUseCompactReport(Boolean.valueOf(
+				System.getProperty("com.iopipe.compactreport",
+				System.getenv("IOPIPE_COMPACT_REPORT"))));
+			
 			// Go through system properties to get the enabled state of
 			// plugins
 			for (Map.Entry<Object, Object> e : System.getProperties().
@@ -43,6 +43,13 @@ public class IOpipeConfigurationBuilder
 	/** Use local coldstarts per service. */
 	volatile boolean _localcoldstart;
 	
+	/** Send reports in the compact encoding. */
+	volatile boolean _compactreport;
+	
+	/** The limit for the size of reports in bytes. */
+	volatile int _reportbytelimit =
+		IOpipeConstants.DEFAULT_REPORT_BYTE_LIMIT;
+	
 	/**
 	 * Initializes the builder with uninitialized values.
 	 *
@@ -74,6 +81,8 @@ public class IOpipeConfigurationBuilder
 		this._serviceurl = __c.getServiceUrl();
 		this._profilerurl = __c.getProfilerUrl();
 		this._localcoldstart = __c.getUseLocalColdStart();
+		this._compactreport = __c.getUseCompactReport();
+		this._reportbytelimit = __c.getReportByteLimit();
 	}
 	
 	/**
@@ -178,6 +187,22 @@ public class IOpipeConfigurationBuilder
 		this._connectionfactory = __cf;
 	}
 	
+	/**
+	 * Sets the limit for the size of reports in bytes. If a report would be
+	 * larger then performance entries are dropped first, then custom metrics
+	 * past {@link IOpipeConstants#TRUNCATED_CUSTOM_METRIC_LIMIT} and then the
+	 * deepest frames of the stack trace.
+	 *
+	 * This defaults to {@link IOpipeConstants#DEFAULT_REPORT_BYTE_LIMIT}.
+	 *
+	 * @param __b The limit in bytes, zero means there is no limit.
+	 * @since 2026/10/19
+	 */
+	public final void setReportByteLimit(int __b)
+	{
+		this._reportbytelimit = __b;
+	}
+	
 	/**
 	 * Sets the URL to use when connecting to the IOpipe service.
 	 *
@@ -230,5 +255,22 @@ public class IOpipeConfigurationBuilder
 	{
 		this._localcoldstart = __yes;
 	}
+	
+	/**
+	 * Sets whether reports are to be sent in the compact binary encoding
+	 * (CBOR) instead of JSON. The compact report contains the same
+	 * information as the JSON report but is smaller, the service must
+	 * accept this encoding.
+	 *
+	 * This defaults to {@code false}.
+	 *
+	 * @param __yes If {@code true} then reports are sent in the compact
+	 * encoding.
+	 * @since 2026/10/19
+	 */
+	public final void setUseCompactReport(boolean __yes)
+	{
+		this._compactreport = __yes;
+	}
 }
 
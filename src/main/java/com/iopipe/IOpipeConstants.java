@@ -56,6 +56,17 @@ public interface IOpipeConstants
 	public static final int VALUE_CODEPOINT_LIMIT =
 		1024;
 	
+	/** The default limit for the size of reports in bytes. */
+	public static final int DEFAULT_REPORT_BYTE_LIMIT =
+		1048576;
+	
+	/**
+	 * The number of custom metrics which are kept when a report is too large,
+	 * before the stack trace is shortened.
+	 */
+	public static final int TRUNCATED_CUSTOM_METRIC_LIMIT =
+		100;
+	
 	/**
 	 * Returns the default region which has been chosen to send events and
 	 * profiler reports to.
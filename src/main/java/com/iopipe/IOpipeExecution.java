@@ -7,13 +7,20 @@ import com.iopipe.http.RemoteRequest;
 import com.iopipe.plugin.IOpipePlugin;
 import com.iopipe.plugin.IOpipePluginExecution;
 import com.iopipe.plugin.NoSuchPluginException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +52,34 @@ public final class IOpipeExecution
 		"linux".compareToIgnoreCase(
 			System.getProperty("os.name", "unknown")) == 0;
 	
+	/**
+	 * The execution which is running in the current thread, this is not
+	 * inherited so that threads which outlive the execution such as pools
+	 * do not keep it reachable.
+	 */
+	private static final ThreadLocal<IOpipeExecution> _CURRENT =
+		new ThreadLocal<>();
+	
+	/** Bytes kept for the end of the report, such as truncation counts. */
+	private static final int _TAIL_BYTES =
+		512;
+	
+	/** Bytes kept for each plugin in the report. */
+	private static final int _PLUGIN_BYTES =
+		256;
+	
+	/** Bytes used by a label other than its name. */
+	private static final int _LABEL_BYTES =
+		4;
+	
+	/** Bytes used by a custom metric other than its name and value. */
+	private static final int _METRIC_BYTES =
+		64;
+	
+	/** Bytes used by a performance entry other than its name and type. */
+	private static final int _PERFORMANCE_ENTRY_BYTES =
+		128;
+	
 	/** The service which invoked the method. */
 	protected final IOpipeService service;
 	
@@ -74,6 +109,10 @@ public final class IOpipeExecution
 		IOpipePluginExecution> _active =
 		new HashMap<>();
 	
+	/** Requests which must finish before the execution does. */
+	private final List<CompletableFuture<?>> _pending =
+		new ArrayList<>();
+	
 	/**
 	 * Initializes the execution information.
 	 *
@@ -107,6 +146,28 @@ public final class IOpipeExecution
 		this.input = __input;
 	}
 	
+	/**
+	 * Adds a request which is sent while the report is, the service waits
+	 * until it finishes before the execution finishes but no longer than
+	 * the time which remains in the execution.
+	 *
+	 * @param __f The request which must finish.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final void addPending(CompletableFuture<?> __f)
+		throws NullPointerException
+	{
+		if (__f == null)
+			throw new NullPointerException();
+		
+		List<CompletableFuture<?>> pending = this._pending;
+		synchronized (pending)
+		{
+			pending.add(__f);
+		}
+	}
+	
 	/**
 	 * Returns the configuration used to initialize the service.
 	 *
@@ -118,6 +179,28 @@ public final class IOpipeExecution
 		return this.config;
 	}
 	
+	/**
+	 * Returns the execution which is running in the current thread. This is
+	 * intended to be used by code which cannot be passed the execution such
+	 * as libraries which trace requests. Threads which are created by the
+	 * execution do not see it, tasks which run in other threads must be
+	 * given the execution with {@link #wrap(Runnable)} or
+	 * {@link #wrap(Callable)}.
+	 *
+	 * @return The current execution or {@code null} if there is none or it
+	 * has already finished.
+	 * @since 2026/10/19
+	 */
+	public static IOpipeExecution currentExecution()
+	{
+		IOpipeExecution rv = _CURRENT.get();
+		
+		// Threads created during an execution may outlive it
+		if (rv == null || rv.measurement.getDuration() >= 0)
+			return null;
+		return rv;
+	}
+	
 	/**
 	 * Returns the context for the Amazon Web Service Lambda execution that
 	 * is currently running.
@@ -443,7 +526,120 @@ public final class IOpipeExecution
 	{
 		return this.threadgroup;
 	}
+	
+	/**
+	 * Wraps the given task so that this is the current execution of the
+	 * thread which runs it, the previous execution of that thread is
+	 * restored when the task finishes.
+	 *
+	 * @param <V> The result of the task.
+	 * @param __c The task to wrap.
+	 * @return The wrapped task.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final <V> Callable<V> wrap(Callable<V> __c)
+		throws NullPointerException
+	{
+		if (__c == null)
+			throw new NullPointerException();
+		
+		return () ->
+			{
+				IOpipeExecution previous = _CURRENT.get();
+				IOpipeExecution.__setCurrent(this);
+				try
+				{
+					return __c.call();
+				}
+				finally
+				{
+					IOpipeExecution.__setCurrent(previous);
+				}
+			};
+	}
+	
+	/**
+	 * Wraps the given task so that this is the current execution of the
+	 * thread which runs it, the previous execution of that thread is
+	 * restored when the task finishes.
+	 *
+	 * @param __r The task to wrap.
+	 * @return The wrapped task.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final Runnable wrap(Runnable __r)
+		throws NullPointerException
+	{
+		if (__r == null)
+			throw new NullPointerException();
+		
+		return () ->
+			{
+				IOpipeExecution previous = _CURRENT.get();
+				IOpipeExecution.__setCurrent(this);
+				try
+				{
+					__r.run();
+				}
+				finally
+				{
+					IOpipeExecution.__setCurrent(previous);
+				}
+			};
+	}
 
+	/**
+	 * Waits for all pending requests to finish.
+	 *
+	 * @since 2026/10/19
+	 */
+	final void __awaitPending()
+	{
+		CompletableFuture<?>[] all;
+		List<CompletableFuture<?>> pending = this._pending;
+		synchronized (pending)
+		{
+			if (pending.isEmpty())
+				return;
+			
+			all = pending.<CompletableFuture<?>>toArray(
+				new CompletableFuture<?>[pending.size()]);
+			pending.clear();
+		}
+		
+		// Failures are handled by whoever made the request
+		try
+		{
+			CompletableFuture.allOf(all).get(Math.max(1,
+				this.context.getRemainingTimeInMillis()),
+				TimeUnit.MILLISECONDS);
+		}
+		catch (ExecutionException|InterruptedException e)
+		{
+		}
+		catch (TimeoutException e)
+		{
+			Logger.warn("{} pending requests did not finish in time.",
+				all.length);
+		}
+	}
+	
+	/**
+	 * Sets the execution which is running in the current thread.
+	 *
+	 * @param __e The execution, may be {@code null} to clear it.
+	 * @since 2026/10/19
+	 */
+	static void __setCurrent(IOpipeExecution __e)
+	{
+		if (__e == null)
+			_CURRENT.remove();
+		else
+			_CURRENT.set(__e);
+	}
+	
 	/**
 	 * Builds the request which is sent to the remote service.
 	 *
@@ -464,8 +660,29 @@ public final class IOpipeExecution
 		// The current timestamp
 		long nowtimestamp = System.currentTimeMillis();
 		
-		StringWriter out = new StringWriter();
-		try (JsonGenerator gen = Json.createGenerator(out))
+		// Reports are limited in size, if content does not fit then it is
+		// dropped as it is written rather than after the fact
+		long limit = config.getReportByteLimit();
+		if (limit <= 0)
+			limit = Long.MAX_VALUE;
+		int droppedperfs = 0,
+			droppedmetrics = 0,
+			droppedframes = 0;
+		
+		// Space which is always needed for the labels and plugins which
+		// are at the end of the report
+		String[] labels = measurement.getLabels();
+		__Plugins__.__Info__ plugins[] = this.service._plugins.__info();
+		long tail = _TAIL_BYTES + (plugins.length * _PLUGIN_BYTES);
+		for (String label : labels)
+			tail += _LABEL_BYTES + IOpipeExecution.__encodedLength(label);
+		
+		// The compact report has the same structure, just a different
+		// encoding
+		boolean compact = config.getUseCompactReport();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JsonGenerator gen = (compact ? new __CborGenerator__(out) :
+			Json.createGenerator(out)))
 		{
 			gen.writeStartObject();
 
@@ -635,6 +852,14 @@ public final class IOpipeExecution
 			// Environment end
 			gen.writeEnd();
 
+			// Custom metrics up to a number are kept before any of the stack
+			// trace is dropped
+			CustomMetric[] custmetrics = measurement.getCustomMetrics();
+			long keptmetrics = 0;
+			for (int i = 0, n = Math.min(custmetrics.length,
+				IOpipeConstants.TRUNCATED_CUSTOM_METRIC_LIMIT); i < n; i++)
+				keptmetrics += IOpipeExecution.__metricBytes(custmetrics[i]);
+			
 			Throwable thrown = measurement.getThrown();
 			if (thrown != null)
 			{
@@ -649,7 +874,31 @@ public final class IOpipeExecution
 					pw.flush();
 				}
 
-				gen.write("stack", trace.toString());
+				// Drop the deepest frames if the stack does not fit, the
+				// first line with the exception is always kept
+				String stack = trace.toString();
+				gen.flush();
+				long room = limit - out.size() - tail - keptmetrics;
+				if (IOpipeExecution.__encodedLength(stack) > room)
+				{
+					String[] lines = stack.split("\\r?\\n");
+					StringBuilder sb = new StringBuilder();
+					int keep = 0;
+					for (long used = 0; keep < lines.length; keep++)
+					{
+						used += IOpipeExecution.__encodedLength(
+							lines[keep]) + 1;
+						if (keep > 0 && used > room)
+							break;
+						
+						sb.append(lines[keep]).append('\n');
+					}
+					
+					droppedframes = lines.length - keep;
+					stack = sb.toString();
+				}
+				
+				gen.write("stack", stack);
 				gen.write("name", thrown.getClass().getName());
 				gen.write("message",
 					Objects.toString(thrown.getMessage(), ""));
@@ -664,11 +913,22 @@ public final class IOpipeExecution
 			// Add custom metrics, which multiple threads could be adding at
 			// once
 			gen.writeStartArray("custom_metrics");
-			CustomMetric[] custmetrics = measurement.getCustomMetrics();
+			gen.flush();
+			long used = out.size() + tail;
 			for (int i = 0, n = custmetrics.length; i < n; i++)
 			{
 				CustomMetric metric = custmetrics[i];
 				
+				// Metrics past the limit are only kept if they fit
+				long size = IOpipeExecution.__metricBytes(metric);
+				if (i >= IOpipeConstants.TRUNCATED_CUSTOM_METRIC_LIMIT &&
+					used + size > limit)
+				{
+					droppedmetrics = n - i;
+					break;
+				}
+				used += size;
+				
 				// Check that the name is in the limit
 				String xname = metric.name();
 				if (!IOpipeExecution.__isNameInLimit(xname))
@@ -719,6 +979,17 @@ public final class IOpipeExecution
 			{
 				PerformanceEntry perf = perfs[i];
 				
+				// These are the first to be dropped
+				long size = _PERFORMANCE_ENTRY_BYTES +
+					IOpipeExecution.__encodedLength(perf.name()) +
+					IOpipeExecution.__encodedLength(perf.type());
+				if (used + size > limit)
+				{
+					droppedperfs = n - i;
+					break;
+				}
+				used += size;
+				
 				gen.writeStartObject();
 				
 				gen.write("name",
@@ -739,7 +1010,6 @@ public final class IOpipeExecution
 			
 			// Are there any labels to be added?
 			gen.writeStartArray("labels");
-			String[] labels = measurement.getLabels();
 			for (int i = 0, n = labels.length; i < n; i++)
 			{
 				String label = labels[i];
@@ -759,7 +1029,6 @@ public final class IOpipeExecution
 			// Record plugins which are being used
 			Map<Class<? extends IOpipePluginExecution>, IOpipePluginExecution>
 				active = this._active;
-			__Plugins__.__Info__ plugins[] = this.service._plugins.__info();
 			if (plugins.length > 0)
 			{
 				gen.writeStartArray("plugins");
@@ -811,6 +1080,22 @@ public final class IOpipeExecution
 				gen.writeEnd();
 			}
 			
+			// Record how much was dropped so that it is known the report is
+			// not complete
+			if (droppedperfs > 0 || droppedmetrics > 0 || droppedframes > 0)
+			{
+				Logger.warn("Report exceeded {} bytes, dropped {} " +
+					"performance entries, {} custom metrics and {} stack " +
+					"frames.", limit, droppedperfs, droppedmetrics,
+					droppedframes);
+				
+				gen.writeStartObject("truncated");
+				gen.write("performanceEntries", droppedperfs);
+				gen.write("customMetrics", droppedmetrics);
+				gen.write("stackFrames", droppedframes);
+				gen.writeEnd();
+			}
+			
 			// Finished
 			gen.writeEnd();
 			gen.flush();
@@ -820,7 +1105,42 @@ public final class IOpipeExecution
 			throw new RemoteException("Could not build request", e);
 		}
 
-		return new RemoteRequest(RemoteBody.MIMETYPE_JSON, out.toString());
+		return new RemoteRequest((compact ? RemoteBody.MIMETYPE_CBOR :
+			RemoteBody.MIMETYPE_JSON), out.toByteArray());
+	}
+	
+	/**
+	 * Returns the most bytes the given string could use when it is written
+	 * to the report, in either encoding.
+	 *
+	 * @param __s The string to check.
+	 * @return The most bytes the string could use.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static final long __encodedLength(String __s)
+		throws NullPointerException
+	{
+		if (__s == null)
+			throw new NullPointerException();
+		
+		// Control characters and quotes are escaped in JSON, while any
+		// other character takes at most three bytes in UTF-8
+		long rv = 2;
+		for (int i = 0, n = __s.length(); i < n; i++)
+		{
+			char c = __s.charAt(i);
+			if (c < 0x20)
+				rv += 6;
+			else if (c == '"' || c == '\\')
+				rv += 2;
+			else if (c < 0x80)
+				rv += 1;
+			else
+				rv += 3;
+		}
+		
+		return rv;
 	}
 	
 	/**
@@ -838,7 +1158,13 @@ public final class IOpipeExecution
 		if (__s == null)
 			throw new NullPointerException();
 		
-		return __s.codePointCount(0, __s.length()) <
+		// There cannot be more code points than characters, so only long
+		// strings need to be counted
+		int len = __s.length();
+		if (len < IOpipeConstants.NAME_CODEPOINT_LIMIT)
+			return true;
+		
+		return __s.codePointCount(0, len) <
 			IOpipeConstants.NAME_CODEPOINT_LIMIT;
 	}
 	
@@ -857,8 +1183,34 @@ public final class IOpipeExecution
 		if (__s == null)
 			throw new NullPointerException();
 		
-		return __s.codePointCount(0, __s.length()) <
+		// There cannot be more code points than characters, so only long
+		// strings need to be counted
+		int len = __s.length();
+		if (len < IOpipeConstants.VALUE_CODEPOINT_LIMIT)
+			return true;
+		
+		return __s.codePointCount(0, len) <
 			IOpipeConstants.VALUE_CODEPOINT_LIMIT;
 	}
+	
+	/**
+	 * Returns the most bytes the given custom metric could use when it is
+	 * written to the report.
+	 *
+	 * @param __m The metric to check.
+	 * @return The most bytes the metric could use.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static final long __metricBytes(CustomMetric __m)
+		throws NullPointerException
+	{
+		if (__m == null)
+			throw new NullPointerException();
+		
+		return _METRIC_BYTES + IOpipeExecution.__encodedLength(__m.name()) +
+			(__m.hasString() ?
+				IOpipeExecution.__encodedLength(__m.stringValue()) : 0);
+	}
 }
 
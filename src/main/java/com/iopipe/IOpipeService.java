@@ -1,6 +1,8 @@
 package com.iopipe;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.iopipe.http.BatchingConnection;
+import com.iopipe.http.LocalConnectionFactory;
 import com.iopipe.http.NullConnection;
 import com.iopipe.http.RemoteBody;
 import com.iopipe.http.RemoteConnection;
@@ -8,13 +10,18 @@ import com.iopipe.http.RemoteConnectionFactory;
 import com.iopipe.http.RemoteException;
 import com.iopipe.http.RemoteRequest;
 import com.iopipe.http.RemoteResult;
+import com.iopipe.http.ReportSpool;
 import com.iopipe.http.RequestType;
+import com.iopipe.http.ResilientConnection;
+import com.iopipe.http.ResponseMode;
 import com.iopipe.plugin.IOpipePlugin;
 import com.iopipe.plugin.IOpipePluginExecution;
 import com.iopipe.plugin.IOpipePluginPostExecutable;
 import com.iopipe.plugin.IOpipePluginPreExecutable;
 import java.io.Closeable;
 import java.io.PrintStream;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -68,6 +75,12 @@ public final class IOpipeService
 	/** Is the service enabled and working? */
 	protected final boolean enabled;
 	
+	/** Are reports held so that they can be sent together? */
+	private final boolean _batching;
+	
+	/** The connection which retries reports, {@code null} if not used. */
+	private final ResilientConnection _resilient;
+	
 	/** The coldstart flag indicator to use. */
 	private final AtomicBoolean _coldstartflag;
 	
@@ -112,25 +125,59 @@ public final class IOpipeService
 		if (__config.isEnabled())
 			try
 			{
-				connection = __config.getRemoteConnectionFactory().connect(
-					__config.getServiceUrl(), __config.getProjectToken());
+				// Only reports may be written locally for a forwarder to
+				// send, other requests such as profiler uploads are not
+				RemoteConnectionFactory factory =
+					__config.getRemoteConnectionFactory();
+				String localdir = LocalConnectionFactory.LOCAL_DIR;
+				if (localdir != null)
+					factory = new LocalConnectionFactory(Paths.get(localdir));
+				
+				connection = factory.connect(__config.getServiceUrl(),
+					__config.getProjectToken());
 				enabled = true;
 			}
 			
 			// Cannot report error to IOpipe so print to the console
-			catch (RemoteException e)
+			catch (InvalidPathException|RemoteException e)
 			{
 				Logger.error(e, "Could not connect to the remote server.");
 			}
 		
 		// If the connection failed, use one which does nothing
+		boolean batching = false;
+		ResilientConnection resilient = null;
 		if (!enabled || connection == null)
 			connection = new NullConnection();
 		
+		else
+		{
+			// Retry failed reports and stop sending to a failing server,
+			// reports which could not be sent are kept for later
+			if (ResilientConnection.ENABLED)
+				connection = (resilient = new ResilientConnection(connection,
+					ReportSpool.open(__config.getServiceUrl(),
+					__config.getProjectToken())));
+			
+			// Hold reports so that they are sent together, failures of held
+			// reports are still counted for each report
+			if (BatchingConnection.BATCH_SIZE > 1)
+			{
+				connection = new BatchingConnection(connection);
+				batching = true;
+			}
+		}
+		
 		this.enabled = enabled;
+		this._batching = batching;
+		this._resilient = resilient;
 		this.connection = connection;
 		this.config = __config;
 		
+		// Connect early so the first report does not need to wait
+		if (enabled)
+			connection.preconnect();
+		
 		// Detect all available plugins
 		this._plugins = new __Plugins__(enabled, __config);
 		
@@ -164,6 +211,21 @@ public final class IOpipeService
 		return this._badresultcount.get();
 	}
 	
+	/**
+	 * Returns the number of requests which could not be sent and which were
+	 * stored so that they can be sent later, these are also counted in
+	 * {@link #getBadResultCount()}. When reports are batched, a single
+	 * request contains multiple reports.
+	 *
+	 * @return The number of requests which were stored to be sent later.
+	 * @since 2026/10/19
+	 */
+	public final int getSpooledRequestCount()
+	{
+		ResilientConnection resilient = this._resilient;
+		return (resilient == null ? 0 : resilient.fallbackCount());
+	}
+	
 	/**
 	 * Is this service actually enabled?
 	 *
@@ -319,9 +381,28 @@ public final class IOpipeService
 				}
 		}
 		
-		// Generate and send result to server
+		// Report how long it took to connect to the service, this is only
+		// done on cold starts since the connection is reused afterwards
+		if (coldstarted)
+		{
+			long handshakens = this.connection.handshakeNanos();
+			if (handshakens >= 0)
+				measurement.customMetric("@iopipe/debug.handshakeTime",
+					handshakens / 1_000_000L);
+		}
+		
+		// Generate and send result to server, this may be held so that it
+		// is sent with the reports of other executions
 		if (watchdog == null || !watchdog._generated.getAndSet(true))
-			this.__sendRequest(exec.__buildRequest());
+			this.__holdRequest(exec.__buildRequest(),
+				__context.getRemainingTimeInMillis());
+		
+		// Requests such as uploads which were sent along with the report
+		exec.__awaitPending();
+		
+		// The container may be frozen after this, held reports are sent if
+		// the batch is ready and there is time, otherwise they stay held
+		this.connection.flush(__context.getRemainingTimeInMillis());
 		
 		// Throw the called exception as if the wrapper did not have any
 		// trouble
@@ -335,47 +416,105 @@ public final class IOpipeService
 		return result.value;
 	}
 	
+	/**
+	 * Sends the specified request to the server, if reports are being
+	 * batched then it is held until the batch is ready, which may be in a
+	 * later execution.
+	 *
+	 * @param __r The request to send to the server.
+	 * @param __remainingms The time remaining in the execution in
+	 * milliseconds, the report may not take longer than this. If this is
+	 * zero or lower then it is not known.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final void __holdRequest(RemoteRequest __r, long __remainingms)
+		throws NullPointerException
+	{
+		if (__r == null)
+			throw new NullPointerException();
+		
+		if (!this._batching)
+		{
+			this.__sendRequest(__r, __remainingms);
+			return;
+		}
+		
+		// The result is counted once the batch is actually sent
+		this.connection.sendAsync(RequestType.POST, __r).whenComplete(
+			(__res, __e) -> this.__result(__r, __res, __e));
+	}
+	
 	/**
 	 * Sends the specified request to the server.
 	 *
 	 * @param __r The request to send to the server.
+	 * @param __remainingms The time remaining in the execution in
+	 * milliseconds, the report may not take longer than this. If this is
+	 * zero or lower then it is not known.
 	 * @return The result of the report.
 	 * @throws NullPointerException On null arguments.
 	 * @since 2017/12/15
 	 */
-	final RemoteResult __sendRequest(RemoteRequest __r)
+	final RemoteResult __sendRequest(RemoteRequest __r, long __remainingms)
 		throws NullPointerException
 	{
 		if (__r == null)
 			throw new NullPointerException();
 		
 		// Generate report
+		RemoteResult result;
+		Throwable thrown;
 		try
 		{
-			RemoteResult result = this.connection.send(RequestType.POST, __r);
-			
-			// Only the 200 range is valid for okay responses
-			int code = result.code();
-			if (!(code >= 200 && code < 300))
-			{
-				this._badresultcount.incrementAndGet();
-				
-				// Only emit errors for failed requests
-				Logger.error("Request {} failed with result {}.",
-					__r, result);
-			}
-			
-			return result;
+			result = this.connection.send(RequestType.POST, __r,
+				ResponseMode.STATUS, __remainingms);
+			thrown = null;
 		}
 		
 		// Failed to write to the server
 		catch (RemoteException e)
 		{
-			Logger.error(e, "Request {} failed due to exception.", __r);
+			result = null;
+			thrown = e;
+		}
+		
+		return this.__result(__r, result, thrown);
+	}
+	
+	/**
+	 * Counts the result of a report.
+	 *
+	 * @param __r The report which was sent.
+	 * @param __res The result of the report, {@code null} if it failed.
+	 * @param __e The exception if the report failed.
+	 * @return The result of the report.
+	 * @since 2026/10/19
+	 */
+	private final RemoteResult __result(RemoteRequest __r,
+		RemoteResult __res, Throwable __e)
+	{
+		// Failed to write to the server
+		if (__res == null)
+		{
+			Logger.error(__e, "Request {} failed due to exception.", __r);
 			
 			this._badresultcount.incrementAndGet();
 			return new RemoteResult(503, RemoteBody.MIMETYPE_JSON, "");
 		}
+		
+		// Only the 200 range is valid for okay responses
+		int code = __res.code();
+		if (!(code >= 200 && code < 300))
+		{
+			this._badresultcount.incrementAndGet();
+			
+			// Only emit errors for failed requests
+			Logger.error("Request {} failed with result {}.",
+				__r, __res);
+		}
+		
+		return __res;
 	}
 	
 	/**
@@ -503,6 +642,9 @@ public final class IOpipeService
 			IOpipeExecution exec = this.execution;
 			IOpipeMeasurement measurement = exec.measurement();
 			
+			// Libraries which trace requests need to find the execution
+			IOpipeExecution.__setCurrent(exec);
+			
 			// Keep track of execution time
 			long ticker = System.nanoTime();
 			__Result__ result = null;
@@ -525,6 +667,7 @@ public final class IOpipeService
 			finally
 			{
 				measurement.__setDuration(System.nanoTime() - ticker);
+				IOpipeExecution.__setCurrent(null);
 			}
 			
 			// Store the result
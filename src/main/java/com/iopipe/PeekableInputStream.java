@@ -0,0 +1,205 @@
+package com.iopipe;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.IOException;
+
+/**
+ * This is an input stream which allows the start of the stream to be
+ * inspected without consuming it, this is used so that plugins may look at
+ * the input of stream handlers while the handler still receives the entire
+ * stream.
+ *
+ * Only the peeked bytes are buffered, all other reads go directly to the
+ * wrapped stream. This class is not thread safe.
+ *
+ * @since 2026/10/19
+ */
+public final class PeekableInputStream
+	extends InputStream
+{
+	/** The wrapped stream. */
+	protected final InputStream in;
+	
+	/** The bytes which were peeked. */
+	private byte[] _head;
+	
+	/** The number of bytes which were peeked. */
+	private int _headlen;
+	
+	/** The read position within the peeked bytes. */
+	private int _headpos;
+	
+	/** Has the stream been read from directly? */
+	private boolean _consumed;
+	
+	/**
+	 * Initializes the stream.
+	 *
+	 * @param __in The stream to wrap.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public PeekableInputStream(InputStream __in)
+		throws NullPointerException
+	{
+		if (__in == null)
+			throw new NullPointerException();
+		
+		this.in = __in;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public int available()
+		throws IOException
+	{
+		return (this._headlen - this._headpos) + this.in.available();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void close()
+		throws IOException
+	{
+		this.in.close();
+	}
+	
+	/**
+	 * Returns a stream over the start of this stream, the bytes which are
+	 * returned are still read by this stream.
+	 *
+	 * If the stream was already peeked then the same bytes are returned,
+	 * even if that is less than the requested amount.
+	 *
+	 * @param __max The maximum number of bytes to peek.
+	 * @return A stream over the start of the stream, or {@code null} if the
+	 * stream has already been read from.
+	 * @throws IllegalArgumentException If the maximum is negative.
+	 * @throws IOException On read errors.
+	 * @since 2026/10/19
+	 */
+	public InputStream peek(int __max)
+		throws IllegalArgumentException, IOException
+	{
+		if (__max < 0)
+			throw new IllegalArgumentException("Negative peek size.");
+		
+		// The start of the stream is no longer available
+		if (this._consumed || this._headpos > 0)
+			return null;
+		
+		// Read the head of the stream, which might be shorter
+		byte[] head = this._head;
+		if (head == null)
+		{
+			head = new byte[__max];
+			
+			// Whatever was read must be kept even if reading fails since
+			// it is no longer in the wrapped stream
+			InputStream in = this.in;
+			int len = 0;
+			try
+			{
+				while (len < __max)
+				{
+					int rc = in.read(head, len, __max - len);
+					if (rc < 0)
+						break;
+					len += rc;
+				}
+			}
+			finally
+			{
+				this._head = head;
+				this._headlen = len;
+			}
+		}
+		
+		return new ByteArrayInputStream(head, 0, this._headlen);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public int read()
+		throws IOException
+	{
+		// Read from the peeked bytes first
+		int headpos = this._headpos;
+		if (headpos < this._headlen)
+		{
+			this._headpos = headpos + 1;
+			return this._head[headpos] & 0xFF;
+		}
+		
+		this._consumed = true;
+		return this.in.read();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public int read(byte[] __b, int __o, int __l)
+		throws IndexOutOfBoundsException, IOException, NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		if (__o < 0 || __l < 0 || __o + __l > __b.length)
+			throw new IndexOutOfBoundsException();
+		
+		if (__l == 0)
+			return 0;
+		
+		// Read from the peeked bytes first
+		int headpos = this._headpos,
+			headleft = this._headlen - headpos;
+		if (headleft > 0)
+		{
+			int rc = Math.min(headleft, __l);
+			System.arraycopy(this._head, headpos, __b, __o, rc);
+			this._headpos = headpos + rc;
+			return rc;
+		}
+		
+		// Otherwise read directly from the stream
+		this._consumed = true;
+		return this.in.read(__b, __o, __l);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public long skip(long __n)
+		throws IOException
+	{
+		if (__n <= 0)
+			return 0;
+		
+		// Skip the peeked bytes first
+		int headpos = this._headpos,
+			headleft = this._headlen - headpos;
+		if (headleft > 0)
+		{
+			int rc = (int)Math.min(headleft, __n);
+			this._headpos = headpos + rc;
+			return rc;
+		}
+		
+		this._consumed = true;
+		return this.in.skip(__n);
+	}
+}
+
@@ -43,14 +43,39 @@ public abstract class SimpleRequestStreamHandlerWrapper
 		Context __context)
 		throws IOException
 	{
+		this.__handleRequest(IOpipeService.instance(), __in, __out,
+			__context);
+	}
+	
+	/**
+	 * Handles the request using the given service.
+	 *
+	 * @param __sv The service to run with.
+	 * @param __in The input stream.
+	 * @param __out The output stream.
+	 * @param __context The context provided by the AWS service.
+	 * @throws IOException On read/write errors.
+	 * @throws NullPointerException If no service was specified.
+	 * @since 2026/10/19
+	 */
+	final void __handleRequest(IOpipeService __sv, InputStream __in,
+		OutputStream __out, Context __context)
+		throws IOException, NullPointerException
+	{
+		if (__sv == null)
+			throw new NullPointerException();
+		
+		// The input is wrapped so that plugins may look at the start of the
+		// input while the handler still reads all of it
+		PeekableInputStream in = new PeekableInputStream(__in);
 		try
 		{
-			IOpipeService.instance().run(__context,
+			__sv.run(__context,
 				(__exec) ->
 				{
 					try
 					{
-						this.wrappedHandleRequest(__exec, __in, __out);
+						this.wrappedHandleRequest(__exec, in, __out);
 						return null;
 					}
 					catch (IOException e)
@@ -60,7 +85,7 @@ public abstract class SimpleRequestStreamHandlerWrapper
 						toss.setStackTrace(e.getStackTrace());
 						throw toss;
 					}
-				}, __in);
+				}, in);
 		}
 		catch (__IOException__ e)
 		{
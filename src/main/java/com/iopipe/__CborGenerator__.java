@@ -0,0 +1,678 @@
+package com.iopipe;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import javax.json.JsonArray;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerationException;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * This is a generator which writes the same structure as the JSON generator
+ * but encodes it as CBOR (RFC 7049), which is used for compact reports.
+ *
+ * Reports repeat the same keys many times, so the document is placed in a
+ * string reference namespace (tag 256) and any string which was already
+ * written is replaced by a reference to it (tag 25). Objects and arrays are
+ * written with indefinite lengths so that nothing needs to be counted.
+ *
+ * @since 2026/10/19
+ */
+final class __CborGenerator__
+	implements JsonGenerator
+{
+	/** Unsigned integer. */
+	private static final int _MAJOR_UNSIGNED =
+		0x00;
+	
+	/** Negative integer. */
+	private static final int _MAJOR_NEGATIVE =
+		0x20;
+	
+	/** Byte string. */
+	private static final int _MAJOR_BYTES =
+		0x40;
+	
+	/** Text string. */
+	private static final int _MAJOR_TEXT =
+		0x60;
+	
+	/** Array. */
+	private static final int _MAJOR_ARRAY =
+		0x80;
+	
+	/** Map. */
+	private static final int _MAJOR_MAP =
+		0xA0;
+	
+	/** Tag. */
+	private static final int _MAJOR_TAG =
+		0xC0;
+	
+	/** Indefinite length, or break when it is the entire byte. */
+	private static final int _INDEFINITE =
+		0x1F;
+	
+	/** Stops an indefinite length item. */
+	private static final int _BREAK =
+		0xFF;
+	
+	/** False. */
+	private static final int _FALSE =
+		0xF4;
+	
+	/** True. */
+	private static final int _TRUE =
+		0xF5;
+	
+	/** Null. */
+	private static final int _NULL =
+		0xF6;
+	
+	/** Single precision float. */
+	private static final int _FLOAT =
+		0xFA;
+	
+	/** Double precision float. */
+	private static final int _DOUBLE =
+		0xFB;
+	
+	/** Positive bignum. */
+	private static final int _TAG_POSITIVE_BIGNUM =
+		2;
+	
+	/** Negative bignum. */
+	private static final int _TAG_NEGATIVE_BIGNUM =
+		3;
+	
+	/** Decimal fraction. */
+	private static final int _TAG_DECIMAL =
+		4;
+	
+	/** Reference to a string which was already written. */
+	private static final int _TAG_STRINGREF =
+		25;
+	
+	/** Namespace for string references. */
+	private static final int _TAG_STRINGREF_NAMESPACE =
+		256;
+	
+	/** The stream to write to. */
+	protected final OutputStream out;
+	
+	/** Strings which may be referenced, with their index. */
+	private final Map<String, Integer> _strings =
+		new HashMap<>();
+	
+	/** Buffer for output. */
+	private final byte[] _buf =
+		new byte[512];
+	
+	/** The number of bytes in the buffer. */
+	private int _len;
+	
+	/** The current depth of objects and arrays. */
+	private int _depth;
+	
+	/** Has the namespace been started? */
+	private boolean _started;
+	
+	/**
+	 * Initializes the generator.
+	 *
+	 * @param __out The stream to write to.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	__CborGenerator__(OutputStream __out)
+		throws NullPointerException
+	{
+		if (__out == null)
+			throw new NullPointerException();
+		
+		this.out = __out;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void close()
+	{
+		if (this._depth != 0)
+			throw new JsonGenerationException("Incomplete document.");
+		
+		this.flush();
+		try
+		{
+			this.out.close();
+		}
+		catch (IOException e)
+		{
+			throw new JsonException("Could not close the output.", e);
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void flush()
+	{
+		try
+		{
+			this.out.write(this._buf, 0, this._len);
+			this._len = 0;
+			this.out.flush();
+		}
+		catch (IOException e)
+		{
+			throw new JsonException("Could not write the output.", e);
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(String __n, JsonValue __v)
+	{
+		return this.writeKey(__n).write(__v);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(String __n, String __v)
+	{
+		return this.writeKey(__n).write(__v);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(String __n, BigInteger __v)
+	{
+		return this.writeKey(__n).write(__v);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(String __n, BigDecimal __v)
+	{
+		return this.writeKey(__n).write(__v);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(String __n, int __v)
+	{
+		return this.writeKey(__n).write((long)__v);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(String __n, long __v)
+	{
+		return this.writeKey(__n).write(__v);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(String __n, double __v)
+	{
+		return this.writeKey(__n).write(__v);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(String __n, boolean __v)
+	{
+		return this.writeKey(__n).write(__v);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(JsonValue __v)
+	{
+		if (__v == null)
+			throw new NullPointerException();
+		
+		switch (__v.getValueType())
+		{
+			case OBJECT:
+				this.writeStartObject();
+				for (Map.Entry<String, JsonValue> e :
+					((JsonObject)__v).entrySet())
+					this.write(e.getKey(), e.getValue());
+				return this.writeEnd();
+			
+			case ARRAY:
+				this.writeStartArray();
+				for (JsonValue v : (JsonArray)__v)
+					this.write(v);
+				return this.writeEnd();
+			
+			case STRING:
+				return this.write(((JsonString)__v).getString());
+			
+			case NUMBER:
+				JsonNumber n = (JsonNumber)__v;
+				if (n.isIntegral())
+					return this.write(n.bigIntegerValue());
+				return this.write(n.bigDecimalValue());
+			
+			case TRUE:
+				return this.write(true);
+			
+			case FALSE:
+				return this.write(false);
+			
+			default:
+				return this.writeNull();
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(String __v)
+	{
+		if (__v == null)
+			throw new NullPointerException();
+		
+		this.__start();
+		
+		// Use a reference if this string was already written
+		Map<String, Integer> strings = this._strings;
+		Integer ref = strings.get(__v);
+		if (ref != null)
+		{
+			this.__head(_MAJOR_TAG, _TAG_STRINGREF);
+			this.__head(_MAJOR_UNSIGNED, ref);
+			return this;
+		}
+		
+		byte[] b = __v.getBytes(StandardCharsets.UTF_8);
+		this.__head(_MAJOR_TEXT, b.length);
+		this.__put(b, 0, b.length);
+		
+		// Only strings which are longer than their reference would be are
+		// recorded, the decoder follows the same rule
+		int next = strings.size();
+		if (b.length >= __CborGenerator__.__minimumReferenced(next))
+			strings.put(__v, next);
+		
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(BigDecimal __v)
+	{
+		if (__v == null)
+			throw new NullPointerException();
+		
+		this.__start();
+		
+		// Decimal fractions are stored as an exponent and a mantissa
+		this.__head(_MAJOR_TAG, _TAG_DECIMAL);
+		this.__head(_MAJOR_ARRAY, 2);
+		this.write((long)-__v.scale());
+		return this.write(__v.unscaledValue());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(BigInteger __v)
+	{
+		if (__v == null)
+			throw new NullPointerException();
+		
+		if (__v.bitLength() < Long.SIZE)
+			return this.write(__v.longValue());
+		
+		this.__start();
+		
+		// Too large to fit in the integer types
+		boolean negative = (__v.signum() < 0);
+		byte[] b = (negative ? __v.not() : __v).toByteArray();
+		int off = (b[0] == 0 ? 1 : 0);
+		this.__head(_MAJOR_TAG, (negative ? _TAG_NEGATIVE_BIGNUM :
+			_TAG_POSITIVE_BIGNUM));
+		this.__head(_MAJOR_BYTES, b.length - off);
+		this.__put(b, off, b.length - off);
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(int __v)
+	{
+		return this.write((long)__v);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(long __v)
+	{
+		this.__start();
+		
+		if (__v < 0)
+			this.__head(_MAJOR_NEGATIVE, -1L - __v);
+		else
+			this.__head(_MAJOR_UNSIGNED, __v);
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(double __v)
+	{
+		if (Double.isNaN(__v) || Double.isInfinite(__v))
+			throw new NumberFormatException("Cannot write " + __v + ".");
+		
+		this.__start();
+		
+		// Use the smaller size if no precision is lost
+		float f = (float)__v;
+		if (f == __v)
+		{
+			this.__byte(_FLOAT);
+			this.__bytes(Float.floatToIntBits(f), 4);
+		}
+		else
+		{
+			this.__byte(_DOUBLE);
+			this.__bytes(Double.doubleToLongBits(__v), 8);
+		}
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator write(boolean __v)
+	{
+		this.__start();
+		this.__byte((__v ? _TRUE : _FALSE));
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator writeEnd()
+	{
+		if (this._depth <= 0)
+			throw new JsonGenerationException("Not in an object or array.");
+		
+		this._depth--;
+		this.__byte(_BREAK);
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator writeKey(String __n)
+	{
+		if (this._depth <= 0)
+			throw new JsonGenerationException("Not in an object.");
+		
+		return this.write(__n);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator writeNull()
+	{
+		this.__start();
+		this.__byte(_NULL);
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator writeNull(String __n)
+	{
+		return this.writeKey(__n).writeNull();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator writeStartArray()
+	{
+		this.__start();
+		this._depth++;
+		this.__byte(_MAJOR_ARRAY | _INDEFINITE);
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator writeStartArray(String __n)
+	{
+		return this.writeKey(__n).writeStartArray();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator writeStartObject()
+	{
+		this.__start();
+		this._depth++;
+		this.__byte(_MAJOR_MAP | _INDEFINITE);
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonGenerator writeStartObject(String __n)
+	{
+		return this.writeKey(__n).writeStartObject();
+	}
+	
+	/**
+	 * Writes a single byte.
+	 *
+	 * @param __b The byte to write.
+	 * @since 2026/10/19
+	 */
+	private void __byte(int __b)
+	{
+		if (this._len >= this._buf.length)
+			this.flush();
+		
+		this._buf[this._len++] = (byte)__b;
+	}
+	
+	/**
+	 * Writes the given number of bytes of a value, most significant first.
+	 *
+	 * @param __v The value to write.
+	 * @param __n The number of bytes to write.
+	 * @since 2026/10/19
+	 */
+	private void __bytes(long __v, int __n)
+	{
+		for (int s = (__n - 1) * 8; s >= 0; s -= 8)
+			this.__byte((int)(__v >>> s));
+	}
+	
+	/**
+	 * Writes the head of an item.
+	 *
+	 * @param __major The major type.
+	 * @param __v The argument, treated as unsigned.
+	 * @since 2026/10/19
+	 */
+	private void __head(int __major, long __v)
+	{
+		if (__v >= 0 && __v < 24)
+			this.__byte(__major | (int)__v);
+		else if (__v >= 0 && __v <= 0xFFL)
+		{
+			this.__byte(__major | 24);
+			this.__bytes(__v, 1);
+		}
+		else if (__v >= 0 && __v <= 0xFFFFL)
+		{
+			this.__byte(__major | 25);
+			this.__bytes(__v, 2);
+		}
+		else if (__v >= 0 && __v <= 0xFFFFFFFFL)
+		{
+			this.__byte(__major | 26);
+			this.__bytes(__v, 4);
+		}
+		else
+		{
+			this.__byte(__major | 27);
+			this.__bytes(__v, 8);
+		}
+	}
+	
+	/**
+	 * Writes multiple bytes.
+	 *
+	 * @param __b The bytes to write.
+	 * @param __o The offset.
+	 * @param __l The length.
+	 * @since 2026/10/19
+	 */
+	private void __put(byte[] __b, int __o, int __l)
+	{
+		byte[] buf = this._buf;
+		if (this._len + __l > buf.length)
+		{
+			this.flush();
+			
+			// Too large for the buffer
+			if (__l > buf.length)
+			{
+				try
+				{
+					this.out.write(__b, __o, __l);
+				}
+				catch (IOException e)
+				{
+					throw new JsonException("Could not write the output.", e);
+				}
+				return;
+			}
+		}
+		
+		System.arraycopy(__b, __o, buf, this._len, __l);
+		this._len += __l;
+	}
+	
+	/**
+	 * Starts the string reference namespace before the first value.
+	 *
+	 * @since 2026/10/19
+	 */
+	private void __start()
+	{
+		if (this._started)
+			return;
+		
+		this._started = true;
+		this.__head(_MAJOR_TAG, _TAG_STRINGREF_NAMESPACE);
+	}
+	
+	/**
+	 * Returns the minimum length a string must have to be given the
+	 * specified reference index.
+	 *
+	 * @param __i The index the string would be given.
+	 * @return The minimum length in bytes.
+	 * @since 2026/10/19
+	 */
+	static int __minimumReferenced(int __i)
+	{
+		if (__i < 24)
+			return 3;
+		else if (__i < 256)
+			return 4;
+		else if (__i < 65536)
+			return 5;
+		return 7;
+	}
+}
+
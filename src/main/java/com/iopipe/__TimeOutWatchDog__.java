@@ -155,8 +155,12 @@ final class __TimeOutWatchDog__
 				exec.label("@iopipe/error");
 				exec.label("@iopipe/timeout");
 				
-				// Upload
-				this.service.__sendRequest(exec.__buildRequest());
+				// Upload, nothing may be held since the container is likely
+				// to be frozen or stopped
+				IOpipeService service = this.service;
+				service.__sendRequest(exec.__buildRequest(),
+					context.getRemainingTimeInMillis());
+				service.connection.flush(0);
 				
 				// Do not need to execute anymore
 				return;
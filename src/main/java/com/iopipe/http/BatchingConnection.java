@@ -0,0 +1,460 @@
+package com.iopipe.http;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.pmw.tinylog.Logger;
+
+/**
+ * This is a connection which holds reports which are posted to it with
+ * {@link #sendAsync(RequestType, RemoteRequest)} and sends them to the
+ * wrapped connection as a single JSON array, this is so that many executions
+ * which run back to back do not each need to make their own request.
+ * The collector which is connected to must accept an array of reports as
+ * the body of a request, a batch of a single report is sent as it is.
+ *
+ * Reports are sent once enough of them are held, once they take up enough
+ * space, or once the oldest has been held for long enough. Since a container
+ * only runs a single execution at a time, reports are held across
+ * executions. At the end of
+ * each execution {@link #flush(long)} sends the batch if it is ready and if
+ * the time remaining in the execution is at least as long as the previous
+ * batch took to send, otherwise the reports stay held until a later
+ * execution. There is no thread which sends reports while the container is
+ * frozen, so held reports are lost if the container is recycled.
+ *
+ * The future of a held report completes with the actual result of the batch
+ * it was sent in. Reports sent with {@link #send(RequestType, RemoteRequest)}
+ * are never held, they are sent along with any held reports and get the
+ * result of that batch.
+ *
+ * Requests which are not JSON posts are sent directly to the wrapped
+ * connection after sending any held reports. {@link #close()} sends any held
+ * reports and reports are not held afterwards.
+ *
+ * @since 2026/10/19
+ */
+public final class BatchingConnection
+	implements RemoteConnection
+{
+	/** The default maximum number of reports in a batch. */
+	public static final int DEFAULT_BATCH_SIZE =
+		1;
+	
+	/** The default maximum number of bytes in a batch. */
+	public static final int DEFAULT_BATCH_BYTES =
+		262144;
+	
+	/** The default maximum time in milliseconds a report is held. */
+	public static final int DEFAULT_BATCH_DELAY =
+		1000;
+	
+	/**
+	 * The maximum number of reports in a batch, if this is one or lower then
+	 * reports are not batched.
+	 */
+	public static final int BATCH_SIZE;
+	
+	/** The number of bytes at which a batch is sent. */
+	public static final int BATCH_BYTES;
+	
+	/** The maximum time in milliseconds a report is held. */
+	public static final int BATCH_DELAY;
+	
+	/** The connection to send batches to. */
+	protected final RemoteConnection connection;
+	
+	/** The maximum number of reports in a batch. */
+	protected final int maxcount;
+	
+	/** The number of bytes at which a batch is sent. */
+	protected final int maxbytes;
+	
+	/** The maximum time in milliseconds a report is held. */
+	protected final long maxdelayms;
+	
+	/** Reports which are held. */
+	private final List<byte[]> _held =
+		new ArrayList<>();
+	
+	/** The result of each held report, {@code null} if not wanted. */
+	private final List<CompletableFuture<RemoteResult>> _results =
+		new ArrayList<>();
+	
+	/** The number of bytes which are held. */
+	private int _heldbytes;
+	
+	/** When the oldest report was held. */
+	private long _oldestns;
+	
+	/** The time in milliseconds the previous batch took to send. */
+	private long _sendms;
+	
+	/** Has this been closed? */
+	private boolean _closed;
+	
+	/**
+	 * Determines the batch limits.
+	 *
+	 * @since 2026/10/19
+	 */
+	static
+	{
+		BATCH_SIZE = __Property__.integer("com.iopipe.batch.size",
+			"IOPIPE_BATCH_SIZE", DEFAULT_BATCH_SIZE);
+		BATCH_BYTES = __Property__.integer("com.iopipe.batch.bytes",
+			"IOPIPE_BATCH_BYTES", DEFAULT_BATCH_BYTES);
+		BATCH_DELAY = __Property__.integer("com.iopipe.batch.delay",
+			"IOPIPE_BATCH_DELAY", DEFAULT_BATCH_DELAY);
+	}
+	
+	/**
+	 * Initializes the connection using the default limits.
+	 *
+	 * @param __c The connection to send batches to.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public BatchingConnection(RemoteConnection __c)
+		throws NullPointerException
+	{
+		this(__c, BATCH_SIZE, BATCH_BYTES, BATCH_DELAY);
+	}
+	
+	/**
+	 * Initializes the connection.
+	 *
+	 * @param __c The connection to send batches to.
+	 * @param __count The maximum number of reports in a batch.
+	 * @param __bytes The number of bytes at which a batch is sent.
+	 * @param __delayms The maximum time in milliseconds a report is held.
+	 * @throws IllegalArgumentException If any limit is negative.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public BatchingConnection(RemoteConnection __c, int __count, int __bytes,
+		long __delayms)
+		throws IllegalArgumentException, NullPointerException
+	{
+		if (__c == null)
+			throw new NullPointerException();
+		if (__count < 0 || __bytes < 0 || __delayms < 0)
+			throw new IllegalArgumentException("Negative batch limits.");
+		
+		this.connection = __c;
+		this.maxcount = __count;
+		this.maxbytes = __bytes;
+		this.maxdelayms = __delayms;
+	}
+	
+	/**
+	 * Sends any held reports, reports which are sent afterwards are not
+	 * held.
+	 *
+	 * @since 2026/10/19
+	 */
+	public void close()
+	{
+		synchronized (this)
+		{
+			this._closed = true;
+			this.__flushHeld(0);
+		}
+	}
+	
+	/**
+	 * Sends the held reports if the batch is ready and there is enough time
+	 * remaining to send it, otherwise they are kept for a later execution.
+	 * The batch may not take longer than the time remaining.
+	 *
+	 * @param __remainingms {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void flush(long __remainingms)
+	{
+		synchronized (this)
+		{
+			if (this.__ready() && (__remainingms <= 0 ||
+				__remainingms >= this._sendms))
+				this.__flushHeld(__remainingms);
+		}
+		
+		this.connection.flush(__remainingms);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public long handshakeNanos()
+	{
+		return this.connection.handshakeNanos();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void preconnect()
+	{
+		this.connection.preconnect();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public RemoteResult send(RequestType __t, RemoteRequest __r)
+		throws NullPointerException, RemoteException
+	{
+		return this.send(__t, __r, ResponseMode.BODY);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public RemoteResult send(RequestType __t, RemoteRequest __r,
+		ResponseMode __m)
+		throws NullPointerException, RemoteException
+	{
+		return this.send(__t, __r, __m, 0);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public RemoteResult send(RequestType __t, RemoteRequest __r,
+		ResponseMode __m, long __timeoutms)
+		throws NullPointerException, RemoteException
+	{
+		if (__t == null || __r == null || __m == null)
+			throw new NullPointerException();
+		
+		synchronized (this)
+		{
+			// Only JSON reports can be placed into an array
+			if (!BatchingConnection.__isReport(__t, __r))
+			{
+				this.__flushHeld(__timeoutms);
+				return this.connection.send(__t, __r, __m, __timeoutms);
+			}
+			
+			// The report is sent now along with any held reports
+			this.__hold(__r.body(), null);
+			return this.__sendHeld(__m, __timeoutms);
+		}
+	}
+	
+	/**
+	 * Holds reports until a batch is ready to be sent, the result completes
+	 * with the result of the batch. Other requests are sent directly.
+	 *
+	 * @param __t {@inheritDoc}
+	 * @param __r {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws NullPointerException {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public CompletableFuture<RemoteResult> sendAsync(RequestType __t,
+		RemoteRequest __r)
+		throws NullPointerException
+	{
+		if (__t == null || __r == null)
+			throw new NullPointerException();
+		
+		synchronized (this)
+		{
+			// Only JSON reports can be placed into an array
+			if (this._closed || !BatchingConnection.__isReport(__t, __r))
+			{
+				this.__flushHeld(0);
+				return this.connection.sendAsync(__t, __r);
+			}
+			
+			CompletableFuture<RemoteResult> rv = new CompletableFuture<>();
+			this.__hold(__r.body(), rv);
+			
+			// Send now if the batch is full or too old, any failure is
+			// given to the result
+			if (this.__ready())
+				this.__flushHeld(0);
+			
+			return rv;
+		}
+	}
+	
+	/**
+	 * Sends all of the held reports, any failure is given to the results of
+	 * the held reports.
+	 *
+	 * @param __timeoutms The time in milliseconds the batch may take, zero
+	 * or lower does not limit it.
+	 * @since 2026/10/19
+	 */
+	private void __flushHeld(long __timeoutms)
+	{
+		synchronized (this)
+		{
+			if (this._held.isEmpty())
+				return;
+			
+			try
+			{
+				this.__sendHeld(ResponseMode.STATUS, __timeoutms);
+			}
+			catch (RemoteException e)
+			{
+			}
+		}
+	}
+	
+	/**
+	 * Holds the given report.
+	 *
+	 * @param __b The body of the report.
+	 * @param __f The result of the report, may be {@code null}.
+	 * @throws NullPointerException If no body was specified.
+	 * @since 2026/10/19
+	 */
+	private void __hold(byte[] __b, CompletableFuture<RemoteResult> __f)
+		throws NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		
+		List<byte[]> held = this._held;
+		if (held.isEmpty())
+			this._oldestns = System.nanoTime();
+		
+		held.add(__b);
+		this._results.add(__f);
+		this._heldbytes += __b.length;
+	}
+	
+	/**
+	 * Checks whether the held reports should be sent, because there are
+	 * enough of them, they take up enough space, or the oldest has been held
+	 * for long enough.
+	 *
+	 * @return If the held reports should be sent.
+	 * @since 2026/10/19
+	 */
+	private boolean __ready()
+	{
+		int count = this._held.size();
+		return count > 0 && (count >= this.maxcount ||
+			this._heldbytes >= this.maxbytes ||
+			(System.nanoTime() - this._oldestns) / 1_000_000L >=
+			this.maxdelayms);
+	}
+	
+	/**
+	 * Sends all of the held reports and completes their results.
+	 *
+	 * @param __m The parts of the response which are needed.
+	 * @param __timeoutms The time in milliseconds the batch may take, zero
+	 * or lower does not limit it.
+	 * @return The result of the batch, or {@code null} if nothing was held.
+	 * @throws RemoteException If the batch could not be sent.
+	 * @since 2026/10/19
+	 */
+	private RemoteResult __sendHeld(ResponseMode __m, long __timeoutms)
+		throws RemoteException
+	{
+		List<byte[]> held = this._held;
+		int count = held.size();
+		if (count == 0)
+			return null;
+		
+		// A single report is sent as it is
+		byte[] body;
+		if (count == 1)
+			body = held.get(0);
+		else
+		{
+			ByteArrayOutputStream baos = new ByteArrayOutputStream(
+				this._heldbytes + count + 1);
+			baos.write('[');
+			for (int i = 0; i < count; i++)
+			{
+				if (i > 0)
+					baos.write(',');
+				
+				byte[] b = held.get(i);
+				baos.write(b, 0, b.length);
+			}
+			baos.write(']');
+			body = baos.toByteArray();
+		}
+		
+		List<CompletableFuture<RemoteResult>> results =
+			new ArrayList<>(this._results);
+		held.clear();
+		this._results.clear();
+		this._heldbytes = 0;
+		
+		// Every report gets the result of the batch
+		long startns = System.nanoTime();
+		try
+		{
+			RemoteResult rv = this.connection.send(RequestType.POST,
+				new RemoteRequest(RemoteBody.MIMETYPE_JSON, body), __m,
+				__timeoutms);
+			this._sendms = (System.nanoTime() - startns) / 1_000_000L;
+			
+			int code = rv.code();
+			if (!(code >= 200 && code < 300))
+				Logger.error("Batch of {} reports failed with result {}.",
+					count, rv);
+			
+			for (CompletableFuture<RemoteResult> result : results)
+				if (result != null)
+					result.complete(rv);
+			
+			return rv;
+		}
+		
+		// Could not be sent at all
+		catch (RuntimeException e)
+		{
+			Logger.error(e, "Batch of {} reports failed due to exception.",
+				count);
+			
+			for (CompletableFuture<RemoteResult> result : results)
+				if (result != null)
+					result.completeExceptionally(e);
+			
+			throw e;
+		}
+	}
+	
+	/**
+	 * Checks whether the request is a report which can be batched.
+	 *
+	 * @param __t The type of request.
+	 * @param __r The request.
+	 * @return If the request is a report.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static boolean __isReport(RequestType __t, RemoteRequest __r)
+		throws NullPointerException
+	{
+		if (__t == null || __r == null)
+			throw new NullPointerException();
+		
+		return __t == RequestType.POST &&
+			RemoteBody.MIMETYPE_JSON.equals(__r.mimeType());
+	}
+}
+
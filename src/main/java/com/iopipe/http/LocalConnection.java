@@ -0,0 +1,46 @@
+package com.iopipe.http;
+
+/**
+ * This is a connection which writes requests to a spool where they are
+ * sent by another process, it is created by {@link LocalConnectionFactory}.
+ *
+ * @since 2026/10/19
+ */
+public final class LocalConnection
+	implements RemoteConnection
+{
+	/** The spool requests are written to. */
+	protected final ReportSpool spool;
+	
+	/**
+	 * Initializes the connection.
+	 *
+	 * @param __s The spool to write requests to.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public LocalConnection(ReportSpool __s)
+		throws NullPointerException
+	{
+		if (__s == null)
+			throw new NullPointerException();
+		
+		this.spool = __s;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public RemoteResult send(RequestType __t, RemoteRequest __r)
+		throws NullPointerException, RemoteException
+	{
+		// Finish the segment so the request is forwarded right away
+		ReportSpool spool = this.spool;
+		RemoteResult rv = spool.send(__t, __r);
+		spool.flush(0);
+		return rv;
+	}
+}
+
@@ -0,0 +1,156 @@
+package com.iopipe.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * This creates connections which write requests to a local directory rather
+ * than sending them over the network, a separate process such as
+ * {@link LocalForwarder} then sends them to the remote server. This removes
+ * the time taken to send reports from executions.
+ *
+ * Each combination of URL and authorization token is given its own
+ * directory which contains the URL and a {@link ReportSpool} with the
+ * requests. The authorization token is never written, the forwarder must be
+ * given the same token. Since requests are not sent by the connection, the
+ * results of requests only indicate if they were written and never have a
+ * body, so this is only used for reports sent by the service.
+ *
+ * Only a limited number of destinations may be written to.
+ *
+ * @since 2026/10/19
+ */
+public final class LocalConnectionFactory
+	implements RemoteConnectionFactory
+{
+	/**
+	 * The directory which reports are written to when the local forwarder is
+	 * used, this is {@code null} if it is not used.
+	 */
+	public static final String LOCAL_DIR =
+		System.getProperty("com.iopipe.localforward",
+			System.getenv("IOPIPE_LOCAL_FORWARD"));
+	
+	/** The maximum number of destinations which may be written to. */
+	public static final int MAX_DESTINATIONS =
+		8;
+	
+	/** The file which contains the destination of requests. */
+	static final String DESTINATION_FILE =
+		"destination.properties";
+	
+	/** The directory to write requests to. */
+	protected final Path directory;
+	
+	/** Spools which have been opened, for each destination. */
+	private final Map<Path, ReportSpool> _spools =
+		new HashMap<>();
+	
+	/**
+	 * Initializes the factory.
+	 *
+	 * @param __dir The directory to write requests to.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public LocalConnectionFactory(Path __dir)
+		throws NullPointerException
+	{
+		if (__dir == null)
+			throw new NullPointerException();
+		
+		this.directory = __dir;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public RemoteConnection connect(String __url, String __auth)
+		throws NullPointerException, RemoteException
+	{
+		if (__url == null)
+			throw new NullPointerException();
+		
+		String target = ReportSpool.target(__url, __auth);
+		Path dir = this.directory.resolve(target);
+		
+		try
+		{
+			synchronized (this)
+			{
+				// Only a single spool may write to a directory
+				Map<Path, ReportSpool> spools = this._spools;
+				ReportSpool spool = spools.get(dir);
+				if (spool == null)
+				{
+					if (spools.size() >= MAX_DESTINATIONS)
+						throw new RemoteException("Cannot write to more " +
+							"than " + MAX_DESTINATIONS + " destinations.");
+					
+					Files.createDirectories(dir);
+					LocalConnectionFactory.__destination(dir, __url);
+					
+					spools.put(dir, (spool = new ReportSpool(dir, target,
+						ReportSpool.DEFAULT_SPOOL_BYTES,
+						ReportSpool.DEFAULT_SPOOL_BYTES)));
+				}
+				
+				return new LocalConnection(spool);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new RemoteException("Could not open local directory " +
+				dir + ".", e);
+		}
+	}
+	
+	/**
+	 * Writes the destination of requests, if it does not exist. Only the
+	 * URL is written, never the authorization token.
+	 *
+	 * @param __dir The directory to write to.
+	 * @param __url The URL requests are sent to.
+	 * @throws IOException If it could not be written.
+	 * @since 2026/10/19
+	 */
+	private static void __destination(Path __dir, String __url)
+		throws IOException
+	{
+		Path file = __dir.resolve(DESTINATION_FILE);
+		if (Files.exists(file))
+			return;
+		
+		Properties props = new Properties();
+		props.setProperty("url", __url);
+		
+		// Written completely before the forwarder can see it
+		Path temp = Files.createTempFile(__dir, "destination", ".tmp");
+		try
+		{
+			try (OutputStream os = Files.newOutputStream(temp))
+			{
+				props.store(os, null);
+			}
+			
+			Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (FileAlreadyExistsException e)
+		{
+		}
+		finally
+		{
+			Files.deleteIfExists(temp);
+		}
+	}
+}
+
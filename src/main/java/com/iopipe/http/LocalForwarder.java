@@ -0,0 +1,261 @@
+package com.iopipe.http;
+
+import java.io.InputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import org.pmw.tinylog.Logger;
+
+/**
+ * This sends requests which were written by {@link LocalConnectionFactory}
+ * to their destinations, it is meant to be run in a separate process next
+ * to the function so that sending reports does not delay executions.
+ *
+ * The directory to read from is the first argument, or if there are no
+ * arguments the system property {@code com.iopipe.localforward} or the
+ * environment variable {@code IOPIPE_LOCAL_FORWARD}. Since the authorization
+ * token is not written with the requests, it is the second argument or the
+ * system property {@code com.iopipe.token} or the environment variable
+ * {@code IOPIPE_TOKEN} or {@code IOPIPE_CLIENTID}. Requests which were
+ * written for a different token are not sent.
+ *
+ * @since 2026/10/19
+ */
+public final class LocalForwarder
+	implements Runnable
+{
+	/** The time in milliseconds between checks for new requests. */
+	public static final long POLL_INTERVAL =
+		100;
+	
+	/** The number of destinations which are remembered. */
+	public static final int CACHED_DESTINATIONS =
+		32;
+	
+	/** The directory to read requests from. */
+	protected final Path directory;
+	
+	/** The factory for connections to the destinations. */
+	protected final RemoteConnectionFactory factory;
+	
+	/** The authorization token, may be {@code null}. */
+	protected final String authtoken;
+	
+	/**
+	 * Destinations which have been seen, most recently used last. The value
+	 * is {@code null} for destinations which are for another token.
+	 */
+	private final Map<Path, __Destination__> _destinations =
+		new LinkedHashMap<>(16, 0.75F, true);
+	
+	/**
+	 * Initializes the forwarder.
+	 *
+	 * @param __dir The directory to read requests from.
+	 * @param __f The factory for connections to the destinations.
+	 * @param __auth The authorization token, may be {@code null}.
+	 * @throws NullPointerException On null arguments except for
+	 * {@code __auth}.
+	 * @since 2026/10/19
+	 */
+	public LocalForwarder(Path __dir, RemoteConnectionFactory __f,
+		String __auth)
+		throws NullPointerException
+	{
+		if (__dir == null || __f == null)
+			throw new NullPointerException();
+		
+		this.directory = __dir;
+		this.factory = __f;
+		this.authtoken = __auth;
+	}
+	
+	/**
+	 * Sends every request which has been written, requests which could not
+	 * be sent are kept and are sent on a later call.
+	 *
+	 * @return The number of requests which were sent.
+	 * @throws IOException If the directory could not be read.
+	 * @since 2026/10/19
+	 */
+	public int forward()
+		throws IOException
+	{
+		int rv = 0;
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(
+			this.directory, Files::isDirectory))
+		{
+			for (Path dir : ds)
+				try
+				{
+					__Destination__ dest = this.__destination(dir);
+					if (dest != null)
+						rv += dest.spool.replay(dest.connection);
+				}
+				catch (IOException|RemoteException e)
+				{
+					Logger.error(e, "Could not forward requests in {}.", dir);
+				}
+		}
+		
+		return rv;
+	}
+	
+	/**
+	 * Forwards requests until the thread is interrupted.
+	 *
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void run()
+	{
+		for (;;)
+		{
+			try
+			{
+				int sent = this.forward();
+				if (sent > 0)
+					Logger.debug("Forwarded {} requests.", sent);
+			}
+			catch (IOException e)
+			{
+				Logger.error(e, "Could not read {}.", this.directory);
+			}
+			
+			try
+			{
+				Thread.sleep(POLL_INTERVAL);
+			}
+			catch (InterruptedException e)
+			{
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the destination for the given directory.
+	 *
+	 * @param __dir The directory.
+	 * @return The destination or {@code null} if it is not ready.
+	 * @throws IOException If the destination could not be read.
+	 * @throws RemoteException If the connection could not be made.
+	 * @since 2026/10/19
+	 */
+	private __Destination__ __destination(Path __dir)
+		throws IOException, RemoteException
+	{
+		Map<Path, __Destination__> destinations = this._destinations;
+		if (destinations.containsKey(__dir))
+			return destinations.get(__dir);
+		
+		// The destination is written before any request is
+		Path file = __dir.resolve(LocalConnectionFactory.DESTINATION_FILE);
+		if (!Files.exists(file))
+			return null;
+		
+		Properties props = new Properties();
+		try (InputStream is = Files.newInputStream(file))
+		{
+			props.load(is);
+		}
+		
+		String url = props.getProperty("url");
+		if (url == null)
+			throw new IOException("No URL in " + file + ".");
+		
+		// Forget the least recently used destination, it is opened again
+		// if it is still used
+		if (destinations.size() >= CACHED_DESTINATIONS)
+		{
+			Iterator<Path> it = destinations.keySet().iterator();
+			it.next();
+			it.remove();
+		}
+		
+		// The directory is named after the URL and token, so requests which
+		// were written with another token cannot be sent with this one
+		String auth = this.authtoken,
+			target = ReportSpool.target(url, auth);
+		if (!target.equals(__dir.getFileName().toString()))
+		{
+			Logger.warn("Not forwarding requests in {} since they are for " +
+				"another token.", __dir);
+			destinations.put(__dir, null);
+			return null;
+		}
+		
+		// The spool is only read from so its size is not important
+		__Destination__ rv = new __Destination__(new ReportSpool(__dir,
+			target, ReportSpool.DEFAULT_SPOOL_BYTES,
+			ReportSpool.DEFAULT_SPOOL_BYTES), this.factory.connect(url, auth));
+		destinations.put(__dir, rv);
+		return rv;
+	}
+	
+	/**
+	 * Forwards requests from the given directory.
+	 *
+	 * @param __args The directory to forward from and the authorization
+	 * token.
+	 * @since 2026/10/19
+	 */
+	public static void main(String... __args)
+	{
+		String dir = (__args != null && __args.length > 0 ? __args[0] :
+			LocalConnectionFactory.LOCAL_DIR);
+		if (dir == null)
+		{
+			System.err.println("Usage: LocalForwarder (directory) [token]");
+			System.exit(1);
+			return;
+		}
+		
+		String auth = (__args != null && __args.length > 1 ? __args[1] :
+			System.getProperty("com.iopipe.token", Objects.toString(
+			System.getenv("IOPIPE_TOKEN"), System.getenv("IOPIPE_CLIENTID"))));
+		
+		new LocalForwarder(Paths.get(dir), new ServiceConnectionFactory(),
+			auth).run();
+	}
+	
+	/**
+	 * This is a destination which requests are sent to.
+	 *
+	 * @since 2026/10/19
+	 */
+	private static final class __Destination__
+	{
+		/** The spool containing the requests. */
+		protected final ReportSpool spool;
+		
+		/** The connection to the destination. */
+		protected final RemoteConnection connection;
+		
+		/**
+		 * Initializes the destination.
+		 *
+		 * @param __s The spool containing the requests.
+		 * @param __c The connection to the destination.
+		 * @throws NullPointerException On null arguments.
+		 * @since 2026/10/19
+		 */
+		__Destination__(ReportSpool __s, RemoteConnection __c)
+			throws NullPointerException
+		{
+			if (__s == null || __c == null)
+				throw new NullPointerException();
+			
+			this.spool = __s;
+			this.connection = __c;
+		}
+	}
+}
+
@@ -21,6 +21,10 @@ public abstract class RemoteBody
 	public static final String MIMETYPE_JSON =
 		"application/json; charset=utf-8";
 	
+	/** The mime type for CBOR, which is used for compact reports. */
+	public static final String MIMETYPE_CBOR =
+		"application/cbor";
+	
 	/** The mimetype of the body. */
 	protected final String mimetype;
 	
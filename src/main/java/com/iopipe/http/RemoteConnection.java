@@ -1,5 +1,7 @@
 package com.iopipe.http;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * This interface is used to represent a single connection to the IOpipe
  * service. The server is sent {@link RemoteRequest}s and the result of
@@ -25,5 +27,110 @@ public interface RemoteConnection
 	 */
 	public abstract RemoteResult send(RequestType __t, RemoteRequest __r)
 		throws NullPointerException, RemoteException;
+	
+	/**
+	 * Sends the given request to the remote server, where the caller
+	 * specifies whether the body of the response is needed. By default the
+	 * request is sent using {@link #send(RequestType, RemoteRequest)}.
+	 *
+	 * @param __t The type of request to make.
+	 * @param __r The request to send to the remote server.
+	 * @param __m The parts of the response which are needed, if only the
+	 * status is needed then the result may have an empty body.
+	 * @return The result of the request.
+	 * @throws NullPointerException On null arguments.
+	 * @throws RemoteException If the request could not be sent.
+	 * @since 2026/10/19
+	 */
+	public default RemoteResult send(RequestType __t, RemoteRequest __r,
+		ResponseMode __m)
+		throws NullPointerException, RemoteException
+	{
+		if (__m == null)
+			throw new NullPointerException();
+		
+		return this.send(__t, __r);
+	}
+	
+	/**
+	 * Sends the given request to the remote server, the request should not
+	 * take longer than the given time. By default the time is not used and
+	 * the request is sent using
+	 * {@link #send(RequestType, RemoteRequest, ResponseMode)}.
+	 *
+	 * @param __t The type of request to make.
+	 * @param __r The request to send to the remote server.
+	 * @param __m The parts of the response which are needed.
+	 * @param __timeoutms The time in milliseconds the request may take, if
+	 * this is zero or lower then the time is not limited.
+	 * @return The result of the request.
+	 * @throws NullPointerException On null arguments.
+	 * @throws RemoteException If the request could not be sent or took too
+	 * long.
+	 * @since 2026/10/19
+	 */
+	public default RemoteResult send(RequestType __t, RemoteRequest __r,
+		ResponseMode __m, long __timeoutms)
+		throws NullPointerException, RemoteException
+	{
+		return this.send(__t, __r, __m);
+	}
+	
+	/**
+	 * Indicates that an execution has finished and that the container may
+	 * be frozen soon, connections which hold requests decide from the time
+	 * remaining whether to send them now or in a later execution. Any
+	 * failure is not thrown.
+	 *
+	 * @param __remainingms The time remaining in the execution in
+	 * milliseconds, this is zero if it is not known.
+	 * @since 2026/10/19
+	 */
+	public default void flush(long __remainingms)
+	{
+	}
+	
+	/**
+	 * Returns the time it took to establish the most recent connection to
+	 * the remote server, this includes name resolution and any handshakes.
+	 *
+	 * @return The connection time in nanoseconds, or a negative value if it
+	 * is not known.
+	 * @since 2026/10/19
+	 */
+	public default long handshakeNanos()
+	{
+		return -1;
+	}
+	
+	/**
+	 * Starts connecting to the remote server in the background so that the
+	 * connection is ready when the first request is sent. This must not
+	 * block and any failure is ignored.
+	 *
+	 * @since 2026/10/19
+	 */
+	public default void preconnect()
+	{
+	}
+	
+	/**
+	 * Sends the given request to the remote server without waiting for the
+	 * result. By default the request is sent using {@link #send} on another
+	 * thread.
+	 *
+	 * @param __t The type of request to make.
+	 * @param __r The request to send to the remote server.
+	 * @return The future result of the request, this completes with a
+	 * {@link RemoteException} if the request could not be sent.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public default CompletableFuture<RemoteResult> sendAsync(RequestType __t,
+		RemoteRequest __r)
+		throws NullPointerException
+	{
+		return __AsyncSend__.send(this, __t, __r);
+	}
 }
 
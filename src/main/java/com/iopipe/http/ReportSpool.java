@@ -0,0 +1,891 @@
+package com.iopipe.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import org.pmw.tinylog.Logger;
+
+/**
+ * This is a connection which stores requests on the disk so that they may be
+ * sent later, this is used for requests which could not be sent because
+ * the remote server was not reachable. Requests are only kept for as long
+ * as the container exists.
+ *
+ * Requests are appended to segment files, each request is stored as its
+ * length, a checksum, the type of request, the destination, the mime type
+ * and the body. The destination is only an identifier made from the URL and
+ * authorization token, see {@link #target(String, String)}, and requests are
+ * only replayed by a spool for the same destination. Requests for other
+ * destinations are kept for whichever spool is for them. A new
+ * segment is started when the current one is full and whenever the spool is
+ * opened, so a request which was only partially written by a process which
+ * was stopped is never followed by another request. When replaying, a
+ * request which is partially written or has an invalid checksum ends the
+ * segment.
+ *
+ * The segment being written to is locked and is only sent once it is
+ * finished, so another process such as {@link LocalForwarder} may send the
+ * requests in the same directory. Segments left unfinished by a process
+ * which has stopped are finished when the spool is opened.
+ *
+ * If the spool takes up too much space then the oldest segments are
+ * removed.
+ *
+ * Requests are replayed in the background by a single thread which stops
+ * when it has been idle for a while.
+ *
+ * @since 2026/10/19
+ */
+public final class ReportSpool
+	implements RemoteConnection
+{
+	/** The default maximum number of bytes the spool may use. */
+	public static final int DEFAULT_SPOOL_BYTES =
+		4194304;
+	
+	/**
+	 * The maximum number of bytes the spool may use, if this is zero or lower
+	 * then requests are not spooled.
+	 */
+	public static final int SPOOL_BYTES;
+	
+	/**
+	 * The directory where requests are spooled, if this is {@code null} then
+	 * requests are not spooled.
+	 */
+	public static final String SPOOL_DIR;
+	
+	/** The extension used for segment files. */
+	private static final String _EXTENSION =
+		".spool";
+	
+	/** The extension used for segments which are being written to. */
+	private static final String _OPEN_EXTENSION =
+		".open";
+	
+	/** The size of the length and checksum before each request. */
+	private static final int _HEADER_SIZE =
+		8;
+	
+	/** The smallest request, the type and the lengths of two strings. */
+	private static final int _MIN_RECORD =
+		5;
+	
+	/** The time in milliseconds the replay thread is kept when idle. */
+	private static final long _REPLAY_KEEP_ALIVE =
+		30000;
+	
+	/** The directory the segments are in. */
+	protected final Path directory;
+	
+	/** The destination of requests which are stored and replayed. */
+	protected final String target;
+	
+	/** The maximum number of bytes the spool may use. */
+	protected final long maxbytes;
+	
+	/** The size at which a new segment is started. */
+	protected final long segmentbytes;
+	
+	/** The destination encoded as bytes. */
+	private final byte[] _target;
+	
+	/** Is a replay running? */
+	private final AtomicBoolean _replaying =
+		new AtomicBoolean();
+	
+	/** Is a replay waiting for or running on the replay thread? */
+	private final AtomicBoolean _replayqueued =
+		new AtomicBoolean();
+	
+	/** Was a replay requested since the running replay started? */
+	private final AtomicBoolean _replayrequested =
+		new AtomicBoolean();
+	
+	/** The single thread which replays requests in the background. */
+	private final ThreadPoolExecutor _replayer;
+	
+	/** The segment being written to. */
+	private FileChannel _out;
+	
+	/** The path of the segment being written to. */
+	private Path _outpath;
+	
+	/** The size of the segment being written to. */
+	private long _outbytes;
+	
+	/** The number of the next segment. */
+	private long _next;
+	
+	/** The number of bytes in all segments. */
+	private long _bytes;
+	
+	/**
+	 * Determines the spool location and size.
+	 *
+	 * @since 2026/10/19
+	 */
+	static
+	{
+		SPOOL_BYTES = __Property__.integer("com.iopipe.spool.bytes",
+			"IOPIPE_SPOOL_BYTES", DEFAULT_SPOOL_BYTES);
+		SPOOL_DIR = System.getProperty("com.iopipe.spool.dir",
+			System.getenv("IOPIPE_SPOOL_DIR"));
+	}
+	
+	/**
+	 * Opens the spool in the given directory, the directory is created if
+	 * it does not exist.
+	 *
+	 * @param __dir The directory to store segments in.
+	 * @param __target The destination of requests, this should be made by
+	 * {@link #target(String, String)}.
+	 * @param __max The maximum number of bytes the spool may use.
+	 * @param __seg The size at which a new segment is started.
+	 * @throws IllegalArgumentException If the sizes are not positive or the
+	 * destination is too long.
+	 * @throws IOException If the directory could not be read or created.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public ReportSpool(Path __dir, String __target, long __max, long __seg)
+		throws IllegalArgumentException, IOException, NullPointerException
+	{
+		if (__dir == null || __target == null)
+			throw new NullPointerException();
+		if (__max <= 0 || __seg <= 0)
+			throw new IllegalArgumentException(
+				"Spool sizes must be positive.");
+		
+		byte[] target = __target.getBytes(StandardCharsets.UTF_8);
+		if (target.length > 0xFFFF)
+			throw new IllegalArgumentException("Spool target is too long.");
+		
+		Files.createDirectories(__dir);
+		
+		this.directory = __dir;
+		this.target = __target;
+		this._target = target;
+		this.maxbytes = __max;
+		this.segmentbytes = Math.min(__max, __seg);
+		
+		// The thread only exists while there is something to replay
+		ThreadPoolExecutor replayer = new ThreadPoolExecutor(1, 1,
+			_REPLAY_KEEP_ALIVE, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<>(), (__r) ->
+			{
+				Thread t = new Thread(__r, "IOpipe-SpoolReplay");
+				t.setDaemon(true);
+				return t;
+			});
+		replayer.allowCoreThreadTimeOut(true);
+		this._replayer = replayer;
+		
+		// Segments which are open but not locked were being written to by
+		// a process which has stopped
+		long next = 0,
+			bytes = 0;
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(__dir,
+			"*" + _OPEN_EXTENSION))
+		{
+			for (Path p : ds)
+			{
+				next = Math.max(next, ReportSpool.__number(p) + 1);
+				ReportSpool.__recover(p);
+			}
+		}
+		
+		// Never write to existing segments since they may end with a request
+		// which was partially written
+		for (Path p : this.__segments())
+		{
+			next = Math.max(next, ReportSpool.__number(p) + 1);
+			bytes += Files.size(p);
+		}
+		this._next = next;
+		this._bytes = bytes;
+	}
+	
+	/**
+	 * Stores a request in the spool.
+	 *
+	 * @param __t The type of request.
+	 * @param __r The request to store.
+	 * @throws IOException If it could not be stored.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public void append(RequestType __t, RemoteRequest __r)
+		throws IOException, NullPointerException
+	{
+		if (__t == null || __r == null)
+			throw new NullPointerException();
+		
+		byte[] target = this._target,
+			mime = __r.mimeType().getBytes(StandardCharsets.UTF_8),
+			body = __r.body();
+		
+		// Length and checksum, then the request
+		int len = _MIN_RECORD + target.length + mime.length + body.length;
+		ByteBuffer record = ByteBuffer.allocate(_HEADER_SIZE + len);
+		record.position(_HEADER_SIZE);
+		record.put((byte)__t.ordinal());
+		record.putShort((short)target.length);
+		record.put(target);
+		record.putShort((short)mime.length);
+		record.put(mime);
+		record.put(body);
+		
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), _HEADER_SIZE, len);
+		record.putInt(0, len);
+		record.putInt(4, (int)crc.getValue());
+		record.rewind();
+		
+		synchronized (this)
+		{
+			FileChannel out = this._out;
+			if (out == null || this._outbytes + record.limit() >
+				this.segmentbytes)
+				out = this.__roll();
+			
+			// Nothing may follow a request which was partially written
+			try
+			{
+				while (record.hasRemaining())
+					out.write(record);
+			}
+			catch (IOException e)
+			{
+				this.__close();
+				throw e;
+			}
+			
+			this._outbytes += record.limit();
+			this._bytes += record.limit();
+			
+			this.__evict();
+		}
+	}
+	
+	/**
+	 * Returns the number of bytes in the spool.
+	 *
+	 * @return The number of bytes in the spool.
+	 * @since 2026/10/19
+	 */
+	public long bytes()
+	{
+		synchronized (this)
+		{
+			return this._bytes;
+		}
+	}
+	
+	/**
+	 * Finishes the segment being written to so that the requests in it may
+	 * be sent by another process.
+	 *
+	 * @param __remainingms Not used.
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void flush(long __remainingms)
+	{
+		synchronized (this)
+		{
+			try
+			{
+				this.__close();
+			}
+			catch (IOException e)
+			{
+				Logger.error(e, "Could not finish spool segment.");
+			}
+		}
+	}
+	
+	/**
+	 * Sends all stored requests for the destination of this spool to the
+	 * given connection, oldest first. Requests are removed once they have
+	 * been sent and replaying stops at the first request which fails, which
+	 * is kept. Requests for other destinations are kept. Requests which are
+	 * partially written or are corrupt are skipped.
+	 *
+	 * @param __c The connection to send to.
+	 * @return The number of requests which were sent.
+	 * @throws IOException If the spool could not be read.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public int replay(RemoteConnection __c)
+		throws IOException, NullPointerException
+	{
+		if (__c == null)
+			throw new NullPointerException();
+		
+		// Only a single replay at a time
+		if (!this._replaying.compareAndSet(false, true))
+			return 0;
+		
+		try
+		{
+			// Close the current segment so that every existing one is
+			// complete and is not written to while it is sent
+			List<Path> segments;
+			synchronized (this)
+			{
+				this.__close();
+				segments = this.__segments();
+			}
+			
+			int rv = 0;
+			for (Path p : segments)
+			{
+				int sent = this.__replay(__c, p);
+				if (sent < 0)
+					return rv - sent - 1;
+				rv += sent;
+			}
+			
+			return rv;
+		}
+		finally
+		{
+			this._replaying.set(false);
+		}
+	}
+	
+	/**
+	 * Sends all stored requests to the given connection on the replay
+	 * thread, nothing is done if there are no stored requests. If a replay
+	 * is already waiting or running then it replays again once it is done,
+	 * so that requests stored while it was finishing are not left behind.
+	 *
+	 * @param __c The connection to send to.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public void replayLater(RemoteConnection __c)
+		throws NullPointerException
+	{
+		if (__c == null)
+			throw new NullPointerException();
+		
+		// The running replay checks this after it is done
+		this._replayrequested.set(true);
+		if (this.bytes() <= 0 || !this._replayqueued.compareAndSet(false,
+			true))
+			return;
+		
+		this._replayer.execute(() -> this.__replayQueued(__c));
+	}
+	
+	/**
+	 * Stores the request so that it may be sent later.
+	 *
+	 * @param __t The type of request.
+	 * @param __r The request to store.
+	 * @return A result with the 202 status code, which only means that the
+	 * request was stored and not that it was sent.
+	 * @throws NullPointerException On null arguments.
+	 * @throws RemoteException If the request could not be stored.
+	 * @since 2026/10/19
+	 */
+	@Override
+	public RemoteResult send(RequestType __t, RemoteRequest __r)
+		throws NullPointerException, RemoteException
+	{
+		try
+		{
+			this.append(__t, __r);
+		}
+		catch (IOException e)
+		{
+			throw new RemoteException("Could not spool request.", e);
+		}
+		
+		return new RemoteResult(202, RemoteBody.MIMETYPE_JSON, "");
+	}
+	
+	/**
+	 * Closes the segment being written to.
+	 *
+	 * @throws IOException If it could not be closed.
+	 * @since 2026/10/19
+	 */
+	private void __close()
+		throws IOException
+	{
+		FileChannel out = this._out;
+		if (out != null)
+		{
+			this._out = null;
+			
+			// Seal it while it is still locked so that it is never
+			// recovered by another process
+			try
+			{
+				ReportSpool.__seal(this._outpath);
+			}
+			finally
+			{
+				out.close();
+			}
+		}
+	}
+	
+	/**
+	 * Removes the oldest segments until the spool is within its size, the
+	 * segment being written to is never removed.
+	 *
+	 * @throws IOException If the segments could not be read.
+	 * @since 2026/10/19
+	 */
+	private void __evict()
+		throws IOException
+	{
+		if (this._bytes <= this.maxbytes)
+			return;
+		
+		// Another process may have sent and removed segments
+		List<Path> segments = this.__segments();
+		long bytes = this._outbytes;
+		for (Path p : segments)
+			bytes += Files.size(p);
+		this._bytes = bytes;
+		
+		for (int i = 0, n = segments.size(); i < n &&
+			this._bytes > this.maxbytes; i++)
+		{
+			Path p = segments.get(i);
+			long size = Files.size(p);
+			if (Files.deleteIfExists(p))
+			{
+				Logger.warn("Spool is full, dropped {} bytes of requests.",
+					size);
+				this._bytes -= size;
+			}
+		}
+	}
+	
+	/**
+	 * Replaces the segment with the requests which were not sent.
+	 *
+	 * @param __p The segment.
+	 * @param __b The requests which were not sent.
+	 * @param __size The size of the segment.
+	 * @throws IOException If it could not be replaced.
+	 * @since 2026/10/19
+	 */
+	private void __keep(Path __p, List<ByteBuffer> __b, long __size)
+		throws IOException
+	{
+		long kept = 0;
+		Path temp = __p.resolveSibling(__p.getFileName() + ".tmp");
+		try (FileChannel out = FileChannel.open(temp,
+			StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			for (ByteBuffer b : __b)
+			{
+				kept += b.remaining();
+				while (b.hasRemaining())
+					out.write(b);
+			}
+		}
+		
+		synchronized (this)
+		{
+			// May have been removed because the spool was full
+			if (!Files.exists(__p))
+			{
+				Files.deleteIfExists(temp);
+				return;
+			}
+			
+			Files.move(temp, __p, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+			this._bytes -= __size - kept;
+		}
+	}
+	
+	/**
+	 * Replays the spool on the replay thread, this is repeated as long as
+	 * another replay was requested while the previous one was running.
+	 *
+	 * @param __c The connection to send to.
+	 * @since 2026/10/19
+	 */
+	private void __replayQueued(RemoteConnection __c)
+	{
+		AtomicBoolean queued = this._replayqueued,
+			requested = this._replayrequested;
+		for (;;)
+		{
+			requested.set(false);
+			try
+			{
+				int sent = this.replay(__c);
+				if (sent > 0)
+					Logger.debug("Sent {} spooled requests.", sent);
+			}
+			catch (IOException|RuntimeException e)
+			{
+				Logger.error(e, "Could not replay spooled requests.");
+			}
+			
+			// Clear the flag before checking for requests, a request made
+			// after it is cleared queues its own replay
+			queued.set(false);
+			if (!requested.get() || this.bytes() <= 0 ||
+				!queued.compareAndSet(false, true))
+				return;
+		}
+	}
+	
+	/**
+	 * Sends the requests in the given segment.
+	 *
+	 * @param __c The connection to send to.
+	 * @param __p The segment to send.
+	 * @return The number of requests which were sent, if a request failed
+	 * then this is the negative number sent minus one.
+	 * @throws IOException If the segment could not be read.
+	 * @since 2026/10/19
+	 */
+	private int __replay(RemoteConnection __c, Path __p)
+		throws IOException
+	{
+		MappedByteBuffer map;
+		long size;
+		try (FileChannel in = FileChannel.open(__p, StandardOpenOption.READ))
+		{
+			size = in.size();
+			map = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		
+		// Removed because the spool was full
+		catch (NoSuchFileException e)
+		{
+			return 0;
+		}
+		
+		int rv = 0;
+		boolean failed = false;
+		List<ByteBuffer> kept = new ArrayList<>();
+		CRC32 crc = new CRC32();
+		while (map.remaining() >= _HEADER_SIZE)
+		{
+			int at = map.position(),
+				len = map.getInt(),
+				sum = map.getInt();
+			
+			// Partially written, the rest of the segment is not used
+			if (len < _MIN_RECORD || len > map.remaining())
+				break;
+			
+			byte[] data = new byte[len];
+			map.get(data);
+			crc.reset();
+			crc.update(data, 0, len);
+			if ((int)crc.getValue() != sum)
+				break;
+			
+			ByteBuffer record = ByteBuffer.wrap(data);
+			RequestType type = RequestType.values()[record.get()];
+			String target = ReportSpool.__string(record);
+			if (target == null)
+				break;
+			
+			// Requests for other destinations are left for them and nothing
+			// is sent after a request which failed, so the order is kept
+			if (failed || !this.target.equals(target))
+			{
+				kept.add(ReportSpool.__slice(map, at, _HEADER_SIZE + len));
+				continue;
+			}
+			
+			String mime = ReportSpool.__string(record);
+			if (mime == null)
+				break;
+			RemoteRequest request = new RemoteRequest(mime, data,
+				record.position(), record.remaining());
+			
+			boolean okay;
+			try
+			{
+				int code = __c.send(type, request,
+					ResponseMode.STATUS).code();
+				okay = (code >= 200 && code < 300);
+			}
+			catch (RemoteException e)
+			{
+				okay = false;
+			}
+			
+			// Keep this and every request after it
+			if (!okay)
+			{
+				failed = true;
+				kept.add(ReportSpool.__slice(map, at, _HEADER_SIZE + len));
+				continue;
+			}
+			
+			rv++;
+		}
+		
+		// Only rewrite the segment if anything in it was sent
+		if (!kept.isEmpty())
+		{
+			if (rv > 0)
+				this.__keep(__p, kept, size);
+		}
+		else
+			synchronized (this)
+			{
+				if (Files.deleteIfExists(__p))
+					this._bytes -= size;
+			}
+		
+		return (failed ? -rv - 1 : rv);
+	}
+	
+	/**
+	 * Starts a new segment.
+	 *
+	 * @return The new segment.
+	 * @throws IOException If it could not be created.
+	 * @since 2026/10/19
+	 */
+	private FileChannel __roll()
+		throws IOException
+	{
+		this.__close();
+		
+		// Other processes do not recover this segment while it is locked
+		Path path = this.directory.resolve(
+			String.format("%016d%s", this._next++, _OPEN_EXTENSION));
+		FileChannel rv = FileChannel.open(path,
+			StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		rv.tryLock();
+		this._out = rv;
+		this._outpath = path;
+		this._outbytes = 0;
+		return rv;
+	}
+	
+	/**
+	 * Returns all of the segments, oldest first.
+	 *
+	 * @return The segments.
+	 * @throws IOException If the directory could not be read.
+	 * @since 2026/10/19
+	 */
+	private List<Path> __segments()
+		throws IOException
+	{
+		List<Path> rv = new ArrayList<>();
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(
+			this.directory, "*" + _EXTENSION))
+		{
+			for (Path p : ds)
+				if (ReportSpool.__number(p) >= 0)
+					rv.add(p);
+		}
+		
+		Collections.sort(rv);
+		return rv;
+	}
+	
+	/**
+	 * Opens the spool using the configured location and size, the spool is
+	 * disabled unless a directory is configured.
+	 *
+	 * @param __url The URL requests are sent to.
+	 * @param __auth The authorization token, may be {@code null}.
+	 * @return The spool or {@code null} if it is disabled or could not be
+	 * opened.
+	 * @throws NullPointerException If no URL was specified.
+	 * @since 2026/10/19
+	 */
+	public static ReportSpool open(String __url, String __auth)
+		throws NullPointerException
+	{
+		if (__url == null)
+			throw new NullPointerException();
+		
+		if (SPOOL_DIR == null || SPOOL_BYTES <= 0)
+			return null;
+		
+		try
+		{
+			return new ReportSpool(Paths.get(SPOOL_DIR),
+				ReportSpool.target(__url, __auth), SPOOL_BYTES,
+				Math.max(65536, SPOOL_BYTES / 8));
+		}
+		catch (InvalidPathException|IOException|SecurityException e)
+		{
+			Logger.error(e, "Could not open the spool in {}.", SPOOL_DIR);
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the number of the given segment.
+	 *
+	 * @param __p The segment.
+	 * @return The segment number or {@code -1} if it is not a segment.
+	 * @since 2026/10/19
+	 */
+	private static long __number(Path __p)
+	{
+		String name = __p.getFileName().toString();
+		try
+		{
+			return Long.parseLong(name.substring(0, name.indexOf('.')), 10);
+		}
+		catch (IndexOutOfBoundsException|NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+	
+	/**
+	 * Seals the given open segment if the process writing to it has
+	 * stopped.
+	 *
+	 * @param __p The open segment.
+	 * @throws IOException If it could not be sealed.
+	 * @since 2026/10/19
+	 */
+	private static void __recover(Path __p)
+		throws IOException
+	{
+		try (FileChannel fc = FileChannel.open(__p, StandardOpenOption.WRITE))
+		{
+			FileLock lock = fc.tryLock();
+			if (lock != null)
+				ReportSpool.__seal(__p);
+		}
+		
+		// Still being written to by this process
+		catch (OverlappingFileLockException e)
+		{
+		}
+		
+		// Sealed or removed by another process
+		catch (NoSuchFileException e)
+		{
+		}
+	}
+	
+	/**
+	 * Returns a part of the given buffer.
+	 *
+	 * @param __b The buffer.
+	 * @param __at The position of the part.
+	 * @param __len The length of the part.
+	 * @return The part of the buffer.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static ByteBuffer __slice(ByteBuffer __b, int __at, int __len)
+		throws NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		
+		ByteBuffer rv = __b.duplicate();
+		rv.position(__at);
+		rv.limit(__at + __len);
+		return rv.slice();
+	}
+	
+	/**
+	 * Reads a string which is prefixed by its length.
+	 *
+	 * @param __b The buffer to read from, must be backed by an array.
+	 * @return The string or {@code null} if it is longer than the buffer.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static String __string(ByteBuffer __b)
+		throws NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		
+		if (__b.remaining() < 2)
+			return null;
+		
+		int len = __b.getShort() & 0xFFFF,
+			at = __b.position();
+		if (len > __b.remaining())
+			return null;
+		
+		__b.position(at + len);
+		return new String(__b.array(), __b.arrayOffset() + at, len,
+			StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Seals the given open segment so that it may be sent.
+	 *
+	 * @param __p The open segment.
+	 * @throws IOException If it could not be sealed.
+	 * @since 2026/10/19
+	 */
+	private static void __seal(Path __p)
+		throws IOException
+	{
+		String name = __p.getFileName().toString();
+		Files.move(__p, __p.resolveSibling(name.substring(0,
+			name.length() - _OPEN_EXTENSION.length()) + _EXTENSION),
+			StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Returns the destination identifier for the given URL and authorization
+	 * token. The token itself is never stored in the spool.
+	 *
+	 * @param __url The URL requests are sent to.
+	 * @param __auth The authorization token, may be {@code null}.
+	 * @return The destination identifier.
+	 * @throws NullPointerException If no URL was specified.
+	 * @since 2026/10/19
+	 */
+	public static String target(String __url, String __auth)
+		throws NullPointerException
+	{
+		if (__url == null)
+			throw new NullPointerException();
+		
+		return UUID.nameUUIDFromBytes((__url + "\n" +
+			Objects.toString(__auth, "")).getBytes(StandardCharsets.UTF_8)).
+			toString();
+	}
+}
+
@@ -0,0 +1,464 @@
+package com.iopipe.http;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.pmw.tinylog.Logger;
+
+/**
+ * This is a connection which retries requests which fail because the remote
+ * server could not be reached or because it was unavailable, and which
+ * stops sending requests for a while when the server keeps failing.
+ *
+ * Requests are attempted a limited number of times and the total time spent
+ * on a single request, including waiting between attempts, is bounded. The
+ * time waited between attempts grows exponentially and is randomized so
+ * that many containers do not retry at the same time. If the request is
+ * given a time limit, such as the time remaining in the execution, then
+ * every attempt is limited to the time which is left.
+ *
+ * After a number of consecutive failed requests the circuit is opened and
+ * requests are skipped without being sent, once the cool down has passed a
+ * single request is sent and if that succeeds then requests are sent again.
+ * Skipped requests and requests which still failed after every attempt are
+ * also given to the fallback connection if there is one so that they may be
+ * sent later, but the caller still gets the failure. If the fallback is a
+ * {@link ReportSpool} then requests in it are sent in the background once a
+ * request succeeds.
+ *
+ * Results with a status code of 429 or in the 500 range are retried, all
+ * other results are returned as they are since the server was reachable.
+ *
+ * @since 2026/10/19
+ */
+public final class ResilientConnection
+	implements RemoteConnection
+{
+	/** Is this used for reports sent by the service? */
+	public static final boolean ENABLED;
+	
+	/** The default maximum number of attempts for a request. */
+	public static final int DEFAULT_RETRY_ATTEMPTS =
+		3;
+	
+	/** The default time in milliseconds which may be spent on a request. */
+	public static final int DEFAULT_RETRY_BUDGET =
+		1000;
+	
+	/** The default number of failed requests which open the circuit. */
+	public static final int DEFAULT_CIRCUIT_FAILURES =
+		5;
+	
+	/** The default time in milliseconds the circuit stays open. */
+	public static final int DEFAULT_CIRCUIT_COOLDOWN =
+		30000;
+	
+	/** The maximum number of attempts for a request. */
+	public static final int RETRY_ATTEMPTS;
+	
+	/** The time in milliseconds which may be spent on a request. */
+	public static final int RETRY_BUDGET;
+	
+	/**
+	 * The number of failed requests which open the circuit, if this is zero
+	 * or lower then the circuit is never opened.
+	 */
+	public static final int CIRCUIT_FAILURES;
+	
+	/** The time in milliseconds the circuit stays open. */
+	public static final int CIRCUIT_COOLDOWN;
+	
+	/** The time in milliseconds waited after the first attempt. */
+	private static final long _BASE_BACKOFF =
+		25;
+	
+	/** The maximum time in milliseconds waited between attempts. */
+	private static final long _MAX_BACKOFF =
+		500;
+	
+	/** The connection to send requests to. */
+	protected final RemoteConnection connection;
+	
+	/** The connection which is given failed requests, may be null. */
+	protected final RemoteConnection fallback;
+	
+	/** The maximum number of attempts for a request. */
+	protected final int attempts;
+	
+	/** The time in milliseconds which may be spent on a request. */
+	protected final long budgetms;
+	
+	/** The number of failed requests which open the circuit. */
+	protected final int failures;
+	
+	/** The time in milliseconds the circuit stays open. */
+	protected final long cooldownms;
+	
+	/** The number of requests which were given to the fallback. */
+	private final AtomicInteger _fallbacks =
+		new AtomicInteger();
+	
+	/** The number of consecutive failed requests. */
+	private int _failed;
+	
+	/** Is the circuit open? */
+	private boolean _open;
+	
+	/** When the circuit was opened. */
+	private long _openedns;
+	
+	/** Is a single request being sent to check the server? */
+	private boolean _probing;
+	
+	/**
+	 * Determines if this is used and the retry and circuit limits.
+	 *
+	 * @since 2026/10/19
+	 */
+	static
+	{
+		ENABLED = Boolean.valueOf(System.getProperty("com.iopipe.resilient",
+			Objects.toString(System.getenv("IOPIPE_RESILIENT"), "false")));
+		
+		RETRY_ATTEMPTS = __Property__.integer("com.iopipe.retry.attempts",
+			"IOPIPE_RETRY_ATTEMPTS", DEFAULT_RETRY_ATTEMPTS);
+		RETRY_BUDGET = __Property__.integer("com.iopipe.retry.budget",
+			"IOPIPE_RETRY_BUDGET", DEFAULT_RETRY_BUDGET);
+		CIRCUIT_FAILURES = __Property__.integer(
+			"com.iopipe.circuit.failures", "IOPIPE_CIRCUIT_FAILURES",
+			DEFAULT_CIRCUIT_FAILURES);
+		CIRCUIT_COOLDOWN = __Property__.integer(
+			"com.iopipe.circuit.cooldown", "IOPIPE_CIRCUIT_COOLDOWN",
+			DEFAULT_CIRCUIT_COOLDOWN);
+	}
+	
+	/**
+	 * Initializes the connection using the default limits.
+	 *
+	 * @param __c The connection to send requests to.
+	 * @param __fb The connection which is given failed requests, this may
+	 * be {@code null}.
+	 * @throws NullPointerException If no connection was specified.
+	 * @since 2026/10/19
+	 */
+	public ResilientConnection(RemoteConnection __c, RemoteConnection __fb)
+		throws NullPointerException
+	{
+		this(__c, RETRY_ATTEMPTS, RETRY_BUDGET, CIRCUIT_FAILURES,
+			CIRCUIT_COOLDOWN, __fb);
+	}
+	
+	/**
+	 * Initializes the connection.
+	 *
+	 * @param __c The connection to send requests to.
+	 * @param __attempts The maximum number of attempts for a request.
+	 * @param __budgetms The time in milliseconds which may be spent on a
+	 * request.
+	 * @param __failures The number of failed requests which open the
+	 * circuit, zero or lower never opens it.
+	 * @param __cooldownms The time in milliseconds the circuit stays open.
+	 * @param __fb The connection which is given failed requests, this may
+	 * be {@code null}.
+	 * @throws NullPointerException If no connection was specified.
+	 * @since 2026/10/19
+	 */
+	public ResilientConnection(RemoteConnection __c, int __attempts,
+		long __budgetms, int __failures, long __cooldownms,
+		RemoteConnection __fb)
+		throws NullPointerException
+	{
+		if (__c == null)
+			throw new NullPointerException();
+		
+		this.connection = __c;
+		this.attempts = Math.max(1, __attempts);
+		this.budgetms = Math.max(0, __budgetms);
+		this.failures = __failures;
+		this.cooldownms = Math.max(0, __cooldownms);
+		this.fallback = __fb;
+	}
+	
+	/**
+	 * Returns the number of requests which failed or were skipped and which
+	 * were given to the fallback connection.
+	 *
+	 * @return The number of requests given to the fallback.
+	 * @since 2026/10/19
+	 */
+	public int fallbackCount()
+	{
+		return this._fallbacks.get();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void flush(long __remainingms)
+	{
+		this.connection.flush(__remainingms);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public long handshakeNanos()
+	{
+		return this.connection.handshakeNanos();
+	}
+	
+	/**
+	 * Returns whether the circuit is open and requests are being skipped.
+	 *
+	 * @return If the circuit is open.
+	 * @since 2026/10/19
+	 */
+	public boolean isOpen()
+	{
+		synchronized (this)
+		{
+			return this._open;
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void preconnect()
+	{
+		this.connection.preconnect();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public RemoteResult send(RequestType __t, RemoteRequest __r)
+		throws NullPointerException, RemoteException
+	{
+		return this.send(__t, __r, ResponseMode.BODY);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public RemoteResult send(RequestType __t, RemoteRequest __r,
+		ResponseMode __m)
+		throws NullPointerException, RemoteException
+	{
+		return this.send(__t, __r, __m, 0);
+	}
+	
+	/**
+	 * Sends the request, retrying it if it fails. Every attempt is limited
+	 * to the time which is left and no attempt is started if waiting for it
+	 * would go past the time limit or the retry budget.
+	 *
+	 * @param __t {@inheritDoc}
+	 * @param __r {@inheritDoc}
+	 * @param __m {@inheritDoc}
+	 * @param __timeoutms {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @throws NullPointerException {@inheritDoc}
+	 * @throws RemoteException {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public RemoteResult send(RequestType __t, RemoteRequest __r,
+		ResponseMode __m, long __timeoutms)
+		throws NullPointerException, RemoteException
+	{
+		if (__t == null || __r == null || __m == null)
+			throw new NullPointerException();
+		
+		// Do not wait on a server which is known to be failing, the request
+		// is kept for later but it was still not sent
+		if (!this.__allow())
+		{
+			this.__fallback(__t, __r);
+			throw new RemoteException("Not sending request because the " +
+				"remote server has been failing.");
+		}
+		
+		RemoteConnection connection = this.connection;
+		long startns = System.nanoTime(),
+			budgetms = this.budgetms;
+		for (int attempt = 1;; attempt++)
+		{
+			// The attempt may only take as long as is left
+			long timeoutms = (__timeoutms <= 0 ? 0 : Math.max(1,
+				__timeoutms - ((System.nanoTime() - startns) / 1_000_000L)));
+			
+			RemoteResult result = null;
+			RemoteException fail = null;
+			try
+			{
+				result = connection.send(__t, __r, __m, timeoutms);
+			}
+			catch (RemoteException e)
+			{
+				fail = e;
+			}
+			
+			// The server was reached and handled the request
+			if (fail == null && !ResilientConnection.__retry(result.code()))
+			{
+				this.__success();
+				return result;
+			}
+			
+			// Wait a random amount of time up to the backoff, but only if
+			// the next attempt can start within the budget and time limit
+			long backoffms = Math.min(_MAX_BACKOFF,
+					_BASE_BACKOFF << Math.min(attempt - 1, 20)),
+				waitms = ThreadLocalRandom.current().nextLong(backoffms + 1),
+				spentms = (System.nanoTime() - startns) / 1_000_000L,
+				leftms = (__timeoutms <= 0 ? budgetms - spentms :
+					Math.min(budgetms, __timeoutms) - spentms);
+			boolean giveup = (attempt >= this.attempts || waitms >= leftms);
+			if (!giveup)
+			{
+				Logger.debug("Attempt {} failed, retrying in {}ms.",
+					attempt, waitms);
+				
+				try
+				{
+					Thread.sleep(waitms);
+				}
+				catch (InterruptedException e)
+				{
+					giveup = true;
+				}
+			}
+			
+			// Keep the request for later, but the caller still gets the
+			// actual failure
+			if (giveup)
+			{
+				this.__failure();
+				this.__fallback(__t, __r);
+				
+				if (fail != null)
+					throw fail;
+				return result;
+			}
+		}
+	}
+	
+	/**
+	 * Checks if a request may be sent.
+	 *
+	 * @return If the request may be sent.
+	 * @since 2026/10/19
+	 */
+	private boolean __allow()
+	{
+		synchronized (this)
+		{
+			if (!this._open)
+				return true;
+			
+			// Still cooling down or already checking the server
+			if (this._probing || (System.nanoTime() - this._openedns) /
+				1_000_000L < this.cooldownms)
+				return false;
+			
+			this._probing = true;
+			return true;
+		}
+	}
+	
+	/**
+	 * Gives a request which could not be sent to the fallback connection,
+	 * any failure is only logged.
+	 *
+	 * @param __t The type of request.
+	 * @param __r The request.
+	 * @since 2026/10/19
+	 */
+	private void __fallback(RequestType __t, RemoteRequest __r)
+	{
+		RemoteConnection fallback = this.fallback;
+		if (fallback == null)
+			return;
+		
+		try
+		{
+			int code = fallback.send(__t, __r, ResponseMode.STATUS).code();
+			if (code >= 200 && code < 300)
+				this._fallbacks.incrementAndGet();
+		}
+		catch (RemoteException e)
+		{
+			Logger.error(e, "Could not keep request which was not sent.");
+		}
+	}
+	
+	/**
+	 * Records that a request failed.
+	 *
+	 * @since 2026/10/19
+	 */
+	private void __failure()
+	{
+		synchronized (this)
+		{
+			int failed = ++this._failed;
+			
+			// Open again if the server is still failing
+			int failures = this.failures;
+			if (this._probing || (failures > 0 && failed >= failures))
+			{
+				if (!this._open)
+					Logger.warn("Remote server failed {} times, not sending " +
+						"requests for {}ms.", failed, this.cooldownms);
+				
+				this._open = true;
+				this._openedns = System.nanoTime();
+				this._probing = false;
+			}
+		}
+	}
+	
+	/**
+	 * Records that a request succeeded.
+	 *
+	 * @since 2026/10/19
+	 */
+	private void __success()
+	{
+		synchronized (this)
+		{
+			this._failed = 0;
+			this._open = false;
+			this._probing = false;
+		}
+		
+		// The server is reachable so send what could not be sent before
+		RemoteConnection fallback = this.fallback;
+		if (fallback instanceof ReportSpool)
+			((ReportSpool)fallback).replayLater(this.connection);
+	}
+	
+	/**
+	 * Checks if the given status code should be retried.
+	 *
+	 * @param __code The status code.
+	 * @return If the request should be retried.
+	 * @since 2026/10/19
+	 */
+	private static boolean __retry(int __code)
+	{
+		return __code == 429 || (__code >= 500 && __code < 600);
+	}
+}
+
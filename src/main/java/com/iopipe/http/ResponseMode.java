@@ -0,0 +1,23 @@
+package com.iopipe.http;
+
+/**
+ * This is used to specify which parts of the response to a request are
+ * needed by the caller.
+ *
+ * @since 2026/10/19
+ */
+public enum ResponseMode
+{
+	/**
+	 * Only the status code is needed, the body of a successful response is
+	 * discarded unread.
+	 */
+	STATUS,
+	
+	/** The body is needed, it is read up to a limit. */
+	BODY,
+	
+	/** End. */
+	;
+}
+
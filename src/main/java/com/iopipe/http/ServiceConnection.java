@@ -1,7 +1,17 @@
 package com.iopipe.http;
 
+import java.io.InputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
@@ -9,6 +19,7 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import org.pmw.tinylog.Logger;
 
 /**
  * This class sends requests to the remote server.
@@ -18,6 +29,33 @@ import okhttp3.ResponseBody;
 public final class ServiceConnection
 	implements RemoteConnection
 {
+	/**
+	 * The default size at which request bodies are compressed, this is
+	 * negative so compression must be enabled explicitly.
+	 */
+	public static final int DEFAULT_GZIP_THRESHOLD =
+		-1;
+	
+	/**
+	 * The size at which request bodies are compressed, if this is negative
+	 * then requests are never compressed.
+	 */
+	public static final int GZIP_THRESHOLD;
+	
+	/** The default number of bytes which are read from response bodies. */
+	public static final int DEFAULT_RESPONSE_BYTES =
+		65536;
+	
+	/**
+	 * The number of bytes which are read from response bodies, anything
+	 * after this is discarded.
+	 */
+	public static final int RESPONSE_BYTES;
+	
+	/** The size of the buffer used when the body length is not known. */
+	private static final int _READ_BUFFER =
+		4096;
+	
 	/** The OkHttp client manager. */
 	protected final OkHttpClient client;
 	
@@ -27,6 +65,35 @@ public final class ServiceConnection
 	/** The optional authorization token. */
 	protected final String authtoken;
 	
+	/** The time taken to make the most recent connection. */
+	private final AtomicLong _handshakens =
+		new AtomicLong(-1);
+	
+	/**
+	 * The compressor for request bodies which is not in use, this is taken
+	 * while compressing so that requests do not wait on each other.
+	 */
+	private final AtomicReference<__GzipEncoder__> _gzip =
+		new AtomicReference<>();
+	
+	/**
+	 * Determines the compression threshold.
+	 *
+	 * @since 2026/10/19
+	 */
+	static
+	{
+		GZIP_THRESHOLD = __Property__.integer(
+			"com.iopipe.http.gzipthreshold", "IOPIPE_HTTP_GZIP_THRESHOLD",
+			DEFAULT_GZIP_THRESHOLD);
+		
+		int responsebytes = __Property__.integer(
+			"com.iopipe.http.responsebytes", "IOPIPE_HTTP_RESPONSE_BYTES",
+			DEFAULT_RESPONSE_BYTES);
+		RESPONSE_BYTES = (responsebytes > 0 ? responsebytes :
+			DEFAULT_RESPONSE_BYTES);
+	}
+	
 	/**
 	 * Initializes the class for sending requests.
 	 *
@@ -43,11 +110,59 @@ public final class ServiceConnection
 		if (__cl == null || __url == null)
 			throw new NullPointerException();
 		
-		this.client = __cl;
+		// The client shares the same connection pool but also measures how
+		// long connections take to be made
+		AtomicLong handshakens = this._handshakens;
+		this.client = __cl.newBuilder().
+			eventListenerFactory((__c) -> new __HandshakeListener__(
+				handshakens)).
+			build();
 		this.url = __url;
 		this.authtoken = __auth;
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final long handshakeNanos()
+	{
+		return this._handshakens.get();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final void preconnect()
+	{
+		Request.Builder request = new Request.Builder().url(this.url).head();
+		
+		String authtoken = this.authtoken;
+		if (authtoken != null)
+			request.header("Authorization", authtoken);
+		
+		// The response is not important, only that a connection is made
+		// and placed into the pool, this runs on the dispatcher
+		this.client.newCall(request.build()).enqueue(new Callback()
+			{
+				@Override
+				public void onFailure(Call __c, IOException __e)
+				{
+					Logger.debug(__e, "Could not pre-connect.");
+				}
+				
+				@Override
+				public void onResponse(Call __c, Response __resp)
+				{
+					__resp.close();
+					Logger.debug("Pre-connected to {}.", __c.request().url());
+				}
+			});
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 * @since 2018/02/24
@@ -55,59 +170,287 @@ public final class ServiceConnection
 	@Override
 	public final RemoteResult send(RequestType __t, RemoteRequest __r)
 		throws NullPointerException, RemoteException
+	{
+		return this.send(__t, __r, ResponseMode.BODY);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final RemoteResult send(RequestType __t, RemoteRequest __r,
+		ResponseMode __m)
+		throws NullPointerException, RemoteException
+	{
+		return this.send(__t, __r, __m, 0);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final RemoteResult send(RequestType __t, RemoteRequest __r,
+		ResponseMode __m, long __timeoutms)
+		throws NullPointerException, RemoteException
+	{
+		if (__t == null || __r == null || __m == null)
+			throw new NullPointerException();
+		
+		Call call = this.client.newCall(this.__request(__t, __r));
+		if (__timeoutms <= 0)
+			try (Response hr = call.execute())
+			{
+				return ServiceConnection.__result(hr, __m);
+			}
+			catch (IOException e)
+			{
+				throw new RemoteException("Could not send request.", e);
+			}
+		
+		// The connect and read timeouts only apply to each step, so the
+		// request is cancelled if it takes longer than the whole time
+		CompletableFuture<RemoteResult> rv = new CompletableFuture<>();
+		ServiceConnection.__enqueue(call, __m, rv);
+		try
+		{
+			return rv.get(__timeoutms, TimeUnit.MILLISECONDS);
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof RemoteException)
+				throw (RemoteException)cause;
+			throw new RemoteException("Could not send request.", cause);
+		}
+		catch (InterruptedException|TimeoutException e)
+		{
+			call.cancel();
+			throw new RemoteException("Request did not finish within " +
+				__timeoutms + "ms.", e);
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final CompletableFuture<RemoteResult> sendAsync(RequestType __t,
+		RemoteRequest __r)
+		throws NullPointerException
 	{
 		if (__t == null || __r == null)
 			throw new NullPointerException();
 		
+		CompletableFuture<RemoteResult> rv = new CompletableFuture<>();
+		Request request;
 		try
 		{
-			Request.Builder request = new Request.Builder();
-			
-			request.url(this.url);
-			
-			String authtoken = this.authtoken;
-			if (authtoken != null)
-				request.header("Authorization", authtoken);
+			request = this.__request(__t, __r);
+		}
+		catch (RemoteException e)
+		{
+			rv.completeExceptionally(e);
+			return rv;
+		}
+		
+		ServiceConnection.__enqueue(this.client.newCall(request),
+			ResponseMode.BODY, rv);
+		return rv;
+	}
+	
+	/**
+	 * Compresses the given request body. The idle compressor is used if
+	 * there is one, otherwise another is created and it is released after
+	 * use if another compressor became idle in the meantime.
+	 *
+	 * @param __b The body to compress.
+	 * @return The compressed body.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private final byte[] __gzip(byte[] __b)
+		throws NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		
+		AtomicReference<__GzipEncoder__> idle = this._gzip;
+		__GzipEncoder__ gzip = idle.getAndSet(null);
+		if (gzip == null)
+			gzip = new __GzipEncoder__();
+		
+		try
+		{
+			return gzip.encode(__b, 0, __b.length);
+		}
+		finally
+		{
+			if (!idle.compareAndSet(null, gzip))
+				gzip.end();
+		}
+	}
+	
+	/**
+	 * Builds the HTTP request for the given request.
+	 *
+	 * @param __t The type of request to make.
+	 * @param __r The request to send.
+	 * @return The HTTP request.
+	 * @throws RemoteException If the request type is not supported.
+	 * @since 2026/10/19
+	 */
+	private final Request __request(RequestType __t, RemoteRequest __r)
+		throws RemoteException
+	{
+		Request.Builder request = new Request.Builder();
+		
+		request.url(this.url);
+		
+		String authtoken = this.authtoken;
+		if (authtoken != null)
+			request.header("Authorization", authtoken);
+		
+		// Large reports and signer requests are compressed if enabled,
+		// uploads are not since they are already compressed
+		byte[] data = __r.body();
+		int threshold = GZIP_THRESHOLD;
+		if (__t == RequestType.POST && threshold >= 0 &&
+			data.length >= threshold)
+		{
+			data = this.__gzip(data);
+			request.header("Content-Encoding", "gzip");
+		}
+		
+		String mimetype = __r.mimeType();
+		RequestBody body;
+		if (mimetype == null || mimetype.isEmpty())
+			body = RequestBody.create(null, data);
+		else
+			body = RequestBody.create(MediaType.parse(mimetype), data);
+		
+		switch (__t)
+		{
+			case POST:
+				request.post(body);
+				break;
 			
-			String mimetype = __r.mimeType();
-			RequestBody body;
-			if (mimetype == null || mimetype.isEmpty())
-				body = RequestBody.create(null, __r.body());
-			else
-				body = RequestBody.create(MediaType.parse(mimetype),
-					__r.body());
+			case PUT:
+				request.put(body);
+				break;
 			
-			switch (__t)
+			default:
+				throw new RemoteException("Unsupported type: " + __t);
+		}
+		
+		return request.build();
+	}
+	
+	/**
+	 * Sends the given call in the background, the response is handled on the
+	 * dispatcher thread of the client.
+	 *
+	 * @param __call The call to send.
+	 * @param __m The parts of the response which are needed.
+	 * @param __rv The future which is given the result.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static void __enqueue(Call __call, ResponseMode __m,
+		CompletableFuture<RemoteResult> __rv)
+		throws NullPointerException
+	{
+		if (__call == null || __m == null || __rv == null)
+			throw new NullPointerException();
+		
+		__call.enqueue(new Callback()
 			{
-				case POST:
-					request.post(body);
-					break;
-				
-				case PUT:
-					request.put(body);
-					break;
+				@Override
+				public void onFailure(Call __c, IOException __e)
+				{
+					__rv.completeExceptionally(new RemoteException(
+						"Could not send request.", __e));
+				}
 				
-				default:
-					throw new RemoteException("Unsupported type: " + __t);
-			}
-			
-			// Send request
-			Response hr = this.client.newCall(request.build()).execute();
-			
-			// Decode response
-			try (ResponseBody rb = hr.body())
+				@Override
+				public void onResponse(Call __c, Response __resp)
+				{
+					try (Response hr = __resp)
+					{
+						__rv.complete(ServiceConnection.__result(hr, __m));
+					}
+					catch (IOException|RuntimeException e)
+					{
+						__rv.completeExceptionally(new RemoteException(
+							"Could not read response.", e));
+					}
+				}
+			});
+	}
+	
+	/**
+	 * Decodes the response.
+	 *
+	 * @param __hr The HTTP response.
+	 * @param __m The parts of the response which are needed.
+	 * @return The result.
+	 * @throws IOException If the body could not be read.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static RemoteResult __result(Response __hr, ResponseMode __m)
+		throws IOException, NullPointerException
+	{
+		if (__hr == null || __m == null)
+			throw new NullPointerException();
+		
+		int code = __hr.code();
+		ResponseBody rb = __hr.body();
+		if (rb == null)
+			return new RemoteResult(code, "", new byte[0]);
+		
+		// The body of a successful response is never read, it is discarded
+		// when the response is closed. Failed responses are still read so
+		// that they can be logged.
+		String type = Objects.toString(rb.contentType(),
+			RemoteBody.MIMETYPE_JSON);
+		if (__m == ResponseMode.STATUS && code >= 200 && code < 300)
+			return new RemoteResult(code, type, new byte[0]);
+		
+		// Only read up to the limit so that a large body, such as an error
+		// page from a proxy, does not have to be kept in memory
+		int limit = RESPONSE_BYTES;
+		long length = rb.contentLength();
+		byte[] buf = new byte[(int)Math.min(limit,
+			(length >= 0 ? length : _READ_BUFFER))];
+		int len = 0;
+		try (InputStream in = rb.byteStream())
+		{
+			for (;;)
 			{
-				if (rb == null)
-					return new RemoteResult(hr.code(), "", new byte[0]);
-				else
-					return new RemoteResult(hr.code(),
-						Objects.toString(rb.contentType(),
-						RemoteBody.MIMETYPE_JSON), rb.bytes());
+				if (len == buf.length)
+				{
+					if (len >= limit)
+					{
+						if (in.read() >= 0)
+							Logger.debug("Response body exceeded {} bytes " +
+								"and was truncated.", limit);
+						break;
+					}
+					
+					buf = Arrays.copyOf(buf, (int)Math.min(limit,
+						Math.max(_READ_BUFFER, len * 2L)));
+				}
+				
+				int rc = in.read(buf, len, buf.length - len);
+				if (rc < 0)
+					break;
+				len += rc;
 			}
 		}
-		catch (IOException e)
-		{
-			throw new RemoteException("Could not send request.", e);
-		}
+		
+		return new RemoteResult(code, type, buf, 0, len);
 	}
 }
@@ -1,7 +1,13 @@
 package com.iopipe.http;
 
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 
 /**
  * This is a factory which can create connections to the remote IOpipe service
@@ -12,9 +18,41 @@ import okhttp3.OkHttpClient;
 public final class ServiceConnectionFactory
 	implements RemoteConnectionFactory
 {
+	/** The time to wait for a connection to be made, in milliseconds. */
+	public static final long CONNECT_TIMEOUT =
+		5_000L;
+	
+	/** The time to wait for reads and writes, in milliseconds. */
+	public static final long READ_WRITE_TIMEOUT =
+		10_000L;
+	
+	/**
+	 * How long idle connections are kept, in milliseconds. This is just
+	 * below the idle timeout of most load balancers so connections which
+	 * were kept while the container was frozen are likely to still be open.
+	 */
+	public static final long KEEP_ALIVE =
+		55_000L;
+	
 	/** The OkHttp client manager. */
 	protected final OkHttpClient client =
-		new OkHttpClient.Builder().build();
+		new OkHttpClient.Builder().
+			connectTimeout(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS).
+			readTimeout(READ_WRITE_TIMEOUT, TimeUnit.MILLISECONDS).
+			writeTimeout(READ_WRITE_TIMEOUT, TimeUnit.MILLISECONDS).
+			connectionPool(new ConnectionPool(2, KEEP_ALIVE,
+				TimeUnit.MILLISECONDS)).
+			protocols(Arrays.<Protocol>asList(Protocol.HTTP_2,
+				Protocol.HTTP_1_1)).
+			retryOnConnectionFailure(true).
+			dispatcher(new Dispatcher(Executors.newCachedThreadPool((__r) ->
+				{
+					// Asynchronous requests must not keep the process alive
+					Thread t = new Thread(__r, "IOpipe-Dispatcher");
+					t.setDaemon(true);
+					return t;
+				}))).
+			build();
 	
 	/**
 	 * {@inheritDoc}
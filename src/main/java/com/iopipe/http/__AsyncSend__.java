@@ -0,0 +1,65 @@
+package com.iopipe.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This sends requests for connections which can only send synchronously, the
+ * requests are sent on a pool of daemon threads.
+ *
+ * @since 2026/10/19
+ */
+final class __AsyncSend__
+{
+	/** The threads which send requests. */
+	private static final ExecutorService _EXECUTOR =
+		Executors.newCachedThreadPool((__r) ->
+			{
+				Thread t = new Thread(__r, "IOpipe-Send");
+				t.setDaemon(true);
+				return t;
+			});
+	
+	/**
+	 * Not used.
+	 *
+	 * @since 2026/10/19
+	 */
+	private __AsyncSend__()
+	{
+	}
+	
+	/**
+	 * Sends the request on another thread.
+	 *
+	 * @param __c The connection to send with.
+	 * @param __t The type of request to make.
+	 * @param __r The request to send.
+	 * @return The future result of the request.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	static CompletableFuture<RemoteResult> send(RemoteConnection __c,
+		RequestType __t, RemoteRequest __r)
+		throws NullPointerException
+	{
+		if (__c == null || __t == null || __r == null)
+			throw new NullPointerException();
+		
+		CompletableFuture<RemoteResult> rv = new CompletableFuture<>();
+		_EXECUTOR.execute(() ->
+			{
+				try
+				{
+					rv.complete(__c.send(__t, __r));
+				}
+				catch (RuntimeException e)
+				{
+					rv.completeExceptionally(e);
+				}
+			});
+		return rv;
+	}
+}
+
@@ -0,0 +1,111 @@
+package com.iopipe.http;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * This compresses request bodies into the gzip format, the deflater and the
+ * output buffer are kept between requests so that compressing does not need
+ * to allocate anything other than the result. The buffer is only kept at
+ * its initial size, it is released after bodies which needed more.
+ *
+ * This class is not thread safe, it must only be used by one request at a
+ * time.
+ *
+ * @since 2026/10/19
+ */
+final class __GzipEncoder__
+{
+	/** The gzip header, no file name or time and an unknown system. */
+	private static final byte[] _HEADER =
+		new byte[]{0x1F, (byte)0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0,
+			(byte)0xFF};
+	
+	/** The initial size of the output buffer, which is kept. */
+	private static final int _KEPT_BUFFER =
+		8192;
+	
+	/** The size of the gzip trailer. */
+	private static final int _TRAILER_SIZE =
+		8;
+	
+	/** The deflater which is reused for every request. */
+	private final Deflater _deflater =
+		new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+	
+	/** The checksum of the uncompressed data. */
+	private final CRC32 _crc =
+		new CRC32();
+	
+	/** The output buffer, this grows as needed. */
+	private byte[] _buf =
+		new byte[_KEPT_BUFFER];
+	
+	/**
+	 * Compresses the given data.
+	 *
+	 * @param __b The data to compress.
+	 * @param __o The offset.
+	 * @param __l The length.
+	 * @return The compressed data.
+	 * @throws IndexOutOfBoundsException If the offset and length are out of
+	 * bounds.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final byte[] encode(byte[] __b, int __o, int __l)
+		throws IndexOutOfBoundsException, NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		if (__o < 0 || __l < 0 || __o + __l > __b.length)
+			throw new IndexOutOfBoundsException();
+		
+		Deflater deflater = this._deflater;
+		deflater.reset();
+		deflater.setInput(__b, __o, __l);
+		deflater.finish();
+		
+		CRC32 crc = this._crc;
+		crc.reset();
+		crc.update(__b, __o, __l);
+		
+		byte[] buf = this._buf;
+		int at = _HEADER.length;
+		System.arraycopy(_HEADER, 0, buf, 0, at);
+		
+		// Compress everything, growing the buffer when it is full
+		for (;;)
+		{
+			if (at >= buf.length - _TRAILER_SIZE)
+				buf = Arrays.copyOf(buf, buf.length * 2);
+			
+			at += deflater.deflate(buf, at,
+				buf.length - _TRAILER_SIZE - at);
+			if (deflater.finished())
+				break;
+		}
+		
+		// The trailer is the checksum and the size, little endian
+		long sum = crc.getValue();
+		for (int i = 0; i < 4; i++)
+			buf[at++] = (byte)(sum >>> (i * 8));
+		for (int i = 0; i < 4; i++)
+			buf[at++] = (byte)(__l >>> (i * 8));
+		
+		// The grown buffer is not kept since large bodies are rare
+		return Arrays.copyOf(buf, at);
+	}
+	
+	/**
+	 * Releases the deflater, this must not be used afterwards.
+	 *
+	 * @since 2026/10/19
+	 */
+	final void end()
+	{
+		this._deflater.end();
+	}
+}
+
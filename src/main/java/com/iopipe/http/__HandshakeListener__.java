@@ -0,0 +1,124 @@
+package com.iopipe.http;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import org.pmw.tinylog.Logger;
+
+/**
+ * This listens for connections being made for a single call and records how
+ * long it took to resolve the host and establish the connection.
+ *
+ * @since 2026/10/19
+ */
+final class __HandshakeListener__
+	extends EventListener
+{
+	/** Where the connection time is stored. */
+	protected final AtomicLong handshakens;
+	
+	/** When the connection started, zero if it has not. */
+	private long _startns;
+	
+	/** When the TLS handshake started, zero if it has not. */
+	private long _tlsstartns;
+	
+	/** How long the TLS handshake took. */
+	private long _tlsns;
+	
+	/**
+	 * Initializes the listener.
+	 *
+	 * @param __ns Where the connection time is stored.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	__HandshakeListener__(AtomicLong __ns)
+		throws NullPointerException
+	{
+		if (__ns == null)
+			throw new NullPointerException();
+		
+		this.handshakens = __ns;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void connectEnd(Call __c, InetSocketAddress __a, Proxy __p,
+		Protocol __proto)
+	{
+		long startns = this._startns;
+		if (startns == 0)
+			return;
+		
+		long durns = System.nanoTime() - startns;
+		this.handshakens.set(durns);
+		
+		Logger.debug("Connected to {} using {} in {}ms (TLS {}ms).", __a,
+			__proto, durns / 1_000_000L, this._tlsns / 1_000_000L);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void connectFailed(Call __c, InetSocketAddress __a, Proxy __p,
+		Protocol __proto, IOException __e)
+	{
+		Logger.debug(__e, "Could not connect to {}.", __a);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void connectStart(Call __c, InetSocketAddress __a, Proxy __p)
+	{
+		// Name resolution may have already started
+		if (this._startns == 0)
+			this._startns = System.nanoTime();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void dnsStart(Call __c, String __host)
+	{
+		this._startns = System.nanoTime();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void secureConnectEnd(Call __c, Handshake __h)
+	{
+		long tlsstartns = this._tlsstartns;
+		if (tlsstartns != 0)
+			this._tlsns = System.nanoTime() - tlsstartns;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void secureConnectStart(Call __c)
+	{
+		this._tlsstartns = System.nanoTime();
+	}
+}
+
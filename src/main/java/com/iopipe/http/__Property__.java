@@ -0,0 +1,43 @@
+package com.iopipe.http;
+
+/**
+ * This contains helpers for reading settings for connections.
+ *
+ * @since 2026/10/19
+ */
+final class __Property__
+{
+	/**
+	 * Not used.
+	 *
+	 * @since 2026/10/19
+	 */
+	private __Property__()
+	{
+	}
+	
+	/**
+	 * Reads an integer from the system properties or the environment.
+	 *
+	 * @param __prop The system property.
+	 * @param __env The environment variable.
+	 * @param __def The default value.
+	 * @return The value.
+	 * @since 2026/10/19
+	 */
+	static int integer(String __prop, String __env, int __def)
+	{
+		try
+		{
+			return Integer.parseInt(System.getProperty(__prop,
+				System.getenv(__env)), 10);
+		}
+		
+		// Could not parse a valid number
+		catch (NumberFormatException e)
+		{
+			return __def;
+		}
+	}
+}
+
@@ -92,5 +92,43 @@ public final class CloudFrontDecoder
 	{
 		return "cloudFront";
 	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public boolean isCheap()
+	{
+		return true;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String[] keys()
+	{
+		return new String[]
+			{
+				"Records[0].cf.config.distributionId",
+				"Records[0].cf.request.clientIp",
+				"Records[0].cf.request.headers.host[0].value",
+				"Records[0].cf.request.headers.[\"user-agent\"][0].value",
+				"Records[0].cf.request.method",
+				"Records[0].cf.request.uri"
+			};
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String signature()
+	{
+		return "Records[0].cf.";
+	}
 }
 
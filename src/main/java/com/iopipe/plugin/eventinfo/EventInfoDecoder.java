@@ -36,6 +36,62 @@ public interface EventInfoDecoder
 	 */
 	public abstract String eventType();
 	
+	/**
+	 * Returns whether this decoder is cheap enough to run directly before
+	 * the method is executed rather than in the background. Decoders which
+	 * only read a few fields from the input are cheap.
+	 *
+	 * @return If this decoder is cheap.
+	 * @since 2026/10/19
+	 */
+	public default boolean isCheap()
+	{
+		return false;
+	}
+	
+	/**
+	 * Returns whether decoding the given value is cheap enough to run
+	 * directly before the method is executed, this allows decoders whose
+	 * cost depends on the size of the input to only run large inputs in the
+	 * background. By default this is {@link #isCheap()}.
+	 *
+	 * @param __v The value which would be decoded.
+	 * @return If decoding the value is cheap.
+	 * @since 2026/10/19
+	 */
+	public default boolean isCheap(Object __v)
+	{
+		return this.isCheap();
+	}
+	
+	/**
+	 * Returns the keys which this decoder records, these are used to build
+	 * the metric names ahead of time. Decoders do not need to return every
+	 * key they may record.
+	 *
+	 * @return The keys which are recorded.
+	 * @since 2026/10/19
+	 */
+	public default String[] keys()
+	{
+		return new String[0];
+	}
+	
+	/**
+	 * Returns the path prefix which identifies this event within raw JSON
+	 * input, this is used to detect the event for stream handlers. The keys
+	 * of the decoder are used as the paths of the values within the JSON,
+	 * where a dot before a bracket is ignored.
+	 *
+	 * @return The path prefix which identifies the event, or {@code null}
+	 * if the event cannot be detected from raw JSON.
+	 * @since 2026/10/19
+	 */
+	public default String signature()
+	{
+		return null;
+	}
+	
 	/**
 	 * Returns the slugified event type.
 	 *
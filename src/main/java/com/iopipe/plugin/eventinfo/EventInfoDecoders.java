@@ -1,9 +1,18 @@
 package com.iopipe.plugin.eventinfo;
 
 import com.iopipe.CustomMetric;
+import com.iopipe.PeekableInputStream;
+import java.io.InputStream;
 import java.io.IOException;
+import java.net.URL;
 import java.io.StringWriter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +29,7 @@ import javax.json.JsonStructure;
 import javax.json.JsonString;
 import javax.json.JsonValue;
 import javax.json.JsonWriter;
+import org.pmw.tinylog.Logger;
 
 /**
  * This class manages and initializes the decoders for event information
@@ -29,13 +39,52 @@ import javax.json.JsonWriter;
  */
 public final class EventInfoDecoders
 {
+	/** The default number of bytes to look at in raw input streams. */
+	public static final int DEFAULT_PEEK_SIZE =
+		8192;
+	
+	/** The number of bytes to look at in raw input streams. */
+	public static final int PEEK_SIZE;
+	
 	/** Decoders which have been registered. */
 	private final Map<Class<?>, EventInfoDecoder> _decoders =
 		new LinkedHashMap<>();
 	
-	/** Cache of classes that have been registered for type lookup. */
-	private Class<?>[] _classes =
-		new Class<?>[0];
+	/** The value slots of each registered decoder. */
+	private final Map<EventInfoDecoder, __ValueSlots__> _slots =
+		new ConcurrentHashMap<>();
+	
+	/** Resolved decoders for each input type, empty if there is none. */
+	private final Map<Class<?>, Optional<EventInfoDecoder>> _resolved =
+		new ConcurrentHashMap<>();
+	
+	/** The paths of events within raw JSON, built when first needed. */
+	private volatile __JsonDecoder__.Paths _jsonpaths;
+	
+	/**
+	 * Determines the peek size.
+	 *
+	 * @since 2026/10/19
+	 */
+	static
+	{
+		// This is in kibibytes
+		int ps;
+		try
+		{
+			ps = Integer.parseInt(System.getProperty(
+				"com.iopipe.plugin.eventinfo.peeksize",
+				System.getenv("IOPIPE_EVENT_INFO_PEEK_SIZE")), 10) * 1024;
+		}
+		
+		// Could not parse a valid number
+		catch (NumberFormatException e)
+		{
+			ps = DEFAULT_PEEK_SIZE;
+		}
+		
+		PEEK_SIZE = Math.max(0, ps);
+	}
 	
 	/**
 	 * Initializes the event decoders with the default decoders.
@@ -51,6 +100,11 @@ public final class EventInfoDecoders
 		this.register(new S3Decoder());
 		this.register(new ScheduledDecoder());
 		this.register(new SNSDecoder());
+		
+		// Decoders may also be defined in resources
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		this.registerDefinitions((loader != null ? loader :
+			EventInfoDecoders.class.getClassLoader()));
 	}
 	
 	/**
@@ -82,40 +136,49 @@ public final class EventInfoDecoders
 		if (__o == null)
 			return new CustomMetric[0];
 		
-		Class<?> oftype = __o.getClass();
-		
-		// Go through
-		Class<?> match = null;
-		for (Class<?> maybe : this._classes)
-		{
-			if (oftype.isAssignableFrom(maybe))
-			{
-				match = maybe;
-				break;
-			}
-		}
-		
 		// Unmatched, do nothing
-		if (match == null)
+		EventInfoDecoder decoder = this.decoderFor(__o);
+		if (decoder == null)
 			return new CustomMetric[0];
 		
-		// Obtain the decoder that should be used
-		EventInfoDecoder decoder;
-		Map<Class<?>, EventInfoDecoder> decoders = this._decoders;
-		synchronized (decoders)
-		{
-			decoder = decoders.get(match);
-		}
-		
 		// Record the used decoder
 		if (__d != null && __d.length > 0)
 			__d[0] = decoder;
 		
-		// Handle all input values
-		ValueAcceptor a = new ValueAcceptor(decoder.eventType());
-		decoder.accept(a, __o);
+		// Remove any unused slots
+		CustomMetric[] rv = this.__decode(decoder, __o);
+		int n = rv.length;
+		while (n > 0 && rv[n - 1] == null)
+			n--;
+		return (n == rv.length ? rv : Arrays.<CustomMetric>copyOf(rv, n));
+	}
+	
+	/**
+	 * Returns the decoder which would be used to decode the given object.
+	 *
+	 * @param __o The object to get the decoder for.
+	 * @return The decoder for the object or {@code null} if there is none.
+	 * @since 2026/10/19
+	 */
+	public final EventInfoDecoder decoderFor(Object __o)
+	{
+		if (__o == null)
+			return null;
 		
-		return a.get();
+		// Find the decoder for this type, this is only resolved once
+		Class<?> oftype = __o.getClass();
+		Optional<EventInfoDecoder> resolved = this._resolved.get(oftype);
+		if (resolved == null)
+			resolved = this.__resolve(oftype);
+		
+		// Stream handlers only have the raw input, so detect the event from
+		// the start of the JSON
+		if (!resolved.isPresent() && __o instanceof PeekableInputStream &&
+			PEEK_SIZE > 0)
+			return __JsonDecoder__.detect((PeekableInputStream)__o,
+				this.__jsonPaths());
+		
+		return resolved.orElse(null);
 	}
 	
 	/**
@@ -137,15 +200,196 @@ public final class EventInfoDecoders
 		if (decodes == null)
 			throw new IllegalStateException("Decoder decodes no class.");
 		
+		// Build the metric names and slots ahead of time
+		String eventtype = __d.eventType();
+		String[] keys = __d.keys();
+		__ValueSlots__ slots = (eventtype == null || keys == null ? null :
+			new __ValueSlots__(eventtype, keys));
+		
 		// Register it
 		Map<Class<?>, EventInfoDecoder> decoders = this._decoders;
 		synchronized (decoders)
 		{
-			decoders.put(decodes, __d);
+			EventInfoDecoder old = decoders.put(decodes, __d);
+			if (old != null)
+				this._slots.remove(old);
+			if (slots != null)
+				this._slots.put(__d, slots);
+			
+			// Previously resolved types may now match this decoder
+			this._resolved.clear();
+			this._jsonpaths = null;
+		}
+	}
+	
+	/**
+	 * Registers all of the decoders which are defined in the
+	 * {@link FieldPathDecoder#RESOURCE} resources which are visible to the
+	 * given class loader. Definitions which are not valid are skipped.
+	 *
+	 * @param __cl The class loader to load definitions from.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final void registerDefinitions(ClassLoader __cl)
+		throws NullPointerException
+	{
+		if (__cl == null)
+			throw new NullPointerException();
+		
+		Enumeration<URL> urls;
+		try
+		{
+			urls = __cl.getResources(FieldPathDecoder.RESOURCE);
+		}
+		catch (IOException e)
+		{
+			Logger.debug(e, "Could not find event info definitions.");
+			return;
+		}
+		
+		while (urls.hasMoreElements())
+		{
+			URL url = urls.nextElement();
+			try (InputStream in = url.openStream())
+			{
+				for (FieldPathDecoder d : FieldPathDecoder.load(in, __cl))
+					this.register(d);
+			}
+			catch (ClassNotFoundException|IllegalArgumentException|
+				IOException e)
+			{
+				Logger.warn(e, "Could not load event info definitions " +
+					"from {}.", url);
+			}
+		}
+	}
+	
+	/**
+	 * Decodes the specified object with the given decoder.
+	 *
+	 * @param __dec The decoder to use.
+	 * @param __o The object to decode.
+	 * @return The custom metrics which detail the object.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public static final CustomMetric[] decode(EventInfoDecoder __dec,
+		Object __o)
+		throws NullPointerException
+	{
+		if (__dec == null || __o == null)
+			throw new NullPointerException();
+		
+		// Handle all input values
+		ValueAcceptor a = new ValueAcceptor(__dec.eventType());
+		__dec.accept(a, __o);
+		
+		return a.get();
+	}
+	
+	/**
+	 * Decodes the specified object with the given decoder, using the value
+	 * slots of the decoder if it was registered.
+	 *
+	 * @param __dec The decoder to use.
+	 * @param __o The object to decode.
+	 * @return The custom metrics which detail the object, unused slots at
+	 * the end are {@code null}.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final CustomMetric[] __decode(EventInfoDecoder __dec, Object __o)
+		throws NullPointerException
+	{
+		if (__dec == null || __o == null)
+			throw new NullPointerException();
+		
+		// Raw JSON is decoded with the keys of the detected decoder
+		EventInfoDecoder owner = (__dec instanceof __JsonDecoder__ ?
+			((__JsonDecoder__)__dec).decoder : __dec);
+		__ValueSlots__ slots = this._slots.get(owner);
+		if (slots == null)
+			return EventInfoDecoders.decode(__dec, __o);
+		
+		ValueAcceptor a = new ValueAcceptor(__dec.eventType(), slots);
+		__dec.accept(a, __o);
+		
+		return a.__recorded();
+	}
+	
+	/**
+	 * Returns the paths of the events which may be detected in raw JSON.
+	 *
+	 * @return The paths of the registered decoders.
+	 * @since 2026/10/19
+	 */
+	private final __JsonDecoder__.Paths __jsonPaths()
+	{
+		__JsonDecoder__.Paths rv = this._jsonpaths;
+		if (rv != null)
+			return rv;
+		
+		Map<Class<?>, EventInfoDecoder> decoders = this._decoders;
+		synchronized (decoders)
+		{
+			rv = this._jsonpaths;
+			if (rv == null)
+				this._jsonpaths = (rv = new __JsonDecoder__.Paths(
+					decoders.values()));
+			return rv;
+		}
+	}
+	
+	/**
+	 * Resolves the decoder which should be used for the given type and
+	 * caches it. The class and its super classes are checked first, then any
+	 * interfaces which are implemented with the nearest interfaces being
+	 * checked first.
+	 *
+	 * @param __cl The class to resolve.
+	 * @return The decoder for the class, which may be empty.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private final Optional<EventInfoDecoder> __resolve(Class<?> __cl)
+		throws NullPointerException
+	{
+		if (__cl == null)
+			throw new NullPointerException();
+		
+		// Resolution is locked so that registration does not race against
+		// the cache being filled
+		Map<Class<?>, EventInfoDecoder> decoders = this._decoders;
+		synchronized (decoders)
+		{
+			EventInfoDecoder found = null;
+			
+			// Check the class and its super classes first since these are
+			// more specific than interfaces
+			Deque<Class<?>> queue = new ArrayDeque<>();
+			for (Class<?> at = __cl; found == null && at != null;
+				at = at.getSuperclass())
+			{
+				found = decoders.get(at);
+				queue.addAll(Arrays.asList(at.getInterfaces()));
+			}
+			
+			// Then check all of the interfaces, breadth first
+			Set<Class<?>> seen = new HashSet<>();
+			while (found == null && !queue.isEmpty())
+			{
+				Class<?> at = queue.removeFirst();
+				if (!seen.add(at))
+					continue;
+				
+				found = decoders.get(at);
+				queue.addAll(Arrays.asList(at.getInterfaces()));
+			}
 			
-			// Update class cache
-			this._classes = decoders.keySet().<Class<?>>toArray(
-				new Class<?>[decoders.size()]);
+			Optional<EventInfoDecoder> rv = Optional.ofNullable(found);
+			this._resolved.put(__cl, rv);
+			return rv;
 		}
 	}
 }
@@ -3,7 +3,14 @@ package com.iopipe.plugin.eventinfo;
 import com.iopipe.CustomMetric;
 import com.iopipe.IOpipeExecution;
 import com.iopipe.plugin.IOpipePluginExecution;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import org.pmw.tinylog.Logger;
 
 /**
  * This is the trace plugin which is used to track specific marks and measure
@@ -14,6 +21,22 @@ import java.util.concurrent.atomic.AtomicReference;
 public class EventInfoExecution
 	implements IOpipePluginExecution
 {
+	/** The default time to wait for decoding to finish, in milliseconds. */
+	public static final long DEFAULT_DECODE_TIMEOUT =
+		100L;
+	
+	/** The time to wait for decoding to finish, in milliseconds. */
+	public static final long DECODE_TIMEOUT;
+	
+	/** Executor which is shared by all executions for expensive decoders. */
+	private static final ExecutorService _EXECUTOR =
+		Executors.newCachedThreadPool((__r) ->
+			{
+				Thread rv = new Thread(__r, "IOpipe-EventInfoWorker");
+				rv.setDaemon(true);
+				return rv;
+			});
+	
 	/** The execution to track. */
 	protected final IOpipeExecution execution;
 	
@@ -21,8 +44,31 @@ public class EventInfoExecution
 	protected final EventInfoDecoders decoders;
 	
 	/** Results of the plugin execution. */
-	private final AtomicReference<__Result__> _result =
-		new AtomicReference<>();
+	private volatile Future<__Result__> _result;
+	
+	/**
+	 * Determines the decode timeout.
+	 *
+	 * @since 2026/10/19
+	 */
+	static
+	{
+		long timeout;
+		try
+		{
+			timeout = Long.parseLong(System.getProperty(
+				"com.iopipe.plugin.eventinfo.timeout",
+				System.getenv("IOPIPE_EVENT_INFO_TIMEOUT")), 10);
+		}
+		
+		// Could not parse a valid number
+		catch (NumberFormatException e)
+		{
+			timeout = DEFAULT_DECODE_TIMEOUT;
+		}
+		
+		DECODE_TIMEOUT = Math.max(0, timeout);
+	}
 	
 	/**
 	 * Initializes the plugin state for a single execution.
@@ -44,21 +90,33 @@ public class EventInfoExecution
 	}
 	
 	/**
-	 * Waits for the event info parsing thread to finish parsing the event
-	 * type and registers all of the custom metrics used.
+	 * Waits for the event info decoding to finish and registers all of the
+	 * custom metrics used.
 	 *
 	 * @since 2018/04/24
 	 */
 	final void __post()
 	{
-		AtomicReference<__Result__> result = this._result;
+		// Nothing was decoded
+		Future<__Result__> result = this._result;
+		if (result == null)
+			return;
 		
-		// Event info decoding should be very simple and there is really no
-		// need to wait on a lock. When the event executes this information
-		// should quickly be made available anyway.
+		// Event info decoding should be very simple and when the method has
+		// finished executing this should already be available, but do not
+		// hold up the report if a decoder is taking too long
 		__Result__ post;
-		while ((post = result.get()) == null)
-			continue;
+		try
+		{
+			post = result.get(DECODE_TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+		catch (ExecutionException|InterruptedException|TimeoutException e)
+		{
+			Logger.debug(e, "Event info decoding did not finish.");
+			
+			result.cancel(true);
+			return;
+		}
 		
 		// No object was returned so do nothing
 		if (post == null)
@@ -78,94 +136,58 @@ public class EventInfoExecution
 	}
 	
 	/**
-	 * Starts a thread which runs in the background that parses the input
-	 * object and creates all of the custom metrics to be added to the report.
-	 * This is done in another thread so that processing the input does not
-	 * cause the executing method to block since that should be done as
+	 * Decodes the input object and creates all of the custom metrics to be
+	 * added to the report. Cheap decoders are run directly while other
+	 * decoders are run in the background so that processing the input does
+	 * not cause the executing method to block since that should be done as
 	 * quickly as possible.
 	 *
 	 * @since 2018/04/024
 	 */
 	final void __pre()
 	{
-		// Setup thread which runs in the background which decodes the object
-		// that was input
-		Thread worker = new Thread(new __Worker__(this.execution.input(),
-			this._result, this.decoders), "IOpipe-EventInfoWorker");
-		worker.setDaemon(true);
+		// There is no decoder for the input, so there is nothing to do
+		Object input = this.execution.input();
+		EventInfoDecoder decoder = this.decoders.decoderFor(input);
+		if (decoder == null)
+			return;
+		
+		// Cheap decoders take less time than handing off to another thread
+		if (decoder.isCheap(input))
+			this._result = CompletableFuture.completedFuture(
+				this.__decode(decoder, input));
 		
-		// Start it
-		worker.start();
+		// Otherwise decode in the background
+		else
+			this._result = _EXECUTOR.submit(
+				() -> this.__decode(decoder, input));
 	}
 	
 	/**
-	 * This class contains the worker which runs the decoder and reports
+	 * Decodes the given object.
 	 *
-	 * @since 2018/04/23
+	 * @param __dec The decoder to use.
+	 * @param __o The object to decode.
+	 * @return The result of decoding.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
 	 */
-	private static final class __Worker__
-		implements Runnable
+	private final __Result__ __decode(EventInfoDecoder __dec, Object __o)
+		throws NullPointerException
 	{
-		/** The object to generate a report for. */
-		protected final Object object;
-		
-		/** Where the report will go. */
-		protected final AtomicReference<__Result__> result;
-		
-		/** Decoders to use to parse the object with. */
-		protected final EventInfoDecoders decoders;
+		if (__dec == null || __o == null)
+			throw new NullPointerException();
 		
-		/**
-		 * Initializes the worker.
-		 *
-		 * @param __o The object to work with.
-		 * @param __r Where the result is stored, this will be locked on.
-		 * @param __d Decoders to use to parse objects.
-		 * @throws NullPointerException If no result destination or decoders
-		 * were specified.
-		 * @since 2018/04/24
-		 */
-		private __Worker__(Object __o, AtomicReference<__Result__> __r,
-			EventInfoDecoders __d)
-			throws NullPointerException
+		// A failing decoder must never fail the method
+		try
 		{
-			if (__r == null)
-				throw new NullPointerException();
-			
-			this.object = __o;
-			this.result = __r;
-			this.decoders = __d;
+			return new __Result__(__dec, this.decoders.__decode(__dec, __o));
 		}
-		
-		/**
-		 * {@inheritDoc}
-		 * @since 2018/04/23
-		 */
-		@Override
-		public final void run()
+		catch (RuntimeException|LinkageError e)
 		{
-			EventInfoDecoder[] decoder;
-			CustomMetric[] metrics;
-			
-			// Determine the custom metrics to use for the event
-			AtomicReference<__Result__> result = this.result;
-			try
-			{
-				decoder = new EventInfoDecoder[1];
-				metrics = this.decoders.decode(this.object, decoder);
-				if (metrics == null)
-					metrics = new CustomMetric[0];
-				
-				// Store result
-				result.set(new __Result__(decoder[0], metrics));
-			}
+			Logger.debug(e, "Could not decode event information.");
 			
-			// Failed to decode so since the one CPU is burning up, we need
-			// to set some result
-			catch (Throwable t)
-			{
-				result.set(new __Result__(null, null));
-			}
+			return new __Result__(null, null);
 		}
 	}
 }
@@ -0,0 +1,506 @@
+package com.iopipe.plugin.eventinfo;
+
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+
+/**
+ * This is a decoder which records values from the given field paths, the
+ * paths are compiled once into chains of accessors so that decoding does not
+ * need to look anything up.
+ *
+ * Paths are made of getter names separated by dots such as
+ * {@code requestContext.identity.userAgent}, list and array elements are
+ * accessed with {@code [0]} and map entries are accessed with
+ * {@code ["key"]}. Paths are resolved against the declared types of the
+ * getters. Names must match the getter exactly apart from the case of the
+ * first letter, so {@code userAgent} is read with {@code getUserAgent()} or
+ * {@code isUserAgent()}. Integral numbers are recorded as numbers, all other
+ * values are recorded as strings.
+ *
+ * Decoders may also be defined without code in JSON resources named
+ * {@link #RESOURCE} which contain an array of objects with the keys
+ * {@code eventType}, {@code class}, and {@code fields}. The optional key
+ * {@code signature} allows the event to be detected in raw JSON input.
+ *
+ * @since 2026/10/19
+ */
+public class FieldPathDecoder
+	implements EventInfoDecoder
+{
+	/** The resource which contains decoder definitions. */
+	public static final String RESOURCE =
+		"META-INF/iopipe/event-info.json";
+	
+	/** The type which getters are adapted to. */
+	private static final MethodType _GETTER_TYPE =
+		MethodType.methodType(Object.class, Object.class);
+	
+	/** The class which is decoded. */
+	protected final Class<?> decodes;
+	
+	/** The event type. */
+	protected final String eventtype;
+	
+	/** The path prefix which identifies the event in JSON, may be null. */
+	private final String _signature;
+	
+	/** The keys which values are recorded under. */
+	private final String[] _keys;
+	
+	/** The accessor chain for each key. */
+	private final List<List<Function<Object, Object>>> _chains;
+	
+	/**
+	 * Initializes the decoder.
+	 *
+	 * @param __cl The class to decode.
+	 * @param __et The event type.
+	 * @param __paths The paths to record.
+	 * @throws IllegalArgumentException If a path is not valid or does not
+	 * exist in the class.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public FieldPathDecoder(Class<?> __cl, String __et, String... __paths)
+		throws IllegalArgumentException, NullPointerException
+	{
+		this(null, __cl, __et, __paths);
+	}
+	
+	/**
+	 * Initializes the decoder which may be detected in raw JSON.
+	 *
+	 * @param __sig The path prefix which identifies the event in raw JSON,
+	 * may be {@code null}.
+	 * @param __cl The class to decode.
+	 * @param __et The event type.
+	 * @param __paths The paths to record.
+	 * @throws IllegalArgumentException If a path is not valid or does not
+	 * exist in the class.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private FieldPathDecoder(String __sig, Class<?> __cl, String __et,
+		String[] __paths)
+		throws IllegalArgumentException, NullPointerException
+	{
+		if (__cl == null || __et == null || __paths == null)
+			throw new NullPointerException();
+		
+		int n = __paths.length;
+		String[] keys = new String[n];
+		List<List<Function<Object, Object>>> chains = new ArrayList<>(n);
+		for (int i = 0; i < n; i++)
+		{
+			String path = __paths[i];
+			if (path == null)
+				throw new NullPointerException();
+			
+			keys[i] = path.intern();
+			chains.add(FieldPathDecoder.__compile(__cl, path));
+		}
+		
+		this.decodes = __cl;
+		this.eventtype = __et;
+		this._signature = __sig;
+		this._keys = keys;
+		this._chains = chains;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void accept(ValueAcceptor __a, Object __v)
+		throws NullPointerException
+	{
+		if (__a == null || __v == null)
+			throw new NullPointerException();
+		
+		String[] keys = this._keys;
+		List<List<Function<Object, Object>>> chains = this._chains;
+		for (int i = 0, n = keys.length; i < n; i++)
+		{
+			// Follow the chain, stopping if anything is missing
+			Object at = __v;
+			for (Function<Object, Object> step : chains.get(i))
+			{
+				at = step.apply(at);
+				if (at == null)
+					break;
+			}
+			
+			if (at == null)
+				continue;
+			
+			// Record the value
+			if (at instanceof Long || at instanceof Integer ||
+				at instanceof Short || at instanceof Byte)
+				__a.accept(keys[i], ((Number)at).longValue());
+			else
+				__a.accept(keys[i], at.toString());
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final Class<?> decodes()
+	{
+		return this.decodes;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final String eventType()
+	{
+		return this.eventtype;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public boolean isCheap()
+	{
+		return true;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String[] keys()
+	{
+		return this._keys.clone();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String signature()
+	{
+		return this._signature;
+	}
+	
+	/**
+	 * Loads decoder definitions from the given JSON.
+	 *
+	 * @param __in The JSON to load from.
+	 * @param __cl The class loader used to find the decoded classes.
+	 * @return The decoders which were defined.
+	 * @throws ClassNotFoundException If a decoded class does not exist.
+	 * @throws IllegalArgumentException If a definition is not valid.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public static List<FieldPathDecoder> load(InputStream __in,
+		ClassLoader __cl)
+		throws ClassNotFoundException, IllegalArgumentException,
+			NullPointerException
+	{
+		if (__in == null || __cl == null)
+			throw new NullPointerException();
+		
+		List<FieldPathDecoder> rv = new ArrayList<>();
+		try (JsonReader reader = Json.createReader(__in))
+		{
+			for (JsonValue v : reader.readArray())
+			{
+				JsonObject def = (JsonObject)v;
+				
+				// Fields are an array of paths
+				JsonArray fields = def.getJsonArray("fields");
+				String[] paths = new String[(fields == null ? 0 :
+					fields.size())];
+				for (int i = 0, n = paths.length; i < n; i++)
+					paths[i] = fields.getString(i);
+				
+				rv.add(new FieldPathDecoder(def.getString("signature", null),
+					Class.forName(def.getString("class"), false, __cl),
+					def.getString("eventType"), paths));
+			}
+		}
+		
+		// Wrong types within the definition
+		catch (ClassCastException|JsonException|NullPointerException e)
+		{
+			throw new IllegalArgumentException(
+				"Invalid event info decoder definition.", e);
+		}
+		
+		return rv;
+	}
+	
+	/**
+	 * Compiles the given path into a chain of accessors.
+	 *
+	 * @param __cl The class to start from.
+	 * @param __path The path to compile.
+	 * @return The accessor chain.
+	 * @throws IllegalArgumentException If the path is not valid.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static List<Function<Object, Object>> __compile(Class<?> __cl,
+		String __path)
+		throws IllegalArgumentException, NullPointerException
+	{
+		if (__cl == null || __path == null)
+			throw new NullPointerException();
+		
+		List<Function<Object, Object>> rv = new ArrayList<>();
+		Type at = __cl;
+		for (int i = 0, n = __path.length(); i < n;)
+		{
+			char c = __path.charAt(i);
+			
+			// Separator between names
+			if (c == '.')
+			{
+				i++;
+				continue;
+			}
+			
+			// Index or map key
+			if (c == '[')
+			{
+				int end = __path.indexOf(']', i);
+				if (end < 0)
+					throw new IllegalArgumentException(
+						"Unterminated bracket in " + __path);
+				String in = __path.substring(i + 1, end);
+				i = end + 1;
+				
+				// Map key
+				if (in.length() >= 2 && in.startsWith("\"") &&
+					in.endsWith("\""))
+				{
+					String key = in.substring(1, in.length() - 1);
+					at = FieldPathDecoder.__typeArgument(at, Map.class, 1);
+					rv.add((__o) -> ((Map<?, ?>)__o).get(key));
+					continue;
+				}
+				
+				// Index into a list or array
+				int dx;
+				try
+				{
+					dx = Integer.parseInt(in, 10);
+				}
+				catch (NumberFormatException e)
+				{
+					throw new IllegalArgumentException(
+						"Invalid index in " + __path, e);
+				}
+				
+				Class<?> raw = FieldPathDecoder.__raw(at);
+				if (raw.isArray())
+				{
+					at = (at instanceof GenericArrayType ?
+						((GenericArrayType)at).getGenericComponentType() :
+						raw.getComponentType());
+					rv.add((__o) -> (dx < Array.getLength(__o) ?
+						Array.get(__o, dx) : null));
+				}
+				else
+				{
+					at = FieldPathDecoder.__typeArgument(at, List.class, 0);
+					rv.add((__o) -> (dx < ((List<?>)__o).size() ?
+						((List<?>)__o).get(dx) : null));
+				}
+				
+				continue;
+			}
+			
+			// Name of a getter
+			int end = i;
+			while (end < n && __path.charAt(end) != '.' &&
+				__path.charAt(end) != '[')
+				end++;
+			String name = __path.substring(i, end);
+			i = end;
+			
+			// Maps use the name as the key
+			Class<?> raw = FieldPathDecoder.__raw(at);
+			if (Map.class.isAssignableFrom(raw))
+			{
+				at = FieldPathDecoder.__typeArgument(at, Map.class, 1);
+				rv.add((__o) -> ((Map<?, ?>)__o).get(name));
+				continue;
+			}
+			
+			// Otherwise find the getter, it is resolved to a handle once so
+			// that reading the value is not a reflective call
+			Method getter = FieldPathDecoder.__getter(raw, name, __path);
+			MethodHandle handle;
+			try
+			{
+				handle = MethodHandles.publicLookup().unreflect(getter).
+					asType(_GETTER_TYPE);
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new IllegalArgumentException("Cannot access " + getter +
+					" for " + __path, e);
+			}
+			
+			at = getter.getGenericReturnType();
+			rv.add((__o) ->
+				{
+					try
+					{
+						return (Object)handle.invokeExact(__o);
+					}
+					catch (Error e)
+					{
+						throw e;
+					}
+					catch (Throwable e)
+					{
+						return null;
+					}
+				});
+		}
+		
+		return rv;
+	}
+	
+	/**
+	 * Finds the getter for the given name.
+	 *
+	 * @param __cl The class to look in.
+	 * @param __name The name of the value.
+	 * @param __path The path the name is in, used for errors.
+	 * @return The getter.
+	 * @throws IllegalArgumentException If there is no getter or there is
+	 * more than one getter for the name.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static Method __getter(Class<?> __cl, String __name,
+		String __path)
+		throws IllegalArgumentException, NullPointerException
+	{
+		if (__cl == null || __name == null || __path == null)
+			throw new NullPointerException();
+		
+		if (__name.isEmpty())
+			throw new IllegalArgumentException("Empty name in " + __path);
+		
+		// Only the first letter may differ in case, the paths are based on
+		// the JSON names of events which are not always capitalized
+		String bean = Character.toUpperCase(__name.charAt(0)) +
+			__name.substring(1);
+		String get = "get" + bean,
+			is = "is" + bean;
+		
+		Method rv = null;
+		for (Method m : __cl.getMethods())
+		{
+			if (m.getParameterCount() != 0 || m.isBridge() ||
+				Modifier.isStatic(m.getModifiers()))
+				continue;
+			
+			String mn = m.getName();
+			Class<?> type = m.getReturnType();
+			if (!((mn.equals(get) && type != Void.TYPE) ||
+				(mn.equals(is) && type == Boolean.TYPE)))
+				continue;
+			
+			if (rv != null)
+				throw new IllegalArgumentException("Ambiguous getter for " +
+					__name + " in " + __cl + " for " + __path + ", both " +
+					rv + " and " + m + " match.");
+			rv = m;
+		}
+		
+		if (rv == null)
+			throw new IllegalArgumentException("No getter for " + __name +
+				" in " + __cl + " for " + __path);
+		return rv;
+	}
+	
+	/**
+	 * Returns the raw class of the given type.
+	 *
+	 * @param __t The type.
+	 * @return The raw class.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static Class<?> __raw(Type __t)
+		throws NullPointerException
+	{
+		if (__t == null)
+			throw new NullPointerException();
+		
+		if (__t instanceof Class)
+			return (Class<?>)__t;
+		else if (__t instanceof ParameterizedType)
+			return FieldPathDecoder.__raw(
+				((ParameterizedType)__t).getRawType());
+		else if (__t instanceof GenericArrayType)
+			return Array.newInstance(FieldPathDecoder.__raw(
+				((GenericArrayType)__t).getGenericComponentType()), 0).
+				getClass();
+		return Object.class;
+	}
+	
+	/**
+	 * Returns the type argument of the given collection type.
+	 *
+	 * @param __t The type to get the argument from.
+	 * @param __want The collection type which is expected.
+	 * @param __dx The index of the type argument.
+	 * @return The type argument.
+	 * @throws IllegalArgumentException If the type is not the wanted type.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static Type __typeArgument(Type __t, Class<?> __want, int __dx)
+		throws IllegalArgumentException, NullPointerException
+	{
+		if (__t == null || __want == null)
+			throw new NullPointerException();
+		
+		if (!__want.isAssignableFrom(FieldPathDecoder.__raw(__t)))
+			throw new IllegalArgumentException(__t + " is not a " + __want);
+		
+		// Without generic information the values are only objects
+		if (!(__t instanceof ParameterizedType))
+			return Object.class;
+		
+		Type[] args = ((ParameterizedType)__t).getActualTypeArguments();
+		return (__dx < args.length ? args[__dx] : Object.class);
+	}
+}
+
@@ -8,45 +8,28 @@ import com.amazonaws.services.lambda.runtime.events.KinesisFirehoseEvent;
  * @since 2018/04/23
  */
 public final class FirehoseDecoder
-	implements EventInfoDecoder
+	extends FieldPathDecoder
 {
 	/**
-	 * {@inheritDoc}
-	 * @since 2018/05/02
+	 * Initializes the decoder.
+	 *
+	 * @since 2026/10/19
 	 */
-	@Override
-	public void accept(ValueAcceptor __a, Object __v)
-		throws NullPointerException
-	{
-		if (__a == null || __v == null)
-			throw new NullPointerException();
-		
-		KinesisFirehoseEvent v = (KinesisFirehoseEvent)__v;
-		
-		__a.accept("deliveryStreamArn",
-			v.getDeliveryStreamArn());
-		__a.accept("region",
-			v.getRegion());
-	}
-	
-	/**
-	 * {@inheritDoc}
-	 * @since 2018/04/23
-	 */
-	@Override
-	public final Class<?> decodes()
+	public FirehoseDecoder()
 	{
-		return KinesisFirehoseEvent.class;
+		super(KinesisFirehoseEvent.class, "firehose",
+			"deliveryStreamArn",
+			"region");
 	}
 	
 	/**
 	 * {@inheritDoc}
-	 * @since 2018/04/23
+	 * @since 2026/10/19
 	 */
 	@Override
-	public final String eventType()
+	public String signature()
 	{
-		return "firehose";
+		return "deliveryStreamArn";
 	}
 }
 
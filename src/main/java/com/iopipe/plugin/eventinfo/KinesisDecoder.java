@@ -1,6 +1,8 @@
 package com.iopipe.plugin.eventinfo;
 
 import com.amazonaws.services.lambda.runtime.events.KinesisEvent;
+import java.nio.ByteBuffer;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -11,6 +13,14 @@ import java.util.List;
 public final class KinesisDecoder
 	implements EventInfoDecoder
 {
+	/** The key for the exact number of distinct shards. */
+	private static final String _DISTINCT =
+		"batch.distinctShards";
+	
+	/** The key for the lower bound of distinct shards. */
+	private static final String _DISTINCT_AT_LEAST =
+		"batch.distinctShardsAtLeast";
+	
 	/**
 	 * {@inheritDoc}
 	 * @since 2018/05/02
@@ -31,6 +41,25 @@ public final class KinesisDecoder
 		int n = records.size();
 		__a.accept("Records.length", n);
 		
+		// Statistics over the entire batch
+		__BatchStatistics__ stats = new __BatchStatistics__();
+		for (KinesisEvent.KinesisEventRecord record : records)
+		{
+			KinesisEvent.Record kinesis = record.getKinesis();
+			if (kinesis == null)
+				continue;
+			
+			ByteBuffer data = kinesis.getData();
+			Date arrival = kinesis.getApproximateArrivalTimestamp();
+			
+			// The event ID starts with the shard ID
+			String eventid = record.getEventID();
+			stats.record((data == null ? -1 : data.remaining()),
+				(arrival == null ? Long.MIN_VALUE : arrival.getTime()),
+				eventid, (eventid == null ? -1 : eventid.indexOf(':')));
+		}
+		stats.report(__a, _DISTINCT, _DISTINCT_AT_LEAST, true);
+		
 		// Report the first one
 		if (n >= 1)
 		{
@@ -62,5 +91,55 @@ public final class KinesisDecoder
 	{
 		return "kinesis";
 	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public boolean isCheap()
+	{
+		return true;
+	}
+	
+	/**
+	 * Only batches with few enough records are cheap, since every record
+	 * is scanned for the batch statistics.
+	 *
+	 * @param __v {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public boolean isCheap(Object __v)
+	{
+		return !(__v instanceof KinesisEvent) ||
+			__BatchStatistics__.isCheap(((KinesisEvent)__v).getRecords());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String[] keys()
+	{
+		return __BatchStatistics__.keys(new String[]
+			{
+				"Records.length",
+				"Records[0].awsRegion",
+				"Records[0].eventSourceARN"
+			}, _DISTINCT, _DISTINCT_AT_LEAST);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String signature()
+	{
+		return "Records[0].kinesis.";
+	}
 }
 
@@ -4,6 +4,7 @@ import com.amazonaws.services.lambda.runtime.events.S3Event;
 import com.amazonaws.services.s3.event.S3EventNotification;
 import java.util.List;
 import java.util.Objects;
+import org.joda.time.DateTime;
 
 /**
  * This class implements the decoder for S3 events.
@@ -13,6 +14,14 @@ import java.util.Objects;
 public final class S3Decoder
 	implements EventInfoDecoder
 {
+	/** The key for the exact number of distinct buckets. */
+	private static final String _DISTINCT =
+		"batch.distinctBuckets";
+	
+	/** The key for the lower bound of distinct buckets. */
+	private static final String _DISTINCT_AT_LEAST =
+		"batch.distinctBucketsAtLeast";
+	
 	/**
 	 * {@inheritDoc}
 	 * @since 2018/05/02
@@ -33,6 +42,25 @@ public final class S3Decoder
 			return;
 		S3EventNotification.S3EventNotificationRecord record = records.get(0);
 		
+		// Statistics over the entire batch
+		__a.accept("Records.length", records.size());
+		__BatchStatistics__ stats = new __BatchStatistics__();
+		for (S3EventNotification.S3EventNotificationRecord each : records)
+		{
+			S3EventNotification.S3Entity entity = each.getS3();
+			S3EventNotification.S3BucketEntity bucket = (entity == null ?
+				null : entity.getBucket());
+			S3EventNotification.S3ObjectEntity object = (entity == null ?
+				null : entity.getObject());
+			Long size = (object == null ? null : object.getSizeAsLong());
+			DateTime time = each.getEventTime();
+			
+			stats.record((size == null ? -1 : size),
+				(time == null ? Long.MIN_VALUE : time.getMillis()),
+				(bucket == null ? null : bucket.getName()), -1);
+		}
+		stats.report(__a, _DISTINCT, _DISTINCT_AT_LEAST, true);
+		
 		__a.accept("Records[0].awsRegion",
 			record.getAwsRegion());
 		__a.accept("Records[0].eventName",
@@ -109,5 +137,66 @@ public final class S3Decoder
 	{
 		return "s3";
 	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public boolean isCheap()
+	{
+		return true;
+	}
+	
+	/**
+	 * Only batches with few enough records are cheap, since every record
+	 * is scanned for the batch statistics.
+	 *
+	 * @param __v {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public boolean isCheap(Object __v)
+	{
+		return !(__v instanceof S3EventNotification) ||
+			__BatchStatistics__.isCheap(
+				((S3EventNotification)__v).getRecords());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String[] keys()
+	{
+		return __BatchStatistics__.keys(new String[]
+			{
+				"Records.length",
+				"Records[0].awsRegion",
+				"Records[0].eventName",
+				"Records[0].eventTime",
+				"Records[0].requestParameters.sourceIPAddress",
+				"Records[0].responseElements[\"x-amz-id-2\"]",
+				"Records[0].responseElements[\"x-amz-request-id\"]",
+				"Records[0].s3.bucket.arn",
+				"Records[0].s3.bucket.name",
+				"Records[0].s3.object.key",
+				"Records[0].s3.object.sequencer",
+				"Records[0].s3.object.size",
+				"Records[0].userIdentity.principalId"
+			}, _DISTINCT, _DISTINCT_AT_LEAST);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String signature()
+	{
+		return "Records[0].s3.";
+	}
 }
 
@@ -2,6 +2,7 @@ package com.iopipe.plugin.eventinfo;
 
 import com.amazonaws.services.lambda.runtime.events.SNSEvent;
 import java.util.List;
+import org.joda.time.DateTime;
 import java.util.Objects;
 
 /**
@@ -12,6 +13,14 @@ import java.util.Objects;
 public final class SNSDecoder
 	implements EventInfoDecoder
 {
+	/** The key for the exact number of distinct topics. */
+	private static final String _DISTINCT =
+		"batch.distinctTopics";
+	
+	/** The key for the lower bound of distinct topics. */
+	private static final String _DISTINCT_AT_LEAST =
+		"batch.distinctTopicsAtLeast";
+	
 	/**
 	 * {@inheritDoc}
 	 * @since 2018/05/02
@@ -31,6 +40,24 @@ public final class SNSDecoder
 			return;
 		SNSEvent.SNSRecord record = records.get(0);
 		
+		// Statistics over the entire batch, the size is the length of the
+		// message since it is not encoded
+		__a.accept("Records.length", records.size());
+		__BatchStatistics__ stats = new __BatchStatistics__();
+		for (SNSEvent.SNSRecord each : records)
+		{
+			SNSEvent.SNS sns = each.getSNS();
+			if (sns == null)
+				continue;
+			
+			String message = sns.getMessage();
+			DateTime time = sns.getTimestamp();
+			stats.record((message == null ? -1 : message.length()),
+				(time == null ? Long.MIN_VALUE : time.getMillis()),
+				sns.getTopicArn(), -1);
+		}
+		stats.report(__a, _DISTINCT, _DISTINCT_AT_LEAST, true);
+		
 		__a.accept("Records[0].EventSubscriptionArn",
 			record.getEventSubscriptionArn());
 		
@@ -77,5 +104,63 @@ public final class SNSDecoder
 	{
 		return "sns";
 	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public boolean isCheap()
+	{
+		return true;
+	}
+	
+	/**
+	 * Only batches with few enough records are cheap, since every record
+	 * is scanned for the batch statistics.
+	 *
+	 * @param __v {@inheritDoc}
+	 * @return {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public boolean isCheap(Object __v)
+	{
+		return !(__v instanceof SNSEvent) ||
+			__BatchStatistics__.isCheap(((SNSEvent)__v).getRecords());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String[] keys()
+	{
+		return __BatchStatistics__.keys(new String[]
+			{
+				"Records.length",
+				"Records[0].EventSubscriptionArn",
+				"Records[0].Sns.MessageId",
+				"Records[0].Sns.Signature",
+				"Records[0].Sns.SignatureVersion",
+				"Records[0].Sns.SigningCertUrl",
+				"Records[0].Sns.UnsubscribeUrl",
+				"Records[0].Sns.Subject",
+				"Records[0].Sns.Timestamp",
+				"Records[0].Sns.TopicArn",
+				"Records[0].Sns.Type"
+			}, _DISTINCT, _DISTINCT_AT_LEAST);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String signature()
+	{
+		return "Records[0].Sns.";
+	}
 }
 
@@ -1,8 +1,7 @@
 package com.iopipe.plugin.eventinfo;
 
 import com.iopipe.CustomMetric;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * This class is used to accept values which should be stored in custom
@@ -18,9 +17,17 @@ public final class ValueAcceptor
 	/** The key prefix. */
 	protected final String prefix;
 	
-	/** The target list for recorded metrics. */
-	private final List<CustomMetric> _metrics =
-		new ArrayList<>();
+	/** The metric names for this event type. */
+	private final __MetricNames__ _names;
+	
+	/** The slots of the decoder, may be {@code null}. */
+	private final __ValueSlots__ _slots;
+	
+	/** The target array for recorded metrics. */
+	private CustomMetric[] _metrics;
+	
+	/** The number of recorded metrics. */
+	private int _count;
 	
 	/**
 	 * Initializes the value acceptor.
@@ -37,12 +44,47 @@ public final class ValueAcceptor
 		
 		this.eventtype = __et;
 		
-		// Generate prefix
-		this.prefix = "@iopipe/event-info." + __et + ".";
+		// Names are only generated once per event type
+		__MetricNames__ names = __MetricNames__.of(__et);
+		this._names = names;
+		this.prefix = names.prefix;
+		this._slots = null;
+		
+		// Without slots the number of values is not known
+		CustomMetric[] metrics = new CustomMetric[8];
+		this._metrics = metrics;
 		
 		// Record initial metric
-		this._metrics.add(
-			new CustomMetric("@iopipe/event-info.eventType", __et));
+		metrics[this._count++] = names.eventtypemetric;
+	}
+	
+	/**
+	 * Initializes the value acceptor which uses the slots of a decoder.
+	 *
+	 * @param __et The event type used.
+	 * @param __s The slots of the decoder.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	ValueAcceptor(String __et, __ValueSlots__ __s)
+		throws NullPointerException
+	{
+		if (__et == null || __s == null)
+			throw new NullPointerException();
+		
+		this.eventtype = __et;
+		
+		__MetricNames__ names = __s.names;
+		this._names = names;
+		this.prefix = names.prefix;
+		this._slots = __s;
+		
+		// One slot for every value and the event type
+		CustomMetric[] metrics = new CustomMetric[__s.size() + 1];
+		this._metrics = metrics;
+		
+		// Record initial metric
+		metrics[this._count++] = names.eventtypemetric;
 	}
 	
 	/**
@@ -60,8 +102,23 @@ public final class ValueAcceptor
 		if (__key == null)
 			throw new NullPointerException();
 		
-		if (__val != null)
-			this._metrics.add(new CustomMetric(this.prefix + __key, __val));
+		if (__val == null)
+			return;
+		
+		// Use the metric in the slot which may be reused
+		__ValueSlots__ slots = this._slots;
+		int dx = (slots == null ? -1 : slots.slot(__key));
+		if (dx >= 0)
+		{
+			CustomMetric m = slots.metric(dx, __val);
+			if (m != null)
+				this.__add(m);
+			return;
+		}
+		
+		String name = this._names.name(__key);
+		if (name != null)
+			this.__add(new CustomMetric(name, __val));
 	}
 	
 	/**
@@ -78,7 +135,20 @@ public final class ValueAcceptor
 		if (__key == null)
 			throw new NullPointerException();
 		
-		this._metrics.add(new CustomMetric(this.prefix + __key, __val));
+		// Use the metric in the slot which may be reused
+		__ValueSlots__ slots = this._slots;
+		int dx = (slots == null ? -1 : slots.slot(__key));
+		if (dx >= 0)
+		{
+			CustomMetric m = slots.metric(dx, __val);
+			if (m != null)
+				this.__add(m);
+			return;
+		}
+		
+		String name = this._names.name(__key);
+		if (name != null)
+			this.__add(new CustomMetric(name, __val));
 	}
 	
 	/**
@@ -89,7 +159,48 @@ public final class ValueAcceptor
 	 */
 	public final CustomMetric[] get()
 	{
-		List<CustomMetric> metrics = this._metrics;
-		return metrics.<CustomMetric>toArray(new CustomMetric[metrics.size()]);
+		CustomMetric[] metrics = this._metrics;
+		int count = this._count;
+		
+		// Only copy if not every slot was used
+		if (count == metrics.length)
+			return metrics;
+		return Arrays.<CustomMetric>copyOf(metrics, count);
+	}
+	
+	/**
+	 * Returns the array the metrics were recorded into without copying it,
+	 * unused slots at the end are {@code null}.
+	 *
+	 * @return The recorded metrics.
+	 * @since 2026/10/19
+	 */
+	final CustomMetric[] __recorded()
+	{
+		return this._metrics;
+	}
+	
+	/**
+	 * Adds the given metric.
+	 *
+	 * @param __m The metric to add.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private final void __add(CustomMetric __m)
+		throws NullPointerException
+	{
+		if (__m == null)
+			throw new NullPointerException();
+		
+		// Grow if the keys were not known ahead of time
+		CustomMetric[] metrics = this._metrics;
+		int count = this._count;
+		if (count >= metrics.length)
+			this._metrics = (metrics = Arrays.<CustomMetric>copyOf(metrics,
+				Math.max(4, count * 2)));
+		
+		metrics[count] = __m;
+		this._count = count + 1;
 	}
 }
@@ -0,0 +1,212 @@
+package com.iopipe.plugin.eventinfo;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This calculates statistics over all of the records within a batch of
+ * events in a single pass. Nothing is allocated for each record except for
+ * the first occurrence of each distinct source.
+ *
+ * Since every record is visited, decoders which use this are only cheap
+ * when the batch has at most {@link #CHEAP_RECORDS} records.
+ *
+ * @since 2026/10/19
+ */
+final class __BatchStatistics__
+{
+	/** The number of records which can be scanned before the method runs. */
+	public static final int CHEAP_RECORDS =
+		100;
+	
+	/** The maximum number of distinct sources which are counted. */
+	static final int MAX_DISTINCT =
+		16;
+	
+	/** The current time, used to calculate age. */
+	protected final long now =
+		System.currentTimeMillis();
+	
+	/** Distinct sources which were seen. */
+	private final String[] _distinct =
+		new String[MAX_DISTINCT];
+	
+	/** The number of records. */
+	private int _count;
+	
+	/** The total number of bytes. */
+	private long _totalbytes;
+	
+	/** The maximum number of bytes in a record. */
+	private long _maxbytes;
+	
+	/** The earliest time, in milliseconds since the epoch. */
+	private long _earliest =
+		Long.MAX_VALUE;
+	
+	/** The latest time, in milliseconds since the epoch. */
+	private long _latest =
+		Long.MIN_VALUE;
+	
+	/** The number of distinct sources. */
+	private int _numdistinct;
+	
+	/** Were there more distinct sources than what can be counted? */
+	private boolean _overdistinct;
+	
+	/**
+	 * Records a single record.
+	 *
+	 * @param __bytes The size of the record in bytes, negative if not known.
+	 * @param __time The time of the record in milliseconds since the epoch,
+	 * {@link Long#MIN_VALUE} if it is not known.
+	 * @param __src The source of the record, may be {@code null}.
+	 * @param __srclen The number of characters at the start of the source
+	 * which identify it, negative to use the entire string.
+	 * @since 2026/10/19
+	 */
+	final void record(long __bytes, long __time, String __src, int __srclen)
+	{
+		this._count++;
+		
+		// Sizes
+		if (__bytes >= 0)
+		{
+			this._totalbytes += __bytes;
+			if (__bytes > this._maxbytes)
+				this._maxbytes = __bytes;
+		}
+		
+		// Times
+		if (__time != Long.MIN_VALUE)
+		{
+			if (__time < this._earliest)
+				this._earliest = __time;
+			if (__time > this._latest)
+				this._latest = __time;
+		}
+		
+		// Count distinct sources, this compares in place so that only new
+		// sources need to be stored
+		if (__src != null && !this._overdistinct)
+		{
+			int srclen = (__srclen < 0 || __srclen > __src.length() ?
+				__src.length() : __srclen);
+			
+			String[] distinct = this._distinct;
+			int numdistinct = this._numdistinct;
+			boolean found = false;
+			for (int i = 0; !found && i < numdistinct; i++)
+			{
+				String d = distinct[i];
+				found = (d.length() == srclen &&
+					__src.regionMatches(0, d, 0, srclen));
+			}
+			
+			if (!found)
+			{
+				if (numdistinct >= MAX_DISTINCT)
+					this._overdistinct = true;
+				else
+				{
+					distinct[numdistinct] = (srclen == __src.length() ?
+						__src : __src.substring(0, srclen));
+					this._numdistinct = numdistinct + 1;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reports the statistics to the value acceptor.
+	 *
+	 * @param __a The acceptor to report to.
+	 * @param __distinct The key for the exact number of distinct sources.
+	 * @param __atleast The key for the number of distinct sources when there
+	 * were more than could be counted, this is a lower bound.
+	 * @param __ages Should the age of the earliest record be reported?
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final void report(ValueAcceptor __a, String __distinct, String __atleast,
+		boolean __ages)
+		throws NullPointerException
+	{
+		if (__a == null || __distinct == null || __atleast == null)
+			throw new NullPointerException();
+		
+		// Nothing to report
+		if (this._count <= 0)
+			return;
+		
+		__a.accept("batch.totalBytes", this._totalbytes);
+		__a.accept("batch.maxBytes", this._maxbytes);
+		
+		long earliest = this._earliest,
+			latest = this._latest;
+		if (earliest <= latest)
+		{
+			__a.accept("batch.earliestTime", earliest);
+			__a.accept("batch.latestTime", latest);
+			
+			if (__ages)
+				__a.accept("batch.maxAge", Math.max(0, this.now - earliest));
+		}
+		
+		// If there are too many then only the lower bound is known, which
+		// is reported under its own key so it is not taken as exact
+		if (this._overdistinct)
+			__a.accept(__atleast, MAX_DISTINCT + 1);
+		else if (this._numdistinct > 0)
+			__a.accept(__distinct, this._numdistinct);
+	}
+	
+	/**
+	 * Checks whether the given records are few enough to be scanned before
+	 * the method runs.
+	 *
+	 * @param __r The records, may be {@code null}.
+	 * @return If the records can be scanned cheaply.
+	 * @since 2026/10/19
+	 */
+	static boolean isCheap(List<?> __r)
+	{
+		return __r == null || __r.size() <= CHEAP_RECORDS;
+	}
+	
+	/**
+	 * Returns the given keys along with the keys which are reported by the
+	 * batch statistics.
+	 *
+	 * @param __base The keys the decoder reports itself.
+	 * @param __distinct The key for the exact number of distinct sources.
+	 * @param __atleast The key for the lower bound of distinct sources.
+	 * @return The combined keys.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	static String[] keys(String[] __base, String __distinct,
+		String __atleast)
+		throws NullPointerException
+	{
+		if (__base == null || __distinct == null || __atleast == null)
+			throw new NullPointerException();
+		
+		String[] batch = new String[]
+			{
+				"batch.totalBytes",
+				"batch.maxBytes",
+				"batch.earliestTime",
+				"batch.latestTime",
+				"batch.maxAge",
+				__distinct,
+				__atleast,
+			};
+		
+		int n = __base.length;
+		String[] rv = Arrays.copyOf(__base, n + batch.length);
+		System.arraycopy(batch, 0, rv, n, batch.length);
+		return rv;
+	}
+}
+
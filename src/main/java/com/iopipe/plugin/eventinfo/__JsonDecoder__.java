@@ -0,0 +1,466 @@
+package com.iopipe.plugin.eventinfo;
+
+import com.iopipe.PeekableInputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+
+/**
+ * This decodes events from the raw JSON input of stream handlers, the start
+ * of the stream is parsed once with a pull parser which both detects the
+ * event and reads its fields, so the event is never bound to objects and
+ * the handler still reads the entire stream.
+ *
+ * The events which can be detected and the fields which are read come from
+ * the registered decoders, since their keys are the paths within the JSON.
+ *
+ * @since 2026/10/19
+ */
+final class __JsonDecoder__
+	implements EventInfoDecoder
+{
+	/** The maximum depth that paths are tracked for. */
+	private static final int _MAX_DEPTH =
+		16;
+	
+	/** The decoder for the same event when it is not raw JSON. */
+	protected final EventInfoDecoder decoder;
+	
+	/** The keys of the values which were read. */
+	private final String[] _keys;
+	
+	/** The values which were read, either {@link Long} or {@link String}. */
+	private final Object[] _values;
+	
+	/**
+	 * Initializes the decoder with the values which were read.
+	 *
+	 * @param __d The decoder for the event.
+	 * @param __k The keys of the values.
+	 * @param __v The values.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private __JsonDecoder__(EventInfoDecoder __d, String[] __k, Object[] __v)
+		throws NullPointerException
+	{
+		if (__d == null || __k == null || __v == null)
+			throw new NullPointerException();
+		
+		this.decoder = __d;
+		this._keys = __k;
+		this._values = __v;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void accept(ValueAcceptor __a, Object __v)
+		throws NullPointerException
+	{
+		if (__a == null || __v == null)
+			throw new NullPointerException();
+		
+		// The values were read when the event was detected
+		String[] keys = this._keys;
+		Object[] values = this._values;
+		for (int i = 0, n = keys.length; i < n; i++)
+		{
+			Object val = values[i];
+			if (val instanceof Long)
+				__a.accept(keys[i], (Long)val);
+			else
+				__a.accept(keys[i], (String)val);
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final Class<?> decodes()
+	{
+		return PeekableInputStream.class;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final String eventType()
+	{
+		return this.decoder.eventType();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public boolean isCheap()
+	{
+		// Nothing is left to parse
+		return true;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public String[] keys()
+	{
+		return this.decoder.keys();
+	}
+	
+	/**
+	 * Detects the event in the given stream and reads its fields.
+	 *
+	 * @param __in The stream to detect for.
+	 * @param __p The paths of the events which may be detected.
+	 * @return The decoder for the stream or {@code null} if the event is not
+	 * known.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	static __JsonDecoder__ detect(PeekableInputStream __in,
+		__JsonDecoder__.Paths __p)
+		throws NullPointerException
+	{
+		if (__in == null || __p == null)
+			throw new NullPointerException();
+		
+		// Stream was already read, so nothing can be detected
+		InputStream head = __JsonDecoder__.__peek(__in);
+		if (head == null)
+			return null;
+		
+		// The event is the first one whose signature appears, but since
+		// fields may come before the signature every wanted field is kept
+		Map<String, Object> values = new HashMap<>();
+		int[] found = new int[]{-1};
+		__JsonDecoder__.__walk(head,
+			(__path) -> __p._wanted.contains(__path) ||
+				(found[0] < 0 && __p.__signature(__path) >= 0),
+			(__path, __val) ->
+			{
+				if (found[0] < 0)
+					found[0] = __p.__signature(__path);
+				values.putIfAbsent(__path, __val);
+				return true;
+			});
+		
+		int dx = found[0];
+		if (dx < 0)
+			return null;
+		
+		// Only keep the values for the detected event
+		String[] keys = __p._keys[dx],
+			paths = __p._paths[dx];
+		int n = keys.length,
+			count = 0;
+		String[] usedkeys = new String[n];
+		Object[] usedvalues = new Object[n];
+		for (int i = 0; i < n; i++)
+		{
+			Object val = values.get(paths[i]);
+			if (val != null)
+			{
+				usedkeys[count] = keys[i];
+				usedvalues[count++] = val;
+			}
+		}
+		
+		return new __JsonDecoder__(__p._decoders[dx],
+			Arrays.<String>copyOf(usedkeys, count),
+			Arrays.<Object>copyOf(usedvalues, count));
+	}
+	
+	/**
+	 * Peeks at the start of the given stream.
+	 *
+	 * @param __v The stream to peek.
+	 * @return The start of the stream or {@code null} if it cannot be
+	 * peeked.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static InputStream __peek(Object __v)
+		throws NullPointerException
+	{
+		if (__v == null)
+			throw new NullPointerException();
+		
+		try
+		{
+			return ((PeekableInputStream)__v).peek(
+				EventInfoDecoders.PEEK_SIZE);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+	
+	/**
+	 * Walks through the JSON and reports the values of wanted paths. Values
+	 * are either {@link Long} or {@link String}, arrays additionally have a
+	 * {@code .length} path. If the JSON is truncated then only the values
+	 * before the truncation are reported.
+	 *
+	 * @param __in The JSON to walk.
+	 * @param __want Which paths are wanted.
+	 * @param __out The output for wanted values, if this returns
+	 * {@code false} then walking stops.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static void __walk(InputStream __in, Predicate<String> __want,
+		BiPredicate<String, Object> __out)
+		throws NullPointerException
+	{
+		if (__in == null || __want == null || __out == null)
+			throw new NullPointerException();
+		
+		// The path is reset to the mark of each level when a new key or
+		// array element is reached
+		StringBuilder path = new StringBuilder();
+		int[] marks = new int[_MAX_DEPTH],
+			index = new int[_MAX_DEPTH];
+		boolean[] isarray = new boolean[_MAX_DEPTH];
+		int depth = 0;
+		
+		try (JsonParser parser = Json.createParser(__in))
+		{
+			while (parser.hasNext())
+			{
+				JsonParser.Event event = parser.next();
+				
+				// Only shallow paths are tracked
+				int level = depth - 1;
+				boolean tracked = (depth <= _MAX_DEPTH);
+				
+				// Keys replace the previous key in objects
+				if (event == JsonParser.Event.KEY_NAME)
+				{
+					if (tracked && level >= 0)
+					{
+						path.setLength(marks[level]);
+						__JsonDecoder__.__appendKey(path, parser.getString());
+					}
+					continue;
+				}
+				
+				// Values and containers within arrays are indexed
+				if (event != JsonParser.Event.END_OBJECT &&
+					event != JsonParser.Event.END_ARRAY &&
+					tracked && level >= 0 && isarray[level])
+				{
+					path.setLength(marks[level]);
+					path.append('[').append(index[level]++).append(']');
+				}
+				
+				switch (event)
+				{
+					case START_OBJECT:
+					case START_ARRAY:
+						if (depth < _MAX_DEPTH)
+						{
+							marks[depth] = path.length();
+							index[depth] = 0;
+							isarray[depth] =
+								(event == JsonParser.Event.START_ARRAY);
+						}
+						depth++;
+						break;
+					
+					case END_OBJECT:
+					case END_ARRAY:
+						depth--;
+						
+						// Arrays which were fully read have a length
+						if (event == JsonParser.Event.END_ARRAY &&
+							depth < _MAX_DEPTH)
+						{
+							path.setLength(marks[depth]);
+							String lengthat = path + ".length";
+							if (__want.test(lengthat) &&
+								!__out.test(lengthat, (long)index[depth]))
+								return;
+						}
+						break;
+					
+					case VALUE_NULL:
+						break;
+					
+					default:
+						if (!tracked)
+							break;
+						
+						String at = path.toString();
+						if (!__want.test(at))
+							break;
+						
+						// Determine the value
+						Object val;
+						if (event == JsonParser.Event.VALUE_TRUE)
+							val = "true";
+						else if (event == JsonParser.Event.VALUE_FALSE)
+							val = "false";
+						else if (event == JsonParser.Event.VALUE_NUMBER &&
+							parser.isIntegralNumber())
+							val = parser.getLong();
+						else
+							val = parser.getString();
+						
+						if (!__out.test(at, val))
+							return;
+						break;
+				}
+			}
+		}
+		
+		// The input is only the start of the stream, so it may be cut off
+		catch (JsonException e)
+		{
+		}
+	}
+	
+	/**
+	 * Appends the given key to the path.
+	 *
+	 * @param __sb The path to append to.
+	 * @param __key The key to append.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static void __appendKey(StringBuilder __sb, String __key)
+		throws NullPointerException
+	{
+		if (__sb == null || __key == null)
+			throw new NullPointerException();
+		
+		// Keys which are not simple names are quoted
+		boolean simple = !__key.isEmpty();
+		for (int i = 0, n = __key.length(); simple && i < n; i++)
+			simple = Character.isJavaIdentifierPart(__key.charAt(i));
+		
+		if (!simple)
+			__sb.append("[\"").append(__key).append("\"]");
+		else
+		{
+			if (__sb.length() > 0)
+				__sb.append('.');
+			__sb.append(__key);
+		}
+	}
+	
+	/**
+	 * This contains the paths of every event which may be detected in raw
+	 * JSON, it is built from the registered decoders.
+	 *
+	 * @since 2026/10/19
+	 */
+	static final class Paths
+	{
+		/** The decoders which may be detected. */
+		private final EventInfoDecoder[] _decoders;
+		
+		/** The signature of each decoder. */
+		private final String[] _signatures;
+		
+		/** The keys of each decoder. */
+		private final String[][] _keys;
+		
+		/** The JSON path for each key of each decoder. */
+		private final String[][] _paths;
+		
+		/** Every path which is read. */
+		private final Set<String> _wanted =
+			new HashSet<>();
+		
+		/**
+		 * Initializes the paths from the given decoders, decoders which
+		 * have no signature are skipped.
+		 *
+		 * @param __ds The decoders to use.
+		 * @throws NullPointerException On null arguments.
+		 * @since 2026/10/19
+		 */
+		Paths(Collection<EventInfoDecoder> __ds)
+			throws NullPointerException
+		{
+			if (__ds == null)
+				throw new NullPointerException();
+			
+			List<EventInfoDecoder> decoders = new ArrayList<>();
+			for (EventInfoDecoder d : __ds)
+				if (d.signature() != null)
+					decoders.add(d);
+			
+			int n = decoders.size();
+			EventInfoDecoder[] ds = decoders.<EventInfoDecoder>toArray(
+				new EventInfoDecoder[n]);
+			String[] signatures = new String[n];
+			String[][] keys = new String[n][],
+				paths = new String[n][];
+			Set<String> wanted = this._wanted;
+			for (int i = 0; i < n; i++)
+			{
+				signatures[i] = ds[i].signature();
+				
+				String[] k = ds[i].keys(),
+					p = new String[k.length];
+				for (int j = 0, m = k.length; j < m; j++)
+					wanted.add((p[j] = k[j].replace(".[", "[")));
+				
+				keys[i] = k;
+				paths[i] = p;
+			}
+			
+			this._decoders = ds;
+			this._signatures = signatures;
+			this._keys = keys;
+			this._paths = paths;
+		}
+		
+		/**
+		 * Returns the index of the decoder which has a signature matching
+		 * the path.
+		 *
+		 * @param __path The path to check.
+		 * @return The index of the decoder or {@code -1} if there is none.
+		 * @throws NullPointerException On null arguments.
+		 * @since 2026/10/19
+		 */
+		private int __signature(String __path)
+			throws NullPointerException
+		{
+			if (__path == null)
+				throw new NullPointerException();
+			
+			String[] signatures = this._signatures;
+			for (int i = 0, n = signatures.length; i < n; i++)
+				if (__path.startsWith(signatures[i]))
+					return i;
+			return -1;
+		}
+	}
+}
+
@@ -0,0 +1,114 @@
+package com.iopipe.plugin.eventinfo;
+
+import com.iopipe.CustomMetric;
+import com.iopipe.IOpipeConstants;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.pmw.tinylog.Logger;
+
+/**
+ * This contains the full metric names for an event type, so that names are
+ * built and checked against the length limit only once rather than for every
+ * invocation.
+ *
+ * @since 2026/10/19
+ */
+final class __MetricNames__
+{
+	/** Tables for each event type. */
+	private static final Map<String, __MetricNames__> _TABLES =
+		new ConcurrentHashMap<>();
+	
+	/** Marker for names which are too long. */
+	private static final String _TOO_LONG =
+		new String("too long");
+	
+	/** The event type. */
+	protected final String eventtype;
+	
+	/** The metric which records the event type. */
+	protected final CustomMetric eventtypemetric;
+	
+	/** The prefix for all metric names. */
+	protected final String prefix;
+	
+	/** Full metric names for each key. */
+	private final Map<String, String> _names =
+		new ConcurrentHashMap<>();
+	
+	/**
+	 * Initializes the table.
+	 *
+	 * @param __et The event type.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private __MetricNames__(String __et)
+		throws NullPointerException
+	{
+		if (__et == null)
+			throw new NullPointerException();
+		
+		this.eventtype = __et;
+		this.prefix = "@iopipe/event-info." + __et + ".";
+		this.eventtypemetric = new CustomMetric(
+			"@iopipe/event-info.eventType", __et);
+	}
+	
+	/**
+	 * Returns the full metric name for the given key.
+	 *
+	 * @param __key The key to get the name of.
+	 * @return The full metric name or {@code null} if it is too long to be
+	 * reported.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final String name(String __key)
+		throws NullPointerException
+	{
+		if (__key == null)
+			throw new NullPointerException();
+		
+		Map<String, String> names = this._names;
+		String rv = names.get(__key);
+		if (rv == null)
+		{
+			rv = (this.prefix + __key).intern();
+			
+			// Names which are too long would be dropped at report time
+			// anyway, so drop them here and only warn once
+			if (rv.codePointCount(0, rv.length()) >=
+				IOpipeConstants.NAME_CODEPOINT_LIMIT)
+			{
+				Logger.warn("Event info metric name exceeds the {} " +
+					"codepoint length limit and will not be reported: {}",
+					IOpipeConstants.NAME_CODEPOINT_LIMIT, rv);
+				
+				rv = _TOO_LONG;
+			}
+			
+			names.put(__key, rv);
+		}
+		
+		return (rv == _TOO_LONG ? null : rv);
+	}
+	
+	/**
+	 * Returns the table for the given event type.
+	 *
+	 * @param __et The event type.
+	 * @return The table for the event type.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	static __MetricNames__ of(String __et)
+		throws NullPointerException
+	{
+		if (__et == null)
+			throw new NullPointerException();
+		
+		return _TABLES.computeIfAbsent(__et, __MetricNames__::new);
+	}
+}
+
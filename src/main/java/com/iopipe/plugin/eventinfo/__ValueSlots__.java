@@ -0,0 +1,146 @@
+package com.iopipe.plugin.eventinfo;
+
+import com.iopipe.CustomMetric;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This contains a slot for every key which a single decoder reports, it is
+ * sized once when the decoder is registered and is shared by every
+ * invocation which uses the decoder.
+ *
+ * Each slot keeps the last metric which was created for it, if the next
+ * invocation has the same value then that metric is used again rather than
+ * allocating a new one. Most event information such as the region, account,
+ * or source ARN is the same for every invocation of a function.
+ *
+ * @since 2026/10/19
+ */
+final class __ValueSlots__
+{
+	/** The metric names for the event type. */
+	protected final __MetricNames__ names;
+	
+	/** The slot for each key. */
+	private final Map<String, Integer> _index;
+	
+	/** The metric name for each slot, {@code null} if it is too long. */
+	private final String[] _names;
+	
+	/**
+	 * The last metric for each slot, since metrics cannot be changed a
+	 * race between invocations only means a metric is created again.
+	 */
+	private final CustomMetric[] _last;
+	
+	/**
+	 * Initializes the slots.
+	 *
+	 * @param __et The event type.
+	 * @param __keys The keys the decoder reports.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	__ValueSlots__(String __et, String[] __keys)
+		throws NullPointerException
+	{
+		if (__et == null || __keys == null)
+			throw new NullPointerException();
+		
+		__MetricNames__ names = __MetricNames__.of(__et);
+		
+		// Duplicate keys share the same slot
+		Map<String, Integer> index = new HashMap<>();
+		for (String key : __keys)
+			if (key != null && !index.containsKey(key))
+				index.put(key, index.size());
+		
+		int n = index.size();
+		String[] slotnames = new String[n];
+		for (Map.Entry<String, Integer> e : index.entrySet())
+			slotnames[e.getValue()] = names.name(e.getKey());
+		
+		this.names = names;
+		this._index = index;
+		this._names = slotnames;
+		this._last = new CustomMetric[n];
+	}
+	
+	/**
+	 * Returns the metric for the given slot and value.
+	 *
+	 * @param __dx The slot.
+	 * @param __val The value.
+	 * @return The metric or {@code null} if the name is too long.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final CustomMetric metric(int __dx, String __val)
+		throws NullPointerException
+	{
+		if (__val == null)
+			throw new NullPointerException();
+		
+		String name = this._names[__dx];
+		if (name == null)
+			return null;
+		
+		CustomMetric[] last = this._last;
+		CustomMetric rv = last[__dx];
+		if (rv == null || !Objects.equals(__val, rv.stringValue()))
+			last[__dx] = (rv = new CustomMetric(name, __val));
+		return rv;
+	}
+	
+	/**
+	 * Returns the metric for the given slot and value.
+	 *
+	 * @param __dx The slot.
+	 * @param __val The value.
+	 * @return The metric or {@code null} if the name is too long.
+	 * @since 2026/10/19
+	 */
+	final CustomMetric metric(int __dx, long __val)
+	{
+		String name = this._names[__dx];
+		if (name == null)
+			return null;
+		
+		CustomMetric[] last = this._last;
+		CustomMetric rv = last[__dx];
+		if (rv == null || !rv.hasLong() || rv.longValue() != __val)
+			last[__dx] = (rv = new CustomMetric(name, __val));
+		return rv;
+	}
+	
+	/**
+	 * Returns the number of slots.
+	 *
+	 * @return The number of slots.
+	 * @since 2026/10/19
+	 */
+	final int size()
+	{
+		return this._names.length;
+	}
+	
+	/**
+	 * Returns the slot for the given key.
+	 *
+	 * @param __key The key to get the slot of.
+	 * @return The slot or {@code -1} if the decoder did not declare the key.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final int slot(String __key)
+		throws NullPointerException
+	{
+		if (__key == null)
+			throw new NullPointerException();
+		
+		Integer rv = this._index.get(__key);
+		return (rv == null ? -1 : rv);
+	}
+}
+
@@ -14,6 +14,13 @@ import java.util.Map;
  */
 public final class MethodTracker
 {
+	/** The class and method name used for methods merged together. */
+	public static final String OTHER =
+		"(other)";
+	
+	/** The budget used to limit the number of tracked methods. */
+	private final __Budget__ _budget;
+	
 	/** Classes which have been tracked. */
 	private final Map<String, TrackedClass> _classes =
 		new HashMap<>();
@@ -26,6 +33,36 @@ public final class MethodTracker
 	private final AtomicInteger _nextid =
 		new AtomicInteger();
 	
+	/** Methods which exceed the budget are merged into this method. */
+	private volatile TrackedMethod _other;
+	
+	/**
+	 * Initializes the method tracker with no limit on the number of
+	 * methods which may be tracked.
+	 *
+	 * @since 2026/10/19
+	 */
+	public MethodTracker()
+	{
+		this(new __Budget__(0));
+	}
+	
+	/**
+	 * Initializes the method tracker using the given budget.
+	 *
+	 * @param __b The budget to use.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	MethodTracker(__Budget__ __b)
+		throws NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		
+		this._budget = __b;
+	}
+	
 	/**
 	 * Returns the methods which have been tracked.
 	 *
@@ -68,6 +105,45 @@ public final class MethodTracker
 	 * @since 2018/02/19
 	 */
 	public MethodTracker.TrackedMethod track(String __c, String __m)
+	{
+		return this.__track(__c, __m, this._budget);
+	}
+	
+	/**
+	 * Returns the method which all methods that would exceed the budget
+	 * are merged into.
+	 *
+	 * @return The merged method.
+	 * @since 2026/10/19
+	 */
+	public final MethodTracker.TrackedMethod other()
+	{
+		TrackedMethod rv = this._other;
+		if (rv == null)
+		{
+			Map<String, TrackedClass> classes = this._classes;
+			synchronized (classes)
+			{
+				rv = this._other;
+				if (rv == null)
+					this._other = (rv = this.__track(OTHER, OTHER, null));
+			}
+		}
+		
+		return rv;
+	}
+	
+	/**
+	 * Tracks the given class name and method.
+	 *
+	 * @param __c The class to track.
+	 * @param __m The method to track.
+	 * @param __b The budget to use, if {@code null} then there is no limit.
+	 * @return The tracked method.
+	 * @since 2026/10/19
+	 */
+	private final MethodTracker.TrackedMethod __track(String __c, String __m,
+		__Budget__ __b)
 	{
 		TrackedClass cl;
 		
@@ -76,11 +152,20 @@ public final class MethodTracker
 		{
 			cl = classes.get(__c);
 			if (cl == null)
+			{
+				// Out of memory for new classes
+				if (__b != null && !__b.reserve(__Budget__.METHOD_COST))
+					return this.other();
+				
 				classes.put(__c, (cl =
 					new TrackedClass(__c, this._methods, this._nextid)));
+			}
 		}
 		
-		return cl.track(__m);
+		TrackedMethod rv = cl.track(__m, __b);
+		if (rv == null)
+			return this.other();
+		return rv;
 	}
 	
 	/**
@@ -133,6 +218,21 @@ public final class MethodTracker
 		 * @since 2018/02/19
 		 */
 		public final MethodTracker.TrackedMethod track(String __m)
+		{
+			return this.track(__m, null);
+		}
+		
+		/**
+		 * Tracks the specified method within the given budget.
+		 *
+		 * @param __m The method to track.
+		 * @param __b The budget to use, if {@code null} then there is no
+		 * limit.
+		 * @return The tracker for the given method or {@code null} if it
+		 * is not tracked and doing so would exceed the budget.
+		 * @since 2026/10/19
+		 */
+		final MethodTracker.TrackedMethod track(String __m, __Budget__ __b)
 		{
 			Map<String, TrackedMethod> methods = this._methods;
 			synchronized (methods)
@@ -141,6 +241,10 @@ public final class MethodTracker
 				
 				if (rv == null)
 				{
+					// Out of memory for new methods
+					if (__b != null && !__b.reserve(__Budget__.METHOD_COST))
+						return null;
+					
 					// Need to also keep track of methods linearly for easy
 					// access
 					List<TrackedMethod> linear = this._linear;
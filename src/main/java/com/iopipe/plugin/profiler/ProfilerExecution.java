@@ -27,10 +27,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 import javax.json.Json;
 import javax.json.JsonException;
 import javax.json.JsonObject;
@@ -56,23 +56,43 @@ public class ProfilerExecution
 	/** The number of nanoseconds between each polling period. */
 	public static final int SAMPLE_RATE;
 	
+	/** The default memory budget for the call tree (in bytes). */
+	public static final long DEFAULT_MEMORY_BUDGET =
+		16_777_216L;
+	
+	/** The memory budget for the call tree (in bytes). */
+	public static final long MEMORY_BUDGET;
+	
+	/** The number of busiest threads to report CPU time for. */
+	public static final int MAX_CPU_TIME_THREADS =
+		4;
+	
+	/** Should actual thread CPU time be measured? */
+	public static final boolean CPU_TIME;
+	
 	/** Debug: The path to dump a local copy of the profiler information to. */
 	public static final Path LOCAL_SNAPSHOT_DUMP_PATH;
 	
 	/** Debug: Prefix to use for filenames in the snapshot. */
 	public static final String ALTERNATIVE_PREFIX;
 	
+	/** Forced compression method, {@code null} is automatic. */
+	static final __Compression__ COMPRESSION;
+	
 	/** The execution state. */
 	protected final IOpipeExecution execution;
 	
 	/** Tracker state. */
 	private final Tracker _tracker =
-		new Tracker();
+		new Tracker(MEMORY_BUDGET);
 	
 	/** The remote to access. */
 	private final AtomicReference<__Remote__> _remote =
 		new AtomicReference<>();
 	
+	/** Completes when the remote has been determined. */
+	private volatile CompletableFuture<Void> _signer;
+	
 	/** The tread which is pollng for profiling (only in lambda thread). */
 	private Thread _pollthread;
 	
@@ -82,6 +102,9 @@ public class ProfilerExecution
 	/** Initial statistics when the plugin is initialized. */
 	private ManagementStatistics _beginstats;
 	
+	/** The time execution started, used for wall time. */
+	private volatile long _begintime;
+	
 	/**
 	 * Determine the sample rate.
 	 *
@@ -107,6 +130,30 @@ public class ProfilerExecution
 		SAMPLE_RATE = Math.max(1,
 			(int)Math.min(Integer.MAX_VALUE, sr));
 		
+		// Memory budget, which is in kibibytes, zero means no limit
+		long mb;
+		try
+		{
+			mb = Long.parseLong(System.getProperty(
+				"com.iopipe.plugin.profiler.memorybudget",
+				System.getenv("IOPIPE_PROFILER_MEMORY_BUDGET")), 10) * 1024L;
+		}
+		
+		// Could not parse a valid number
+		catch (NumberFormatException e)
+		{
+			mb = DEFAULT_MEMORY_BUDGET;
+		}
+		
+		MEMORY_BUDGET = (mb < 0 ? DEFAULT_MEMORY_BUDGET : mb);
+		
+		// Thread CPU time must be enabled since it is not free on all
+		// systems and adds metrics to every report
+		CPU_TIME = Boolean.valueOf(System.getProperty(
+			"com.iopipe.plugin.profiler.cputime",
+			Objects.toString(System.getenv("IOPIPE_PROFILER_CPUTIME"),
+			"false")));
+		
 		// Path where snapshots will be stored, optional
 		String lsndp = System.getenv("IOPIPE_PROFILER_LOCAL_DUMP_PATH");
 		Path pathlsndp;
@@ -122,6 +169,11 @@ public class ProfilerExecution
 		
 		// Alternative prefix for ZIP entries
 		ALTERNATIVE_PREFIX = System.getenv("IOPIPE_PROFILER_ALTERNATIVE_PREFIX");
+		
+		// Compression method, if it is not valid it will be automatic
+		COMPRESSION = __Compression__.of(System.getProperty(
+			"com.iopipe.plugin.profiler.compression",
+			System.getenv("IOPIPE_PROFILER_COMPRESSION")));
 	}
 	
 	/**
@@ -185,6 +237,27 @@ public class ProfilerExecution
 			endstats = ManagementStatistics.snapshot(System.nanoTime() -
 				beginstats.abstime);
 		
+		// Report actual CPU time used, since sampling only estimates it
+		Tracker tracker = this._tracker;
+		this.__reportCpuTime(tracker);
+		
+		// If the tree was too large then cold branches and samples would
+		// have been merged together, so report how many so that accuracy
+		// loss is visible
+		long pruned = tracker.prunedSamples(),
+			prunednodes = tracker.prunedNodes();
+		if (pruned > 0 || prunednodes > 0)
+		{
+			Logger.warn("Profiler memory budget of {} bytes was exceeded, " +
+				"{} nodes and {} samples were merged.", MEMORY_BUDGET,
+				prunednodes, pruned);
+			
+			execution.customMetric("@iopipe/plugin-profiler.prunedSamples",
+				pruned);
+			execution.customMetric("@iopipe/plugin-profiler.prunedNodes",
+				prunednodes);
+		}
+		
 		// Date prefix used for file export
 		LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(
 			execution.startTimestamp()), ZoneId.of("UTC"));
@@ -194,41 +267,42 @@ public class ProfilerExecution
 			format(now.toLocalTime()).replaceAll(Pattern.quote(":"), "").
 			replaceAll(Pattern.quote("."), "_"));
 		
+		// Compression is chosen based on how much time remains so that
+		// uploading the snapshot does not cause the function to time out
+		int remaining = execution.context().getRemainingTimeInMillis();
+		
 		// Export tracker data to a ZIP file
 		byte[] exported = null;
 		try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
 		{
-			Tracker tracker = this._tracker;
-			
-			try (ZipOutputStream zos = new ZipOutputStream(baos))
+			try (__SnapshotArchive__ zos = new __SnapshotArchive__(baos))
 			{
-				// Do not bother compressing because the snapshot data is
-				// compressed anyway. The header and footer could be compressed
-				// but that would probably save only a dozen bytes so the
-				// loss of speed compressing compressed data is pointless
-				zos.setMethod(ZipOutputStream.DEFLATED);
-				zos.setLevel(0);
-				
-				// Export CPU data
-				zos.putNextEntry(new ZipEntry(prefix + "_cpu.nps"));
-				new __CPUExport__(tracker, execution, SAMPLE_RATE).run(zos);
-				zos.closeEntry();
-				
-				// Any entry after this point should be compressed and should
-				// easily be compressed using a fast compression algorithm.
-				// This is so the size of the ZIP is reduced which will
-				// additionally reduce the bandwidth cost of uploading it to
-				// the server.
-				zos.setLevel(3);
+				// Export CPU data, the snapshot data is compressed within
+				// the snapshot itself so the entry is just stored since
+				// compressing compressed data is pointless
+				try (ByteArrayOutputStream cpu = new ByteArrayOutputStream())
+				{
+					new __CPUExport__(tracker, execution, SAMPLE_RATE).run(
+						cpu, __Compression__.choose(-1, remaining));
+					zos.add(prefix + "_cpu.nps", cpu.toByteArray(),
+						__Compression__.STORED);
+				}
 				
-				// Export statistics
-				zos.putNextEntry(new ZipEntry(prefix + "_stat.csv"));
-				new __StatExport__(beginstats, endstats).run(zos);
-				zos.closeEntry();
+				// Export statistics, this is plain text so it should be
+				// compressed to reduce the bandwidth cost of uploading
+				try (ByteArrayOutputStream stat = new ByteArrayOutputStream())
+				{
+					new __StatExport__(beginstats, endstats).run(stat);
+					zos.add(prefix + "_stat.csv", stat.toByteArray(),
+						__Compression__.choose(stat.size(), remaining));
+				}
 				
 				// Finish the ZIP
 				zos.finish();
 				zos.flush();
+				
+				// Report how well compression went
+				zos.reportStatistics(execution);
 			}
 			
 			// Export the ZUIP
@@ -279,13 +353,20 @@ public class ProfilerExecution
 			// Build request to send to server
 			RemoteRequest request = new RemoteRequest("", exported);
 			
-			// Send request
-			RemoteResult result = conf.getRemoteConnectionFactory().connect(
-				remote, null).send(RequestType.PUT,
-				request);
-			
-			// Debug result
-			Logger.debug("Profiler upload returned result {}.", result);
+			// Upload while the report is being sent, the execution does not
+			// finish until the upload has
+			CompletableFuture<RemoteResult> upload =
+				conf.getRemoteConnectionFactory().connect(remote, null).
+				sendAsync(RequestType.PUT, request);
+			upload.whenComplete((__result, __e) ->
+				{
+					if (__e != null)
+						Logger.error(__e, "Could not upload profiler data.");
+					else
+						Logger.debug("Profiler upload returned result {}.",
+							__result);
+				});
+			execution.addPending(upload);
 			
 			// Add auto-label
 			execution.label("@iopipe/plugin-profiler");
@@ -300,14 +381,10 @@ public class ProfilerExecution
 	 */
 	private final String __awaitRemote()
 	{
-		AtomicReference<__Remote__> atom = this._remote;
-		
-		// Burn CPU for a bit waiting for the remote
-		__Remote__ rv;
-		while ((rv = atom.get()) == null)
-			continue;
+		// The future never completes exceptionally
+		this._signer.join();
 		
-		return rv.url;
+		return this._remote.get().url;
 	}
 	
 	/**
@@ -356,12 +433,37 @@ public class ProfilerExecution
 				gen.flush();
 			}
 			
-			// Ask which URL to send to
-			RemoteResult resp = con.send(RequestType.POST,
-				new RemoteRequest(RemoteBody.MIMETYPE_JSON, out.toString()));
+			// Ask which URL to send to, this is done while the method runs
+			this._signer = con.sendAsync(RequestType.POST,
+				new RemoteRequest(RemoteBody.MIMETYPE_JSON, out.toString())).
+				handle(this::__decodeRemote);
+		}
+		
+		// Could not send to the remote end
+		catch (Throwable e)
+		{
+			this._signer = CompletableFuture.completedFuture(
+				this.__decodeRemote(null, e));
+		}
+	}
+	
+	/**
+	 * Decodes the URL to send a report to.
+	 *
+	 * @param __resp The response from the signer, may be {@code null}.
+	 * @param __e The exception if the request failed, may be {@code null}.
+	 * @return Always {@code null}.
+	 * @since 2026/10/19
+	 */
+	private final Void __decodeRemote(RemoteResult __resp, Throwable __e)
+	{
+		try
+		{
+			if (__e != null)
+				throw __e;
 			
 			// Decode response
-			JsonObject jo = (JsonObject)resp.bodyAsJsonStructure();
+			JsonObject jo = (JsonObject)__resp.bodyAsJsonStructure();
 			JsonValue jv = jo.get("signedRequest");
 			if (jv == null)
 				throw new RuntimeException("Server did not respond with URL.");
@@ -390,6 +492,8 @@ public class ProfilerExecution
 			// Mark invalid
 			this._remote.set(new __Remote__(false, null, null));
 		}
+		
+		return null;
 	}
 	
 	/**
@@ -399,14 +503,13 @@ public class ProfilerExecution
 	 */
 	final void __pre()
 	{
-		// Need to determine which server to send to, can be done in another
-		// thread
-		Thread getter = new Thread(this::__getRemote, "IOpipe-ProfilerGetURL");
-		getter.setDaemon(true);
-		getter.start();
+		// Need to determine which server to send to, this is sent in the
+		// background
+		this.__getRemote();
 		
 		// Statistics at the start of method execution
 		this._beginstats = ManagementStatistics.snapshot(0);
+		this._begintime = System.nanoTime();
 		
 		// Setup poller which will constantly read thread state
 		__Poller__ poller = new __Poller__(this._tracker,
@@ -431,5 +534,83 @@ public class ProfilerExecution
 		pollthread.start();
 		this._pollthread = pollthread;
 	}
+	
+	/**
+	 * Reports the actual CPU time used by the execution and its busiest
+	 * threads, this is the amount of time threads were actually running on
+	 * the CPU rather than waiting on I/O or locks.
+	 *
+	 * @param __t The tracker to report for.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private final void __reportCpuTime(Tracker __t)
+		throws NullPointerException
+	{
+		if (__t == null)
+			throw new NullPointerException();
+		
+		// Nothing to report
+		if (!__CpuTime__.isSupported())
+			return;
+		
+		// Read the times again since the poller may not have sampled threads
+		// recently
+		__t.readCpuTimes();
+		
+		IOpipeExecution execution = this.execution;
+		long walltime = System.nanoTime() - this._begintime;
+		
+		// Report totals for all threads, the times are copied since the
+		// poller may still be reading them
+		TrackedThread[] threads = __t.threads();
+		int count = threads.length;
+		long[] cpus = new long[count],
+			users = new long[count];
+		long cputime = 0,
+			usertime = 0;
+		for (int i = 0; i < count; i++)
+		{
+			long tcpu = threads[i].cpuTime(),
+				tuser = threads[i].userTime();
+			cpus[i] = tcpu;
+			users[i] = Math.max(0, tuser);
+			
+			// Thread ended before it could be read
+			if (tcpu < 0)
+				continue;
+			
+			cputime += tcpu;
+			usertime += users[i];
+		}
+		
+		// Each thread adds metrics to the report, so only the threads which
+		// used the most CPU time are reported
+		for (int rank = 0; rank < MAX_CPU_TIME_THREADS; rank++)
+		{
+			int best = -1;
+			for (int i = 0; i < count; i++)
+				if (cpus[i] >= 0 && (best < 0 || cpus[i] > cpus[best]))
+					best = i;
+			
+			// No more threads
+			if (best < 0)
+				break;
+			
+			TrackedThread thread = threads[best];
+			String base = "@iopipe/plugin-profiler.threads[" + rank + "].";
+			execution.customMetric(base + "name", thread.name());
+			execution.customMetric(base + "cpuTime", cpus[best]);
+			execution.customMetric(base + "userTime", users[best]);
+			execution.customMetric(base + "wallTime", thread.liveWallTime());
+			
+			// Do not pick this thread again
+			cpus[best] = -1;
+		}
+		
+		execution.customMetric("@iopipe/plugin-profiler.cpuTime", cputime);
+		execution.customMetric("@iopipe/plugin-profiler.userTime", usertime);
+		execution.customMetric("@iopipe/plugin-profiler.wallTime", walltime);
+	}
 }
 
@@ -2,9 +2,11 @@ package com.iopipe.plugin.profiler;
 
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.IntStream;
 
 /**
  * This contains the information for a single thread which has been profiled.
@@ -26,6 +28,9 @@ public final class TrackedThread
 	/** The name of the thread. */
 	protected final String name;
 	
+	/** The budget which limits the number of nodes in the tree. */
+	private final __Budget__ _budget;
+	
 	/** The total number of invocations done in this thread. */
 	private final AtomicInteger _numinvokes =
 		new AtomicInteger();
@@ -49,6 +54,22 @@ public final class TrackedThread
 	/** Gross time for each node even when asleep. */
 	private volatile long _grosswgtimeabs;
 	
+	/** The CPU time used by the thread, as last read. */
+	private volatile long _cputime =
+		-1;
+	
+	/** The user time used by the thread, as last read. */
+	private volatile long _usertime =
+		-1;
+	
+	/** The time the thread was first seen. */
+	private volatile long _firstseen =
+		Long.MIN_VALUE;
+	
+	/** The time the thread was last seen alive. */
+	private volatile long _lastseen =
+		Long.MIN_VALUE;
+	
 	/**
 	 * Initializes the thread information.
 	 *
@@ -61,13 +82,43 @@ public final class TrackedThread
 	public TrackedThread(Thread __thread, int __ldx, MethodTracker __m)
 		throws NullPointerException
 	{
-		if (__thread == null || __m ==null)
+		this(__thread, __ldx, __m, new __Budget__(0));
+	}
+	
+	/**
+	 * Initializes the thread information which limits the size of the
+	 * tree to the given budget.
+	 *
+	 * @param __thread The thread to record information for.
+	 * @param __ldx Logical thread index.
+	 * @param __m The owning method tracker.
+	 * @param __b The budget for tree nodes.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	TrackedThread(Thread __thread, int __ldx, MethodTracker __m,
+		__Budget__ __b)
+		throws NullPointerException
+	{
+		if (__thread == null || __m == null || __b == null)
 			throw new NullPointerException();
 		
 		this.thread = __thread;
 		this.methods = __m;
 		this.logicalindex = __ldx;
 		this.name = Objects.toString(__thread.getName(), "");
+		this._budget = __b;
+	}
+	
+	/**
+	 * Returns the actual CPU time used by the thread.
+	 *
+	 * @return The CPU time in nanoseconds, negative if not known.
+	 * @since 2026/10/19
+	 */
+	public final long cpuTime()
+	{
+		return this._cputime;
 	}
 	
 	/**
@@ -103,6 +154,21 @@ public final class TrackedThread
 		return this._numinvokes.get();
 	}
 	
+	/**
+	 * Returns the wall time the thread was observed to be alive for.
+	 *
+	 * @return The wall time in nanoseconds.
+	 * @since 2026/10/19
+	 */
+	public final long liveWallTime()
+	{
+		long firstseen = this._firstseen,
+			lastseen = this._lastseen;
+		if (firstseen == Long.MIN_VALUE || lastseen == Long.MIN_VALUE)
+			return 0;
+		return Math.max(0, lastseen - firstseen);
+	}
+	
 	/**
 	 * Returns the logical index of the thread.
 	 *
@@ -149,6 +215,9 @@ public final class TrackedThread
 		Thread thread = this.thread;
 		MethodTracker methods = this.methods;
 		
+		// Read the actual CPU time this thread has used
+		this.readCpuTime();
+		
 		// Do not track terminated threads, but treat all other states as
 		// being asleep
 		Thread.State state = thread.getState();
@@ -173,7 +242,8 @@ public final class TrackedThread
 		long grosswgtimeabs = this._grosswgtimeabs;
 		
 		// Node traversal starts at the root node
-		TrackedThreadNodeTraversal traversal = this;
+		Map<MethodTracker.TrackedMethod, Node> level = this._nodes;
+		__Budget__ budget = this._budget;
 		
 		// Generate stack trace, since each sub-node based on the origin point
 		// of call is unique per stack trace, methods which call other methods
@@ -197,14 +267,23 @@ public final class TrackedThread
 			StackTraceElement trace = traces[i];
 			MethodTracker.TrackedMethod tracked = methods.track(trace);
 			
-			// Need the node for this entry
-			Node sub = traversal.subNode(tracked);
+			// Need the node for this entry, if the tree is too large then
+			// the rest of this trace is merged into a single node
+			Node sub = TrackedThread.__subNode(level, tracked, budget);
+			if (sub == null)
+			{
+				budget.pruned();
+				
+				TrackedThread.__subNode(level, methods.other(), null).
+					parse(__abs, __rel, true, asleep);
+				break;
+			}
 			
 			// Parse this node
 			sub.parse(__abs, __rel, top, asleep);
 			
 			// Traverse into the sub-tree
-			traversal = sub;
+			level = sub._nodes;
 		}
 		
 		// Record gross time after time spent in nodes calculated
@@ -212,6 +291,48 @@ public final class TrackedThread
 		this._grosswgtimeabs = grosswgtimeabs;
 	}
 	
+	/**
+	 * Reads the actual CPU and user time used by the thread, if the thread
+	 * is no longer alive then the previously read times are kept.
+	 *
+	 * @since 2026/10/19
+	 */
+	public final void readCpuTime()
+	{
+		Thread thread = this.thread;
+		
+		// Record the wall time the thread has been seen
+		long now = System.nanoTime();
+		if (this._firstseen == Long.MIN_VALUE)
+			this._firstseen = now;
+		
+		// Times of dead threads cannot be read
+		if (!__CpuTime__.isSupported() || !thread.isAlive())
+			return;
+		
+		long cputime = __CpuTime__.cpuTime(thread),
+			usertime = __CpuTime__.userTime(thread);
+		
+		// These are -1 if the thread terminated before it was read
+		if (cputime >= 0)
+			this._cputime = cputime;
+		if (usertime >= 0)
+			this._usertime = usertime;
+		
+		this._lastseen = now;
+	}
+	
+	/**
+	 * Returns the actual user time used by the thread.
+	 *
+	 * @return The user time in nanoseconds, negative if not known.
+	 * @since 2026/10/19
+	 */
+	public final long userTime()
+	{
+		return this._usertime;
+	}
+	
 	/** 
 	 * {@inheritDoc}
 	 * @since 2018/02/19
@@ -223,14 +344,7 @@ public final class TrackedThread
 		if (__m == null)
 			throw new NullPointerException();
 		
-		Map<MethodTracker.TrackedMethod, Node> nodes = this._nodes;
-		synchronized (nodes)
-		{
-			Node rv = nodes.get(__m);
-			if (rv == null)
-				nodes.put(__m, (rv = new Node(__m)));
-			return rv;
-		}
+		return TrackedThread.__subNode(this._nodes, __m, null);
 	}
 	
 	/** 
@@ -248,6 +362,169 @@ public final class TrackedThread
 		}
 	}
 	
+	/**
+	 * Adds the weights of every node which may be pruned to the given
+	 * builder.
+	 *
+	 * @param __b The builder to add weights to.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final void __weights(IntStream.Builder __b)
+		throws NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		
+		TrackedThread.__weights(this._nodes, this.methods.other(), __b);
+	}
+	
+	/**
+	 * Merges every subtree whose weight is at or below the threshold into
+	 * an {@code (other)} node under its parent, then halves the weight of
+	 * the nodes which remain so that branches which have not been seen
+	 * recently can be pruned later.
+	 *
+	 * @param __t The weight threshold.
+	 * @return The number of nodes which were removed, less any which were
+	 * created to hold the merged time.
+	 * @since 2026/10/19
+	 */
+	final int __prune(int __t)
+	{
+		return TrackedThread.__prune(this._nodes, this.methods.other(), __t);
+	}
+	
+	/**
+	 * Merges and decays the given level of the tree.
+	 *
+	 * @param __nodes The nodes to prune.
+	 * @param __o The method which pruned nodes are merged into.
+	 * @param __t The weight threshold.
+	 * @return The number of nodes which were removed, less any which were
+	 * created to hold the merged time.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static final int __prune(
+		Map<MethodTracker.TrackedMethod, Node> __nodes,
+		MethodTracker.TrackedMethod __o, int __t)
+		throws NullPointerException
+	{
+		if (__nodes == null || __o == null)
+			throw new NullPointerException();
+		
+		synchronized (__nodes)
+		{
+			int removed = 0,
+				merged = 0,
+				weight = 0;
+			long graph = 0,
+				cpu = 0;
+			for (Iterator<Node> it = __nodes.values().iterator();
+				it.hasNext();)
+			{
+				Node node = it.next();
+				
+				// Samples within a node all pass through its parent so the
+				// whole subtree is at or below the threshold
+				if (node.method != __o && node._weight <= __t)
+				{
+					it.remove();
+					
+					merged++;
+					removed += node.__size();
+					weight += node._weight;
+					graph += node.graph.absolute();
+					cpu += node.cpu.absolute();
+					continue;
+				}
+				
+				removed += TrackedThread.__prune(node._nodes, __o, __t);
+				node._weight >>>= 1;
+			}
+			
+			// The time of the merged nodes is kept as self time since the
+			// other node has no children
+			if (merged > 0)
+			{
+				if (!__nodes.containsKey(__o))
+					removed--;
+				
+				Node other = TrackedThread.__subNode(__nodes, __o, null);
+				other.graph.addTime(true, graph);
+				other.cpu.addTime(true, cpu);
+				other._weight += (weight >>> 1);
+			}
+			
+			return removed;
+		}
+	}
+	
+	/**
+	 * Obtains or creates the sub-node for the given method.
+	 *
+	 * @param __nodes The nodes to look within.
+	 * @param __m The method to get the node for.
+	 * @param __b The budget for new nodes, if {@code null} then there is no
+	 * limit.
+	 * @return The node for the given method or {@code null} if it does not
+	 * exist and creating it would exceed the budget.
+	 * @throws NullPointerException If no nodes or method were specified.
+	 * @since 2026/10/19
+	 */
+	private static final TrackedThread.Node __subNode(
+		Map<MethodTracker.TrackedMethod, Node> __nodes,
+		MethodTracker.TrackedMethod __m, __Budget__ __b)
+		throws NullPointerException
+	{
+		if (__nodes == null || __m == null)
+			throw new NullPointerException();
+		
+		synchronized (__nodes)
+		{
+			Node rv = __nodes.get(__m);
+			if (rv == null)
+			{
+				// Out of memory for new nodes
+				if (__b != null && !__b.reserve(__Budget__.NODE_COST))
+					return null;
+				
+				__nodes.put(__m, (rv = new Node(__m)));
+			}
+			return rv;
+		}
+	}
+	
+	/**
+	 * Adds the weights of the given level and all the levels below it.
+	 *
+	 * @param __nodes The nodes to add.
+	 * @param __o The method which pruned nodes are merged into, these are
+	 * not added.
+	 * @param __b The builder to add weights to.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static final void __weights(
+		Map<MethodTracker.TrackedMethod, Node> __nodes,
+		MethodTracker.TrackedMethod __o, IntStream.Builder __b)
+		throws NullPointerException
+	{
+		if (__nodes == null || __o == null || __b == null)
+			throw new NullPointerException();
+		
+		synchronized (__nodes)
+		{
+			for (Node node : __nodes.values())
+				if (node.method != __o)
+				{
+					__b.add(node._weight);
+					TrackedThread.__weights(node._nodes, __o, __b);
+				}
+		}
+	}
+	
 	/**
 	 * Returns the time spent absolutly in this thread.
 	 *
@@ -307,6 +584,12 @@ public final class TrackedThread
 		/** The number of calls made to this method. */
 		private volatile int _numcalls;
 		
+		/**
+		 * The number of samples seen in this node, this is halved every
+		 * time the tree is pruned.
+		 */
+		private volatile int _weight;
+		
 		/**
 		 * Initializes the node for tracking this method.
 		 *
@@ -358,6 +641,9 @@ public final class TrackedThread
 		public final void parse(long __abs, int __rel, boolean __top,
 			boolean __asleep)
 		{
+			// Only the sampler thread parses nodes
+			this._weight++;
+			
 			// Add graph time regardless if the thread is asleep or not
 			this.graph.addTime(__top, __rel);
 			
@@ -376,15 +662,8 @@ public final class TrackedThread
 		{
 			if (__m == null)
 				throw new NullPointerException();
-		
-			Map<MethodTracker.TrackedMethod, Node> nodes = this._nodes;
-			synchronized (nodes)
-			{
-				Node rv = nodes.get(__m);
-				if (rv == null)
-					nodes.put(__m, (rv = new Node(__m)));
-				return rv;
-			}
+			
+			return TrackedThread.__subNode(this._nodes, __m, null);
 		}
 	
 		/** 
@@ -402,6 +681,24 @@ public final class TrackedThread
 			}
 		}
 		
+		/**
+		 * Returns the number of nodes in this subtree, including this one.
+		 *
+		 * @return The number of nodes.
+		 * @since 2026/10/19
+		 */
+		final int __size()
+		{
+			Map<MethodTracker.TrackedMethod, Node> nodes = this._nodes;
+			synchronized (nodes)
+			{
+				int rv = 1;
+				for (Node node : nodes.values())
+					rv += node.__size();
+				return rv;
+			}
+		}
+		
 		/**
 		 * Time spent on the CPU.
 		 *
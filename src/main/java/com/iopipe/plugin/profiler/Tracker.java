@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * This class keeps track of executions which have occured.
@@ -13,13 +14,52 @@ import java.util.Map;
 public final class Tracker
 {
 	/** Method tracker. */
-	protected final MethodTracker methods =
-		new MethodTracker();
+	protected final MethodTracker methods;
 	
 	/** Thread recordings. */
 	private final Map<Thread, TrackedThread> _threads =
 		new HashMap<>();
 	
+	/** The budget which limits the memory used by the tracker. */
+	private final __Budget__ _budget;
+	
+	/**
+	 * Initializes the tracker with no memory limit.
+	 *
+	 * @since 2026/10/19
+	 */
+	public Tracker()
+	{
+		this(0);
+	}
+	
+	/**
+	 * Initializes the tracker with the given memory budget, when the budget
+	 * is exceeded then methods and call tree nodes are merged together.
+	 *
+	 * @param __b The approximate number of bytes which may be used to store
+	 * methods and the call tree, if zero or negative then there is no limit.
+	 * @since 2026/10/19
+	 */
+	public Tracker(long __b)
+	{
+		__Budget__ budget = new __Budget__(__b);
+		
+		this._budget = budget;
+		this.methods = new MethodTracker(budget);
+	}
+	
+	/**
+	 * Returns the approximate number of bytes used by the tracker.
+	 *
+	 * @return The approximate number of used bytes.
+	 * @since 2026/10/19
+	 */
+	public final long memoryUsed()
+	{
+		return this._budget.used();
+	}
+	
 	/**
 	 * Returns the methods which have been tracked.
 	 *
@@ -47,20 +87,49 @@ public final class Tracker
 		if (__thread == null)
 			throw new NullPointerException();
 		
-		TrackedThread stat;
-		
-		// In the future recording traces could be done in multiple threads
-		Map<Thread, TrackedThread> threads = this._threads;
-		synchronized (threads)
-		{
-			stat = threads.get(__thread);
-			if (stat == null)
-				threads.put(__thread, (stat = new TrackedThread(__thread,
-					threads.size(), this.methods)));
-		}
-		
 		// Record thread information
-		stat.parseStackTrace(__abs, __rel);
+		this.__thread(__thread).parseStackTrace(__abs, __rel);
+		
+		// Make room if the tree grew too large
+		if (this._budget.exhausted())
+			this.__prune();
+	}
+	
+	/**
+	 * Returns the number of call tree nodes which were merged away because
+	 * the memory budget was exceeded.
+	 *
+	 * @return The number of pruned nodes.
+	 * @since 2026/10/19
+	 */
+	public final long prunedNodes()
+	{
+		return this._budget.prunedNodeCount();
+	}
+	
+	/**
+	 * Returns the number of samples which were merged together because the
+	 * memory budget was exceeded.
+	 *
+	 * @return The number of pruned samples.
+	 * @since 2026/10/19
+	 */
+	public final long prunedSamples()
+	{
+		return this._budget.prunedCount();
+	}
+	
+	/**
+	 * Reads the actual CPU time used by every tracked thread, this should be
+	 * called once more after polling has stopped so that time used since the
+	 * last sample is included.
+	 *
+	 * @since 2026/10/19
+	 */
+	public final void readCpuTimes()
+	{
+		for (TrackedThread thread : this.threads())
+			thread.readCpuTime();
 	}
 	
 	/**
@@ -78,5 +147,62 @@ public final class Tracker
 			return values.<TrackedThread>toArray(new TrackedThread[values.size()]);
 		}
 	}
+	
+	/**
+	 * Prunes the coldest subtrees of every thread so that new branches have
+	 * room to be tracked.
+	 *
+	 * @since 2026/10/19
+	 */
+	private final void __prune()
+	{
+		TrackedThread[] threads = this.threads();
+		
+		IntStream.Builder builder = IntStream.builder();
+		for (TrackedThread thread : threads)
+			thread.__weights(builder);
+		int[] weights = builder.build().sorted().toArray();
+		int n = weights.length;
+		if (n == 0)
+			return;
+		
+		// Free roughly a quarter of the tree, but never the hottest nodes
+		int threshold = Math.min(weights[n >>> 2], weights[n - 1] - 1);
+		
+		int removed = 0;
+		for (TrackedThread thread : threads)
+			removed += thread.__prune(threshold);
+		this._budget.releaseNodes(removed);
+	}
+	
+	/**
+	 * Returns the tracked thread for the given thread, creating it if it
+	 * has not been tracked yet.
+	 *
+	 * @param __thread The thread to get.
+	 * @return The tracked thread.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private final TrackedThread __thread(Thread __thread)
+		throws NullPointerException
+	{
+		if (__thread == null)
+			throw new NullPointerException();
+		
+		TrackedThread stat;
+		
+		// In the future recording traces could be done in multiple threads
+		Map<Thread, TrackedThread> threads = this._threads;
+		synchronized (threads)
+		{
+			stat = threads.get(__thread);
+			if (stat == null)
+				threads.put(__thread, (stat = new TrackedThread(__thread,
+					threads.size(), this.methods, this._budget)));
+		}
+		
+		return stat;
+	}
 }
 
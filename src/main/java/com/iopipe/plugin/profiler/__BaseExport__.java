@@ -80,6 +80,22 @@ abstract class __BaseExport__
 	 */
 	public final void run(OutputStream __out)
 		throws IOException, NullPointerException
+	{
+		this.run(__out, null);
+	}
+	
+	/**
+	 * Exports the snapshot to the given output stream.
+	 *
+	 * @param __out The stream to write to.
+	 * @param __c The compression to use for the snapshot data, if this is
+	 * {@code null} then the default compression level is used.
+	 * @throws IOException On write errors.
+	 * @throws NullPointerException If no output stream was specified.
+	 * @since 2026/10/19
+	 */
+	public final void run(OutputStream __out, __Compression__ __c)
+		throws IOException, NullPointerException
 	{
 		if (__out == null)
 			throw new NullPointerException();
@@ -97,7 +113,8 @@ abstract class __BaseExport__
 		byte[] databuf;
 		try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
 			DeflaterOutputStream defl = new DeflaterOutputStream(baos,
-				new Deflater(COMPRESSION_LEVEL));
+				(__c != null ? __c.newDeflater() :
+				new Deflater(COMPRESSION_LEVEL)));
 			DataOutputStream xdflos = new DataOutputStream(defl))
 		{
 			// Write sub-data
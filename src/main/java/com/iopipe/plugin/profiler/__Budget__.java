@@ -0,0 +1,160 @@
+package com.iopipe.plugin.profiler;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This keeps track of the approximate amount of memory which the profiler
+ * uses to store the call tree and methods, so that the tree does not grow
+ * without bound.
+ *
+ * @since 2026/10/19
+ */
+final class __Budget__
+{
+	/** The approximate number of bytes a single tree node uses. */
+	public static final int NODE_COST =
+		256;
+	
+	/** The approximate number of bytes a single method or class uses. */
+	public static final int METHOD_COST =
+		192;
+	
+	/** The budget in bytes, zero or negative means no limit. */
+	protected final long limit;
+	
+	/** The number of bytes which are used. */
+	private final AtomicLong _used =
+		new AtomicLong();
+	
+	/** The number of samples which were pruned. */
+	private final AtomicLong _pruned =
+		new AtomicLong();
+	
+	/** The number of tree nodes which were merged away. */
+	private final AtomicLong _prunednodes =
+		new AtomicLong();
+	
+	/** Set when a reservation failed, so the tree should be pruned. */
+	private final AtomicBoolean _exhausted =
+		new AtomicBoolean();
+	
+	/**
+	 * Initializes the budget.
+	 *
+	 * @param __l The limit in bytes, if zero or negative then there is no
+	 * limit.
+	 * @since 2026/10/19
+	 */
+	__Budget__(long __l)
+	{
+		this.limit = __l;
+	}
+	
+	/**
+	 * Checks whether a reservation has failed since the last time this was
+	 * called, this is used to determine when the tree should be pruned.
+	 *
+	 * @return If the budget was exhausted.
+	 * @since 2026/10/19
+	 */
+	public final boolean exhausted()
+	{
+		return this._exhausted.getAndSet(false);
+	}
+	
+	/**
+	 * Counts a sample which was pruned.
+	 *
+	 * @since 2026/10/19
+	 */
+	public final void pruned()
+	{
+		this._pruned.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the number of samples which were pruned.
+	 *
+	 * @return The number of pruned samples.
+	 * @since 2026/10/19
+	 */
+	public final long prunedCount()
+	{
+		return this._pruned.get();
+	}
+	
+	/**
+	 * Returns the number of tree nodes which were merged away.
+	 *
+	 * @return The number of pruned nodes.
+	 * @since 2026/10/19
+	 */
+	public final long prunedNodeCount()
+	{
+		return this._prunednodes.get();
+	}
+	
+	/**
+	 * Releases the given number of tree nodes which were merged away.
+	 *
+	 * @param __n The number of nodes.
+	 * @since 2026/10/19
+	 */
+	public final void releaseNodes(int __n)
+	{
+		if (__n <= 0)
+			return;
+		
+		this._prunednodes.addAndGet(__n);
+		this._used.addAndGet(-(long)__n * NODE_COST);
+	}
+	
+	/**
+	 * Attempts to reserve the given number of bytes.
+	 *
+	 * @param __c The number of bytes to reserve.
+	 * @return If the bytes were reserved, if this is {@code false} then
+	 * the budget has been exceeded.
+	 * @since 2026/10/19
+	 */
+	public final boolean reserve(int __c)
+	{
+		AtomicLong used = this._used;
+		
+		// Not limited, but still count usage
+		long limit = this.limit;
+		if (limit <= 0)
+		{
+			used.addAndGet(__c);
+			return true;
+		}
+		
+		for (;;)
+		{
+			long was = used.get(),
+				now = was + __c;
+			
+			// Would exceed the budget
+			if (now > limit)
+			{
+				this._exhausted.set(true);
+				return false;
+			}
+			
+			if (used.compareAndSet(was, now))
+				return true;
+		}
+	}
+	
+	/**
+	 * Returns the number of bytes which are used.
+	 *
+	 * @return The used bytes.
+	 * @since 2026/10/19
+	 */
+	public final long used()
+	{
+		return this._used.get();
+	}
+}
@@ -0,0 +1,148 @@
+package com.iopipe.plugin.profiler;
+
+import java.util.zip.Deflater;
+
+/**
+ * This represents the compression method which is used for data that is
+ * placed within snapshots and the archive which contains them.
+ *
+ * @since 2026/10/19
+ */
+enum __Compression__
+{
+	/** Data is stored without any compression. */
+	STORED(Deflater.NO_COMPRESSION, Deflater.DEFAULT_STRATEGY),
+	
+	/** Huffman coding only, very fast but has a lower ratio. */
+	HUFFMAN(Deflater.BEST_SPEED, Deflater.HUFFMAN_ONLY),
+	
+	/** Fastest deflate level. */
+	FAST(Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY),
+	
+	/** Balanced between speed and size. */
+	BALANCED(3, Deflater.DEFAULT_STRATEGY),
+	
+	/** Smallest output, but is the slowest. */
+	SMALLEST(Deflater.BEST_COMPRESSION, Deflater.DEFAULT_STRATEGY),
+	
+	/** End. */
+	;
+	
+	/** Data smaller than this many bytes is always stored. */
+	public static final int STORE_THRESHOLD =
+		512;
+	
+	/** Data larger than this will only be quickly compressed. */
+	public static final int LARGE_THRESHOLD =
+		4_194_304;
+	
+	/** If there are this many milliseconds remaining use Huffman only. */
+	public static final int HUFFMAN_TIME_THRESHOLD =
+		500;
+	
+	/** If there are this many milliseconds remaining use fast compression. */
+	public static final int FAST_TIME_THRESHOLD =
+		2_000;
+	
+	/** The deflate level. */
+	public final int level;
+	
+	/** The deflate strategy. */
+	public final int strategy;
+	
+	/**
+	 * Initializes the compression method.
+	 *
+	 * @param __l The deflate level.
+	 * @param __s The deflate strategy.
+	 * @since 2026/10/19
+	 */
+	private __Compression__(int __l, int __s)
+	{
+		this.level = __l;
+		this.strategy = __s;
+	}
+	
+	/**
+	 * Is this stored without any compression?
+	 *
+	 * @return If this is stored.
+	 * @since 2026/10/19
+	 */
+	public final boolean isStored()
+	{
+		return this == STORED;
+	}
+	
+	/**
+	 * Creates a new deflater which uses this compression method.
+	 *
+	 * @return A new deflater.
+	 * @since 2026/10/19
+	 */
+	public final Deflater newDeflater()
+	{
+		Deflater rv = new Deflater(this.level);
+		rv.setStrategy(this.strategy);
+		return rv;
+	}
+	
+	/**
+	 * Chooses the compression method to use based on the size of the data
+	 * and the amount of time which remains in the execution.
+	 *
+	 * @param __len The length of the data to compress, if this is negative
+	 * then the length is not known.
+	 * @param __rem The number of milliseconds which remain in execution, if
+	 * this is zero or negative then the remaining time is not known.
+	 * @return The compression method to use.
+	 * @since 2026/10/19
+	 */
+	public static final __Compression__ choose(long __len, int __rem)
+	{
+		// Forced to a specific method
+		__Compression__ forced = ProfilerExecution.COMPRESSION;
+		if (forced != null)
+			return forced;
+		
+		// Not worth compressing tiny amounts of data
+		if (__len >= 0 && __len < STORE_THRESHOLD)
+			return STORED;
+		
+		// Very close to the end of execution, so the upload must happen
+		// as soon as possible
+		if (__rem > 0)
+		{
+			if (__rem < HUFFMAN_TIME_THRESHOLD)
+				return HUFFMAN;
+			else if (__rem < FAST_TIME_THRESHOLD)
+				return FAST;
+		}
+		
+		// Large data will take awhile to compress
+		if (__len > LARGE_THRESHOLD)
+			return FAST;
+		
+		return BALANCED;
+	}
+	
+	/**
+	 * Returns the compression method for the given name.
+	 *
+	 * @param __s The name of the method.
+	 * @return The compression method or {@code null} if it should be
+	 * automatically determined or is not valid.
+	 * @since 2026/10/19
+	 */
+	public static final __Compression__ of(String __s)
+	{
+		if (__s == null)
+			return null;
+		
+		for (__Compression__ c : __Compression__.values())
+			if (c.name().equalsIgnoreCase(__s.trim()))
+				return c;
+		
+		return null;
+	}
+}
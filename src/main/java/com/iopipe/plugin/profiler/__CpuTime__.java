@@ -0,0 +1,107 @@
+package com.iopipe.plugin.profiler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.pmw.tinylog.Logger;
+
+/**
+ * This is used to read the actual CPU time which threads have used.
+ *
+ * @since 2026/10/19
+ */
+final class __CpuTime__
+{
+	/** The bean to read thread times from, null if not supported. */
+	static final ThreadMXBean _BEAN;
+	
+	/**
+	 * Determines if CPU time is supported.
+	 *
+	 * @since 2026/10/19
+	 */
+	static
+	{
+		ThreadMXBean bean = null;
+		if (ProfilerExecution.CPU_TIME)
+			try
+			{
+				bean = ManagementFactory.getThreadMXBean();
+				
+				// CPU time must be supported and enabled
+				if (!bean.isThreadCpuTimeSupported())
+					bean = null;
+				else if (!bean.isThreadCpuTimeEnabled())
+					bean.setThreadCpuTimeEnabled(true);
+			}
+			catch (SecurityException|UnsupportedOperationException e)
+			{
+				Logger.debug(e, "Thread CPU time is not supported.");
+				
+				bean = null;
+			}
+		
+		_BEAN = bean;
+	}
+	
+	/**
+	 * Not used.
+	 *
+	 * @since 2026/10/19
+	 */
+	private __CpuTime__()
+	{
+	}
+	
+	/**
+	 * Reads the CPU time used by the given thread.
+	 *
+	 * @param __t The thread to read.
+	 * @return The CPU time in nanoseconds, or a negative value if it is not
+	 * known.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public static final long cpuTime(Thread __t)
+		throws NullPointerException
+	{
+		if (__t == null)
+			throw new NullPointerException();
+		
+		ThreadMXBean bean = _BEAN;
+		if (bean == null)
+			return -1;
+		return bean.getThreadCpuTime(__t.getId());
+	}
+	
+	/**
+	 * Is measurement of CPU time supported?
+	 *
+	 * @return If CPU time can be measured.
+	 * @since 2026/10/19
+	 */
+	public static final boolean isSupported()
+	{
+		return _BEAN != null;
+	}
+	
+	/**
+	 * Reads the user time used by the given thread.
+	 *
+	 * @param __t The thread to read.
+	 * @return The user time in nanoseconds, or a negative value if it is not
+	 * known.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public static final long userTime(Thread __t)
+		throws NullPointerException
+	{
+		if (__t == null)
+			throw new NullPointerException();
+		
+		ThreadMXBean bean = _BEAN;
+		if (bean == null)
+			return -1;
+		return bean.getThreadUserTime(__t.getId());
+	}
+}
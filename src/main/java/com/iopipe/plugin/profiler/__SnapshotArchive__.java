@@ -0,0 +1,176 @@
+package com.iopipe.plugin.profiler;
+
+import com.iopipe.IOpipeExecution;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.pmw.tinylog.Logger;
+
+/**
+ * This is the ZIP archive which contains the snapshot data, each entry may
+ * be written with a different compression method.
+ *
+ * @since 2026/10/19
+ */
+final class __SnapshotArchive__
+	extends ZipOutputStream
+{
+	/** Total number of uncompressed bytes. */
+	private long _rawbytes;
+	
+	/** Total number of bytes after compression. */
+	private long _packedbytes;
+	
+	/** Total time spent compressing. */
+	private long _nanos;
+	
+	/**
+	 * Initializes the archive.
+	 *
+	 * @param __out The stream to write to.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	__SnapshotArchive__(OutputStream __out)
+		throws NullPointerException
+	{
+		super(__out);
+		
+		if (__out == null)
+			throw new NullPointerException();
+	}
+	
+	/**
+	 * Adds a single entry to the archive.
+	 *
+	 * @param __name The name of the entry.
+	 * @param __data The data for the entry.
+	 * @param __c The compression method to use.
+	 * @throws IOException On write errors.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final void add(String __name, byte[] __data, __Compression__ __c)
+		throws IOException, NullPointerException
+	{
+		if (__name == null || __data == null || __c == null)
+			throw new NullPointerException();
+		
+		long start = System.nanoTime();
+		ZipEntry entry = new ZipEntry(__name);
+		
+		// Stored entries do not go through the deflater at all, but the
+		// size and CRC must be known before the entry is written
+		int len = __data.length;
+		if (__c.isStored())
+		{
+			CRC32 crc = new CRC32();
+			crc.update(__data, 0, len);
+			
+			entry.setMethod(ZipEntry.STORED);
+			entry.setSize(len);
+			entry.setCompressedSize(len);
+			entry.setCrc(crc.getValue());
+		}
+		
+		// Use the given level and strategy for the deflater
+		else
+		{
+			entry.setMethod(ZipEntry.DEFLATED);
+			this.setLevel(__c.level);
+			this.def.setStrategy(__c.strategy);
+		}
+		
+		// Write entry data
+		this.putNextEntry(entry);
+		this.write(__data, 0, len);
+		this.closeEntry();
+		
+		// Record statistics for this entry
+		long packed = entry.getCompressedSize(),
+			nanos = System.nanoTime() - start;
+		this._rawbytes += len;
+		this._packedbytes += packed;
+		this._nanos += nanos;
+		
+		Logger.debug("Profiler entry {} used {}: {} -> {} bytes " +
+			"(ratio {}, {} MiB/s).", () -> __name, () -> __c, () -> len,
+			() -> packed,
+			() -> String.format("%.3f", __SnapshotArchive__.__ratio(
+				len, packed)),
+			() -> String.format("%.2f", __SnapshotArchive__.__throughput(
+				len, nanos)));
+	}
+	
+	/**
+	 * Reports the statistics for the entire archive, these are logged and
+	 * are also added to the execution as debug metrics.
+	 *
+	 * @param __e The execution to add metrics to.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final void reportStatistics(IOpipeExecution __e)
+		throws NullPointerException
+	{
+		if (__e == null)
+			throw new NullPointerException();
+		
+		long raw = this._rawbytes,
+			packed = this._packedbytes,
+			nanos = this._nanos;
+		
+		Logger.debug("Profiler archive: {} -> {} bytes " +
+			"(ratio {}, {} MiB/s, {} ms).", () -> raw, () -> packed,
+			() -> String.format("%.3f", __SnapshotArchive__.__ratio(
+				raw, packed)),
+			() -> String.format("%.2f", __SnapshotArchive__.__throughput(
+				raw, nanos)),
+			() -> nanos / 1_000_000L);
+		
+		// Metrics are integers so the ratio is kept to three places and
+		// the throughput is in KiB
+		__e.customMetric("@iopipe/debug.profilerRawBytes", raw);
+		__e.customMetric("@iopipe/debug.profilerCompressedBytes", packed);
+		__e.customMetric("@iopipe/debug.profilerCompressionTime",
+			nanos / 1_000_000L);
+		__e.customMetric("@iopipe/debug.profilerCompressionRatio",
+			Math.round(__SnapshotArchive__.__ratio(raw, packed) * 1000.0D));
+		__e.customMetric("@iopipe/debug.profilerCompressionThroughput",
+			Math.round(__SnapshotArchive__.__throughput(raw, nanos) *
+			1024.0D));
+	}
+	
+	/**
+	 * Calculates the compression ratio.
+	 *
+	 * @param __raw Raw bytes.
+	 * @param __packed Compressed bytes.
+	 * @return The compression ratio.
+	 * @since 2026/10/19
+	 */
+	private static final double __ratio(long __raw, long __packed)
+	{
+		if (__packed <= 0)
+			return 1.0D;
+		return (double)__raw / (double)__packed;
+	}
+	
+	/**
+	 * Calculates the throughput in MiB per second.
+	 *
+	 * @param __raw Raw bytes.
+	 * @param __nanos Time taken in nanoseconds.
+	 * @return The throughput.
+	 * @since 2026/10/19
+	 */
+	private static final double __throughput(long __raw, long __nanos)
+	{
+		if (__nanos <= 0)
+			return 0.0D;
+		return ((double)__raw / 1_048_576.0D) /
+			((double)__nanos / 1_000_000_000.0D);
+	}
+}
@@ -1,8 +1,19 @@
 package com.iopipe.plugin.trace;
 
+import com.iopipe.IOpipeConstants;
 import com.iopipe.IOpipeExecution;
 import com.iopipe.IOpipeMeasurement;
 import com.iopipe.plugin.IOpipePluginExecution;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 
 /**
  * This is the trace plugin which is used to track specific marks and measure
@@ -13,9 +24,147 @@ import com.iopipe.plugin.IOpipePluginExecution;
 public class TraceExecution
 	implements IOpipePluginExecution
 {
+	/** The default number of recorded measurements which are kept. */
+	public static final int DEFAULT_RING_SIZE =
+		1024;
+	
+	/** The number of recorded measurements which are kept. */
+	public static final int RING_SIZE;
+	
+	/** The default maximum number of names which are aggregated. */
+	public static final int DEFAULT_MAX_NAMES =
+		64;
+	
+	/** The default number of spans which are sampled when aggregating. */
+	public static final int DEFAULT_SAMPLE_SIZE =
+		32;
+	
+	/** The default maximum number of spans which are reported. */
+	public static final int DEFAULT_MAX_SPANS =
+		1024;
+	
+	/** Should measurements and spans be aggregated instead of reported? */
+	public static final boolean AGGREGATE;
+	
+	/** The maximum number of names which are aggregated. */
+	public static final int MAX_NAMES;
+	
+	/** The number of spans which are sampled when aggregating. */
+	public static final int SAMPLE_SIZE;
+	
+	/** The maximum number of spans which are reported. */
+	public static final int MAX_SPANS;
+	
 	/** The measurement to record to. */
 	protected final IOpipeMeasurement measurement;
 	
+	/** The ID of the trace. */
+	protected final String traceid;
+	
+	/** The nanosecond time the execution started. */
+	private final long _basens =
+		System.nanoTime();
+	
+	/** The system time the execution started. */
+	private final long _basems =
+		System.currentTimeMillis();
+	
+	/** Recorded measurements. */
+	private final __TraceRing__ _ring =
+		new __TraceRing__(RING_SIZE);
+	
+	/** Aggregated measurements, {@code null} if not aggregating. */
+	private final __TraceAggregate__ _aggregate =
+		(AGGREGATE ? new __TraceAggregate__(MAX_NAMES, SAMPLE_SIZE) : null);
+	
+	/** The current span of each thread. */
+	private final ThreadLocal<TraceSpan> _current =
+		new ThreadLocal<>();
+	
+	/** Spans which have been closed. */
+	private final List<TraceSpan> _spans =
+		new ArrayList<>();
+	
+	/** The number of spans which did not fit, locked on the spans. */
+	private long _droppedspans;
+	
+	/**
+	 * Determines the ring size and aggregation settings.
+	 *
+	 * @since 2026/10/19
+	 */
+	static
+	{
+		int size;
+		try
+		{
+			size = Integer.parseInt(System.getProperty(
+				"com.iopipe.plugin.trace.ringsize",
+				System.getenv("IOPIPE_TRACE_RING_SIZE")), 10);
+		}
+		
+		// Could not parse a valid number
+		catch (NumberFormatException e)
+		{
+			size = DEFAULT_RING_SIZE;
+		}
+		
+		RING_SIZE = Math.max(1, size);
+		
+		AGGREGATE = Boolean.valueOf(System.getProperty(
+			"com.iopipe.plugin.trace.aggregate",
+			Objects.toString(System.getenv("IOPIPE_TRACE_AGGREGATE"),
+			"false")));
+		
+		int maxnames;
+		try
+		{
+			maxnames = Integer.parseInt(System.getProperty(
+				"com.iopipe.plugin.trace.maxnames",
+				System.getenv("IOPIPE_TRACE_MAX_NAMES")), 10);
+		}
+		
+		// Could not parse a valid number
+		catch (NumberFormatException e)
+		{
+			maxnames = DEFAULT_MAX_NAMES;
+		}
+		
+		MAX_NAMES = Math.max(0, maxnames);
+		
+		int samplesize;
+		try
+		{
+			samplesize = Integer.parseInt(System.getProperty(
+				"com.iopipe.plugin.trace.samplesize",
+				System.getenv("IOPIPE_TRACE_SAMPLE_SIZE")), 10);
+		}
+		
+		// Could not parse a valid number
+		catch (NumberFormatException e)
+		{
+			samplesize = DEFAULT_SAMPLE_SIZE;
+		}
+		
+		SAMPLE_SIZE = Math.max(0, samplesize);
+		
+		int maxspans;
+		try
+		{
+			maxspans = Integer.parseInt(System.getProperty(
+				"com.iopipe.plugin.trace.maxspans",
+				System.getenv("IOPIPE_TRACE_MAX_SPANS")), 10);
+		}
+		
+		// Could not parse a valid number
+		catch (NumberFormatException e)
+		{
+			maxspans = DEFAULT_MAX_SPANS;
+		}
+		
+		MAX_SPANS = Math.max(0, maxspans);
+	}
+	
 	/**
 	 * Initializes the trace execution instance.
 	 *
@@ -30,6 +179,73 @@ public class TraceExecution
 			throw new NullPointerException();
 		
 		this.measurement = __m;
+		
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		this.traceid = TraceSpan.__hex(random.nextLong()) +
+			TraceSpan.__hex(random.nextLong());
+	}
+	
+	/**
+	 * Returns the current span of the current thread.
+	 *
+	 * @return The current span or {@code null} if there is none.
+	 * @since 2026/10/19
+	 */
+	public final TraceSpan currentSpan()
+	{
+		return this._current.get();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public JsonObject extraReport()
+	{
+		JsonObjectBuilder rv = Json.createObjectBuilder();
+		boolean any = false;
+		
+		// When aggregating only a sample of the spans is reported
+		__TraceAggregate__ aggregate = this._aggregate;
+		Collection<TraceSpan> spans;
+		long droppedspans = 0;
+		if (aggregate != null)
+		{
+			aggregate.report(rv);
+			spans = aggregate.sample();
+			any = true;
+		}
+		else
+			synchronized (this._spans)
+			{
+				spans = new ArrayList<>(this._spans);
+				droppedspans = this._droppedspans;
+			}
+		
+		if (!spans.isEmpty())
+		{
+			rv.add("traceId", this.traceid);
+			rv.add("spans", TraceExecution.__spans(spans));
+			any = true;
+		}
+		
+		// Spans which were closed after the limit was reached
+		if (droppedspans > 0)
+		{
+			rv.add("droppedSpans", droppedspans);
+			any = true;
+		}
+		
+		// Recorded measurements which did not fit
+		long dropped = this._ring.dropped();
+		if (dropped > 0)
+		{
+			rv.add("droppedMeasurements", dropped);
+			any = true;
+		}
+		
+		return (any ? rv.build() : null);
 	}
 	
 	/**
@@ -52,7 +268,237 @@ public class TraceExecution
 		if (__name == null)
 			throw new NullPointerException();
 		
+		__TraceAggregate__ aggregate = this._aggregate;
+		if (aggregate != null)
+			return new TraceMeasurement(this.measurement, aggregate, __name);
 		return new TraceMeasurement(true, this.measurement, __name);
 	}
+	
+	/**
+	 * Records a measurement which started at the given time and ends now.
+	 * Unlike {@link #measure(String)} this does not allocate anything and
+	 * only a single measure entry is reported, so this is intended to be used
+	 * within loops. If too many measurements are recorded then the oldest
+	 * ones are dropped and the number dropped is reported.
+	 *
+	 * @param __name The name of the measurement.
+	 * @param __startns The start time from {@link System#nanoTime()}.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final void record(String __name, long __startns)
+		throws NullPointerException
+	{
+		this.record(__name, __startns, System.nanoTime() - __startns);
+	}
+	
+	/**
+	 * Records a measurement with the given start time and duration.
+	 * Unlike {@link #measure(String)} this does not allocate anything and
+	 * only a single measure entry is reported, so this is intended to be used
+	 * within loops. If too many measurements are recorded then the oldest
+	 * ones are dropped and the number dropped is reported.
+	 *
+	 * @param __name The name of the measurement.
+	 * @param __startns The start time from {@link System#nanoTime()}.
+	 * @param __durns The duration in nanoseconds.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final void record(String __name, long __startns, long __durns)
+		throws NullPointerException
+	{
+		__TraceAggregate__ aggregate = this._aggregate;
+		if (aggregate != null)
+			aggregate.measure(__name, __durns);
+		else
+			this._ring.record(__name, __startns, __durns);
+	}
+	
+	/**
+	 * Creates a new span which becomes the current span of the current
+	 * thread, if there is already a current span then the new span will be
+	 * its child. The returned span is {@link AutoCloseable} and is recorded
+	 * when it is closed.
+	 *
+	 * @param __name The name of the span.
+	 * @return The new span.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final TraceSpan span(String __name)
+		throws NullPointerException
+	{
+		return this.span(__name, null);
+	}
+	
+	/**
+	 * Creates a new span which becomes the current span of the current
+	 * thread, if there is already a current span then the new span will be
+	 * its child. The returned span is {@link AutoCloseable} and is recorded
+	 * when it is closed.
+	 *
+	 * @param __name The name of the span.
+	 * @param __attr Optional attributes for the span.
+	 * @return The new span.
+	 * @throws NullPointerException If no name was specified.
+	 * @since 2026/10/19
+	 */
+	public final TraceSpan span(String __name, Map<String, String> __attr)
+		throws NullPointerException
+	{
+		if (__name == null)
+			throw new NullPointerException();
+		
+		ThreadLocal<TraceSpan> current = this._current;
+		TraceSpan parent = current.get(),
+			rv = new TraceSpan(this, parent, parent, __name, __attr);
+		current.set(rv);
+		return rv;
+	}
+	
+	/**
+	 * Returns the ID of the trace.
+	 *
+	 * @return The trace ID.
+	 * @since 2026/10/19
+	 */
+	public final String traceId()
+	{
+		return this.traceid;
+	}
+	
+	/**
+	 * Returns the trace of the current execution.
+	 *
+	 * @return The trace of the current execution or {@code null} if there
+	 * is no execution or the plugin is not enabled.
+	 * @since 2026/10/19
+	 */
+	static TraceExecution __current()
+	{
+		IOpipeExecution exec = IOpipeExecution.currentExecution();
+		if (exec == null)
+			return null;
+		return exec.<TraceExecution>optionalPlugin(TraceExecution.class);
+	}
+	
+	/**
+	 * Creates a new span which is a child of the current span of the current
+	 * thread but does not itself become the current span, this is used for
+	 * spans which are closed by callbacks that might never run.
+	 *
+	 * @param __name The name of the span.
+	 * @return The new span.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final TraceSpan __detachedSpan(String __name)
+		throws NullPointerException
+	{
+		if (__name == null)
+			throw new NullPointerException();
+		
+		return new TraceSpan(this, this._current.get(), null, __name, null);
+	}
+	
+	/**
+	 * Converts the recorded measurements to performance entries.
+	 *
+	 * @since 2026/10/19
+	 */
+	final void __post()
+	{
+		this._ring.flush(this.measurement, this._basens, this._basems);
+	}
+	
+	/**
+	 * Records the closed span and restores the previous span as the current
+	 * span if it is current.
+	 *
+	 * @param __s The span which was closed.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final void __close(TraceSpan __s)
+		throws NullPointerException
+	{
+		if (__s == null)
+			throw new NullPointerException();
+		
+		// Spans closed on other threads do not change the current span
+		ThreadLocal<TraceSpan> current = this._current;
+		if (current.get() == __s)
+		{
+			TraceSpan previous = __s._previous;
+			if (previous == null)
+				current.remove();
+			else
+				current.set(previous);
+		}
+		
+		__TraceAggregate__ aggregate = this._aggregate;
+		if (aggregate != null)
+			aggregate.span(__s);
+		else
+		{
+			// Only the first spans are kept so the report cannot grow
+			// without bound
+			List<TraceSpan> spans = this._spans;
+			synchronized (spans)
+			{
+				if (spans.size() < MAX_SPANS)
+					spans.add(__s);
+				else
+					this._droppedspans++;
+			}
+		}
+	}
+	
+	/**
+	 * Converts the given spans to JSON, the keys are kept short and times
+	 * are in integer microseconds since there may be many spans.
+	 *
+	 * @param __spans The spans to convert.
+	 * @return The array of spans.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static JsonArrayBuilder __spans(Collection<TraceSpan> __spans)
+		throws NullPointerException
+	{
+		if (__spans == null)
+			throw new NullPointerException();
+		
+		JsonArrayBuilder rv = Json.createArrayBuilder();
+		for (TraceSpan span : __spans)
+		{
+			JsonObjectBuilder object = Json.createObjectBuilder();
+			
+			object.add("i", span.spanId());
+			
+			TraceSpan parent = span.parent;
+			if (parent != null)
+				object.add("p", parent.spanId());
+			
+			object.add("n", span.name);
+			object.add("s", (span.startns -
+				IOpipeConstants.LOAD_TIME_NANOS) / 1000L);
+			object.add("d", span.durationNanos() / 1000L);
+			
+			Map<String, String> attributes = span.attributes();
+			if (!attributes.isEmpty())
+			{
+				JsonObjectBuilder attrs = Json.createObjectBuilder();
+				for (Map.Entry<String, String> e : attributes.entrySet())
+					attrs.add(e.getKey(), e.getValue());
+				object.add("a", attrs);
+			}
+			
+			rv.add(object);
+		}
+		
+		return rv;
+	}
 }
 
@@ -0,0 +1,76 @@
+package com.iopipe.plugin.trace;
+
+import java.io.IOException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * This is an interceptor for OkHttp which records a span for every request
+ * which is made during an execution, the span has the host, method, status,
+ * and the number of bytes sent and received if they are known.
+ *
+ * This may be added to a client with
+ * {@link okhttp3.OkHttpClient.Builder#addInterceptor(Interceptor)}, requests
+ * which are not made during an execution are not traced.
+ *
+ * @since 2026/10/19
+ */
+public final class TraceInterceptor
+	implements Interceptor
+{
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public Response intercept(Interceptor.Chain __c)
+		throws IOException
+	{
+		if (__c == null)
+			throw new NullPointerException();
+		
+		// Not in an execution or not tracing
+		Request request = __c.request();
+		TraceExecution trace = TraceExecution.__current();
+		if (trace == null)
+			return __c.proceed(request);
+		
+		String host = request.url().host(),
+			method = request.method();
+		try (TraceSpan span = trace.span(method + " " + host))
+		{
+			span.attribute("host", host);
+			span.attribute("method", method);
+			
+			RequestBody reqbody = request.body();
+			long reqlen = (reqbody == null ? 0 : reqbody.contentLength());
+			if (reqlen >= 0)
+				span.attribute("requestBytes", Long.toString(reqlen));
+			
+			// Record failures so they are visible in the trace
+			Response rv;
+			try
+			{
+				rv = __c.proceed(request);
+			}
+			catch (IOException|RuntimeException e)
+			{
+				span.attribute("error", e.getClass().getName());
+				throw e;
+			}
+			
+			span.attribute("status", Integer.toString(rv.code()));
+			
+			ResponseBody resbody = rv.body();
+			long reslen = (resbody == null ? -1 : resbody.contentLength());
+			if (reslen >= 0)
+				span.attribute("responseBytes", Long.toString(reslen));
+			
+			return rv;
+		}
+	}
+}
+
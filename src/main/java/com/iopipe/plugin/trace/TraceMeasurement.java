@@ -29,6 +29,9 @@ public final class TraceMeasurement
 	/** The start time of this measurement, used to count duration. */
 	protected final long startns;
 	
+	/** Where the measurement is aggregated, may be {@code null}. */
+	private final __TraceAggregate__ _aggregate;
+	
 	/** Has this been closed? */
 	private final AtomicBoolean _closed =
 		new AtomicBoolean();
@@ -52,6 +55,7 @@ public final class TraceMeasurement
 		this.enabled = __enabled;
 		this.measurement = __m;
 		this.name = __name;
+		this._aggregate = null;
 		
 		// Initialize start time
 		long startns = System.nanoTime();
@@ -64,6 +68,30 @@ public final class TraceMeasurement
 				System.currentTimeMillis(), 0));
 	}
 	
+	/**
+	 * Initializes a measurement which is aggregated instead of being added
+	 * as performance entries.
+	 *
+	 * @param __m The measurement of the execution.
+	 * @param __a Where the measurement is aggregated.
+	 * @param __name The name of this trace.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	TraceMeasurement(IOpipeMeasurement __m, __TraceAggregate__ __a,
+		String __name)
+		throws NullPointerException
+	{
+		if (__m == null || __a == null || __name == null)
+			throw new NullPointerException();
+		
+		this.enabled = true;
+		this.measurement = __m;
+		this.name = __name;
+		this._aggregate = __a;
+		this.startns = System.nanoTime();
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 * @since 2018/01/19
@@ -74,6 +102,14 @@ public final class TraceMeasurement
 		if (this.enabled)
 			if (this._closed.compareAndSet(false, true))
 			{
+				// Only the duration is aggregated
+				__TraceAggregate__ aggregate = this._aggregate;
+				if (aggregate != null)
+				{
+					aggregate.measure(this.name,
+						System.nanoTime() - this.startns);
+					return;
+				}
 				
 				// There are two end marks, one for the end mark and the
 				// actual duration but they end at the same time
@@ -5,6 +5,7 @@ import com.iopipe.IOpipeExecution;
 import com.iopipe.IOpipeMeasurement;
 import com.iopipe.plugin.IOpipePlugin;
 import com.iopipe.plugin.IOpipePluginExecution;
+import com.iopipe.plugin.IOpipePluginPostExecutable;
 
 /**
  * This is the trace plugin which is used to track specific marks and measure
@@ -13,7 +14,7 @@ import com.iopipe.plugin.IOpipePluginExecution;
  * @since 2018/01/20
  */
 public class TracePlugin
-	implements IOpipePlugin
+	implements IOpipePlugin, IOpipePluginPostExecutable
 {
 	/**
 	 * {@inheritDoc}
@@ -68,6 +69,20 @@ public class TracePlugin
 		return "trace";
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void postExecute(IOpipePluginExecution __e)
+		throws NullPointerException
+	{
+		if (__e == null)
+			throw new NullPointerException();
+		
+		((TraceExecution)__e).__post();
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 * @since 2018/01/20
@@ -0,0 +1,169 @@
+package com.iopipe.plugin.trace;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.http.HttpResponse;
+import java.util.Objects;
+
+/**
+ * This is a request handler for the AWS SDK which records a span for every
+ * request which is made during an execution, the span has the service,
+ * operation, host, method, status, and the number of bytes sent and received
+ * if they are known.
+ *
+ * This handler is registered globally with the SDK so that every client
+ * is traced without needing to be changed, requests which are not made
+ * during an execution are not traced. The span of a request is kept with
+ * the request and never becomes the current span of the thread, so if the
+ * SDK does not call back after the request later spans are not nested
+ * under it.
+ *
+ * @since 2026/10/19
+ */
+public final class TraceRequestHandler
+	extends RequestHandler2
+{
+	/** Is this handler enabled? */
+	public static final boolean ENABLED =
+		Boolean.valueOf(System.getProperty(
+			"com.iopipe.plugin.trace.awssdk",
+			Objects.toString(System.getenv("IOPIPE_TRACE_AWS_SDK"),
+			"true")));
+	
+	/** The key which stores the span for the request. */
+	private static final HandlerContextKey<TraceSpan> _SPAN =
+		new HandlerContextKey<>("com.iopipe.plugin.trace.TraceSpan");
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void afterError(Request<?> __r, Response<?> __resp,
+		Exception __e)
+	{
+		TraceSpan span = __r.getHandlerContext(_SPAN);
+		if (span == null)
+			return;
+		
+		if (__e != null)
+		{
+			span.attribute("error", __e.getClass().getName());
+			
+			// Service errors still have a status
+			if (__e instanceof AmazonServiceException)
+				span.attribute("status", Integer.toString(
+					((AmazonServiceException)__e).getStatusCode()));
+		}
+		
+		if (__resp != null)
+			TraceRequestHandler.__response(span, __resp.getHttpResponse());
+		
+		TraceRequestHandler.__close(__r, span);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void afterResponse(Request<?> __r, Response<?> __resp)
+	{
+		TraceSpan span = __r.getHandlerContext(_SPAN);
+		if (span == null)
+			return;
+		
+		if (__resp != null)
+		{
+			HttpResponse http = __resp.getHttpResponse();
+			if (http != null)
+				span.attribute("status", Integer.toString(
+					http.getStatusCode()));
+			TraceRequestHandler.__response(span, http);
+		}
+		
+		TraceRequestHandler.__close(__r, span);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void beforeRequest(Request<?> __r)
+	{
+		if (!ENABLED)
+			return;
+		
+		// Not in an execution or not tracing
+		TraceExecution trace = TraceExecution.__current();
+		if (trace == null)
+			return;
+		
+		// Operations are named after their request class
+		AmazonWebServiceRequest original = __r.getOriginalRequest();
+		String service = __r.getServiceName(),
+			operation = (original == null ? "Unknown" :
+				original.getClass().getSimpleName());
+		if (operation.endsWith("Request"))
+			operation = operation.substring(0, operation.length() - 7);
+		
+		TraceSpan span = trace.__detachedSpan(service + "." + operation);
+		span.attribute("service", service);
+		span.attribute("operation", operation);
+		span.attribute("host", __r.getEndpoint().getHost());
+		span.attribute("method", __r.getHttpMethod().name());
+		
+		__r.addHandlerContext(_SPAN, span);
+	}
+	
+	/**
+	 * Closes the span and records the number of bytes which were sent.
+	 *
+	 * @param __r The request.
+	 * @param __s The span to close.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static void __close(Request<?> __r, TraceSpan __s)
+		throws NullPointerException
+	{
+		if (__r == null || __s == null)
+			throw new NullPointerException();
+		
+		// The length is only known after the request was sent
+		String reqlen = __r.getHeaders().get("Content-Length");
+		if (reqlen != null)
+			__s.attribute("requestBytes", reqlen);
+		
+		__r.addHandlerContext(_SPAN, null);
+		__s.close();
+	}
+	
+	/**
+	 * Records the number of bytes which were received.
+	 *
+	 * @param __s The span to record to.
+	 * @param __http The response, may be {@code null}.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private static void __response(TraceSpan __s, HttpResponse __http)
+		throws NullPointerException
+	{
+		if (__s == null)
+			throw new NullPointerException();
+		
+		if (__http == null)
+			return;
+		
+		String reslen = __http.getHeaders().get("Content-Length");
+		if (reslen != null)
+			__s.attribute("responseBytes", reslen);
+	}
+}
+
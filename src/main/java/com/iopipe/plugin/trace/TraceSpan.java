@@ -0,0 +1,281 @@
+package com.iopipe.plugin.trace;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This represents a single span of time within a trace, spans may be nested
+ * within other spans so that it is known which operations caused which other
+ * operations to occur. This is intended to be used with try-with-resources.
+ *
+ * When a span is created it becomes the current span of the thread which
+ * created it, any spans which are created afterwards on that thread become
+ * children of it. When the span is closed the previous span becomes current
+ * again. Spans which are to be nested across threads may be created with
+ * {@link #child(String, Map)}.
+ *
+ * The span may only be closed once.
+ *
+ * @since 2026/10/19
+ */
+public final class TraceSpan
+	implements AutoCloseable
+{
+	/** The execution this span is recorded in, {@code null} if disabled. */
+	protected final TraceExecution execution;
+	
+	/** The parent of this span, may be {@code null}. */
+	protected final TraceSpan parent;
+	
+	/** The ID of this span. */
+	protected final long id;
+	
+	/** The name of this span. */
+	protected final String name;
+	
+	/** The start time of this span. */
+	protected final long startns;
+	
+	/** The span which was current before this one was created. */
+	final TraceSpan _previous;
+	
+	/** Attributes of this span, locked and may be {@code null}. */
+	private Map<String, String> _attributes;
+	
+	/** Has this been closed? */
+	private final AtomicBoolean _closed =
+		new AtomicBoolean();
+	
+	/** The duration of this span, negative if it has not been closed. */
+	private volatile long _durationns =
+		-1;
+	
+	/**
+	 * Initializes the span.
+	 *
+	 * @param __e The execution to record to, if {@code null} then the span
+	 * is not recorded.
+	 * @param __parent The parent span, may be {@code null}.
+	 * @param __prev The span which was current on the creating thread.
+	 * @param __name The name of the span.
+	 * @param __attr The attributes of the span, may be {@code null}.
+	 * @throws NullPointerException If no name was specified.
+	 * @since 2026/10/19
+	 */
+	TraceSpan(TraceExecution __e, TraceSpan __parent, TraceSpan __prev,
+		String __name, Map<String, String> __attr)
+		throws NullPointerException
+	{
+		if (__name == null)
+			throw new NullPointerException();
+		
+		this.execution = __e;
+		this.parent = __parent;
+		this._previous = __prev;
+		this.name = __name;
+		this._attributes = (__attr == null || __attr.isEmpty() ? null :
+			new LinkedHashMap<>(__attr));
+		
+		// Zero is used to indicate no span
+		long id;
+		do
+		{
+			id = ThreadLocalRandom.current().nextLong();
+		} while (id == 0);
+		this.id = id;
+		
+		this.startns = System.nanoTime();
+	}
+	
+	/**
+	 * Sets an attribute of this span, this is used for details which are
+	 * only known after the span has started.
+	 *
+	 * @param __k The attribute key.
+	 * @param __v The attribute value.
+	 * @return {@code this}.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public final TraceSpan attribute(String __k, String __v)
+		throws NullPointerException
+	{
+		if (__k == null || __v == null)
+			throw new NullPointerException();
+		
+		synchronized (this)
+		{
+			Map<String, String> attributes = this._attributes;
+			if (attributes == null)
+				this._attributes = (attributes = new LinkedHashMap<>());
+			attributes.put(__k, __v);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Returns the attributes of this span.
+	 *
+	 * @return A copy of the span attributes.
+	 * @since 2026/10/19
+	 */
+	public final Map<String, String> attributes()
+	{
+		synchronized (this)
+		{
+			Map<String, String> attributes = this._attributes;
+			if (attributes == null)
+				return Collections.<String, String>emptyMap();
+			return Collections.<String, String>unmodifiableMap(
+				new LinkedHashMap<>(attributes));
+		}
+	}
+	
+	/**
+	 * Creates a span which is a child of this span, this does not change the
+	 * current span of any thread and may be used to continue a trace in
+	 * another thread.
+	 *
+	 * @param __name The name of the span.
+	 * @param __attr Optional attributes for the span.
+	 * @return The child span.
+	 * @throws NullPointerException If no name was specified.
+	 * @since 2026/10/19
+	 */
+	public final TraceSpan child(String __name, Map<String, String> __attr)
+		throws NullPointerException
+	{
+		if (__name == null)
+			throw new NullPointerException();
+		
+		return new TraceSpan(this.execution, this, null, __name, __attr);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void close()
+	{
+		if (this._closed.compareAndSet(false, true))
+		{
+			this._durationns = System.nanoTime() - this.startns;
+			
+			TraceExecution execution = this.execution;
+			if (execution != null)
+				execution.__close(this);
+		}
+	}
+	
+	/**
+	 * Returns the duration of this span.
+	 *
+	 * @return The duration of the span in nanoseconds or a negative value if
+	 * it has not been closed.
+	 * @since 2026/10/19
+	 */
+	public final long durationNanos()
+	{
+		return this._durationns;
+	}
+	
+	/**
+	 * Is this span recorded?
+	 *
+	 * @return If this span is recorded.
+	 * @since 2026/10/19
+	 */
+	public final boolean isEnabled()
+	{
+		return this.execution != null;
+	}
+	
+	/**
+	 * Returns the name of this span.
+	 *
+	 * @return The span name.
+	 * @since 2026/10/19
+	 */
+	public final String name()
+	{
+		return this.name;
+	}
+	
+	/**
+	 * Returns the ID of the parent span.
+	 *
+	 * @return The parent span ID or {@code null} if this is a root span.
+	 * @since 2026/10/19
+	 */
+	public final String parentId()
+	{
+		TraceSpan parent = this.parent;
+		return (parent == null ? null : parent.spanId());
+	}
+	
+	/**
+	 * Returns the ID of this span.
+	 *
+	 * @return The span ID as hexadecimal.
+	 * @since 2026/10/19
+	 */
+	public final String spanId()
+	{
+		return TraceSpan.__hex(this.id);
+	}
+	
+	/**
+	 * Returns the time this span started.
+	 *
+	 * @return The start time in nanoseconds.
+	 * @since 2026/10/19
+	 */
+	public final long startNanos()
+	{
+		return this.startns;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public final String toString()
+	{
+		return String.format("%s[%s<-%s]", this.name, this.spanId(),
+			this.parentId());
+	}
+	
+	/**
+	 * Returns the ID of the trace this span is within.
+	 *
+	 * @return The trace ID, {@code null} if this span is not recorded.
+	 * @since 2026/10/19
+	 */
+	public final String traceId()
+	{
+		TraceExecution execution = this.execution;
+		return (execution == null ? null : execution.traceId());
+	}
+	
+	/**
+	 * Converts the ID to a fixed length hexadecimal string.
+	 *
+	 * @param __v The value to convert.
+	 * @return The hexadecimal string.
+	 * @since 2026/10/19
+	 */
+	static String __hex(long __v)
+	{
+		String rv = Long.toHexString(__v);
+		if (rv.length() < 16)
+			return "0000000000000000".substring(rv.length()) + rv;
+		return rv;
+	}
+}
+
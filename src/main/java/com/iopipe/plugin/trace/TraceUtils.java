@@ -1,6 +1,7 @@
 package com.iopipe.plugin.trace;
 
 import com.iopipe.IOpipeExecution;
+import java.util.Map;
 
 /**
  * This is a convenience class which contains static methods for creating marks
@@ -43,8 +44,78 @@ public final class TraceUtils
 		if (__exec == null || __name == null)
 			throw new NullPointerException();
 		
-		return new TraceMeasurement(__exec.<TraceExecution>optionalPlugin(
-			TraceExecution.class) != null, __exec.measurement(), __name);
+		TraceExecution trace = __exec.<TraceExecution>optionalPlugin(
+			TraceExecution.class);
+		if (trace == null)
+			return new TraceMeasurement(false, __exec.measurement(), __name);
+		return trace.measure(__name);
+	}
+	
+	/**
+	 * Records a measurement which started at the given time and ends now,
+	 * this does not allocate anything and is intended to be used within
+	 * loops. If the plugin is not enabled then nothing is recorded.
+	 *
+	 * @param __exec The single execution state.
+	 * @param __name The name of the measurement.
+	 * @param __startns The start time from {@link System#nanoTime()}.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public static void record(IOpipeExecution __exec, String __name,
+		long __startns)
+		throws NullPointerException
+	{
+		if (__exec == null || __name == null)
+			throw new NullPointerException();
+		
+		TraceExecution trace = __exec.<TraceExecution>optionalPlugin(
+			TraceExecution.class);
+		if (trace != null)
+			trace.record(__name, __startns);
+	}
+	
+	/**
+	 * Creates a new span which becomes the current span of the current
+	 * thread and is recorded when it is closed.
+	 *
+	 * @param __exec The single execution state.
+	 * @param __name The name of the span.
+	 * @return The span, if the plugin is not enabled then the span is not
+	 * recorded.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public static TraceSpan span(IOpipeExecution __exec, String __name)
+		throws NullPointerException
+	{
+		return TraceUtils.span(__exec, __name, null);
+	}
+	
+	/**
+	 * Creates a new span which becomes the current span of the current
+	 * thread and is recorded when it is closed.
+	 *
+	 * @param __exec The single execution state.
+	 * @param __name The name of the span.
+	 * @param __attr Optional attributes for the span.
+	 * @return The span, if the plugin is not enabled then the span is not
+	 * recorded.
+	 * @throws NullPointerException If no execution or name was specified.
+	 * @since 2026/10/19
+	 */
+	public static TraceSpan span(IOpipeExecution __exec, String __name,
+		Map<String, String> __attr)
+		throws NullPointerException
+	{
+		if (__exec == null || __name == null)
+			throw new NullPointerException();
+		
+		TraceExecution trace = __exec.<TraceExecution>optionalPlugin(
+			TraceExecution.class);
+		if (trace == null)
+			return new TraceSpan(null, null, null, __name, __attr);
+		return trace.span(__name, __attr);
 	}
 }
 
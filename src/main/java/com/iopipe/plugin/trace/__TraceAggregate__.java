@@ -0,0 +1,165 @@
+package com.iopipe.plugin.trace;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.json.Json;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * This aggregates measurements and spans into a histogram for each name and
+ * keeps a uniformly random sample of the spans, so the amount of memory
+ * used and the size of the report does not depend on how much is traced.
+ *
+ * @since 2026/10/19
+ */
+final class __TraceAggregate__
+{
+	/** Histograms for each name. */
+	private final Map<String, __TraceHistogram__> _histograms =
+		new LinkedHashMap<>();
+	
+	/** The maximum number of names. */
+	private final int _maxnames;
+	
+	/** The sampled spans. */
+	private final TraceSpan[] _reservoir;
+	
+	/** The number of spans which were seen. */
+	private long _seen;
+	
+	/** Measurements which were dropped because of too many names. */
+	private long _dropped;
+	
+	/**
+	 * Initializes the aggregate.
+	 *
+	 * @param __maxnames The maximum number of names.
+	 * @param __sample The number of spans to sample.
+	 * @throws IllegalArgumentException If either value is negative.
+	 * @since 2026/10/19
+	 */
+	__TraceAggregate__(int __maxnames, int __sample)
+		throws IllegalArgumentException
+	{
+		if (__maxnames < 0 || __sample < 0)
+			throw new IllegalArgumentException("Negative aggregate limits.");
+		
+		this._maxnames = __maxnames;
+		this._reservoir = new TraceSpan[__sample];
+	}
+	
+	/**
+	 * Adds a measurement to the histogram for its name.
+	 *
+	 * @param __name The name of the measurement.
+	 * @param __durns The duration in nanoseconds.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final void measure(String __name, long __durns)
+		throws NullPointerException
+	{
+		if (__name == null)
+			throw new NullPointerException();
+		
+		synchronized (this)
+		{
+			Map<String, __TraceHistogram__> histograms = this._histograms;
+			__TraceHistogram__ histogram = histograms.get(__name);
+			if (histogram == null)
+			{
+				if (histograms.size() >= this._maxnames)
+				{
+					this._dropped++;
+					return;
+				}
+				
+				histograms.put(__name, (histogram = new __TraceHistogram__()));
+			}
+			
+			histogram.add(__durns);
+		}
+	}
+	
+	/**
+	 * Reports the histograms and the number of dropped measurements.
+	 *
+	 * @param __rv The object to report into.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final void report(JsonObjectBuilder __rv)
+		throws NullPointerException
+	{
+		if (__rv == null)
+			throw new NullPointerException();
+		
+		synchronized (this)
+		{
+			JsonObjectBuilder histograms = Json.createObjectBuilder();
+			for (Map.Entry<String, __TraceHistogram__> e :
+				this._histograms.entrySet())
+				histograms.add(e.getKey(), e.getValue().toJson());
+			__rv.add("histograms", histograms);
+			
+			long dropped = this._dropped;
+			if (dropped > 0)
+				__rv.add("droppedNames", dropped);
+			
+			long seen = this._seen;
+			if (seen > 0)
+				__rv.add("totalSpans", seen);
+		}
+	}
+	
+	/**
+	 * Returns the sampled spans.
+	 *
+	 * @return The sampled spans.
+	 * @since 2026/10/19
+	 */
+	final List<TraceSpan> sample()
+	{
+		synchronized (this)
+		{
+			TraceSpan[] reservoir = this._reservoir;
+			return Arrays.<TraceSpan>asList(Arrays.<TraceSpan>copyOf(
+				reservoir, (int)Math.min(this._seen, reservoir.length)));
+		}
+	}
+	
+	/**
+	 * Adds a span to its histogram and possibly to the sample.
+	 *
+	 * @param __s The span to add.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final void span(TraceSpan __s)
+		throws NullPointerException
+	{
+		if (__s == null)
+			throw new NullPointerException();
+		
+		synchronized (this)
+		{
+			this.measure(__s.name, __s.durationNanos());
+			
+			// Every span has the same chance of being in the sample
+			TraceSpan[] reservoir = this._reservoir;
+			long seen = this._seen++;
+			if (seen < reservoir.length)
+				reservoir[(int)seen] = __s;
+			else if (reservoir.length > 0)
+			{
+				long dx = ThreadLocalRandom.current().nextLong(seen + 1);
+				if (dx < reservoir.length)
+					reservoir[(int)dx] = __s;
+			}
+		}
+	}
+}
+
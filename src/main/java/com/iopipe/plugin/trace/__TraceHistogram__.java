@@ -0,0 +1,111 @@
+package com.iopipe.plugin.trace;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+/**
+ * This is a histogram of durations which uses a fixed number of buckets
+ * where each bucket is twice the size of the previous one, so percentiles
+ * are estimated to within a factor of two.
+ *
+ * This class is not thread safe.
+ *
+ * @since 2026/10/19
+ */
+final class __TraceHistogram__
+{
+	/** The number of buckets, one for each bit of a duration. */
+	private static final int _BUCKETS =
+		64;
+	
+	/** The number of durations in each bucket. */
+	private final long[] _buckets =
+		new long[_BUCKETS];
+	
+	/** The number of durations. */
+	private long _count;
+	
+	/** The sum of all durations. */
+	private long _sum;
+	
+	/** The smallest duration. */
+	private long _min =
+		Long.MAX_VALUE;
+	
+	/** The largest duration. */
+	private long _max =
+		Long.MIN_VALUE;
+	
+	/**
+	 * Adds a duration to the histogram.
+	 *
+	 * @param __durns The duration in nanoseconds.
+	 * @since 2026/10/19
+	 */
+	final void add(long __durns)
+	{
+		long durns = Math.max(0, __durns);
+		
+		this._count++;
+		this._sum += durns;
+		if (durns < this._min)
+			this._min = durns;
+		if (durns > this._max)
+			this._max = durns;
+		
+		// Zero goes into the first bucket along with one
+		this._buckets[(durns == 0 ? 0 :
+			63 - Long.numberOfLeadingZeros(durns))]++;
+	}
+	
+	/**
+	 * Estimates the given percentile.
+	 *
+	 * @param __p The percentile, from zero to one.
+	 * @return The estimated duration in nanoseconds.
+	 * @since 2026/10/19
+	 */
+	final long percentile(double __p)
+	{
+		long count = this._count;
+		if (count <= 0)
+			return 0;
+		
+		// Use the upper bound of the bucket which contains the percentile
+		// but never go outside of the actual range
+		long want = Math.max(1, (long)Math.ceil(__p * count)),
+			at = 0;
+		long[] buckets = this._buckets;
+		for (int i = 0; i < _BUCKETS; i++)
+		{
+			at += buckets[i];
+			if (at >= want)
+			{
+				long upper = (i >= 62 ? Long.MAX_VALUE : (2L << i) - 1);
+				return Math.max(this._min, Math.min(this._max, upper));
+			}
+		}
+		
+		return this._max;
+	}
+	
+	/**
+	 * Returns the summary of the histogram, times are in microseconds.
+	 *
+	 * @return The summary of the histogram.
+	 * @since 2026/10/19
+	 */
+	final JsonObject toJson()
+	{
+		return Json.createObjectBuilder().
+			add("count", this._count).
+			add("sum", this._sum / 1000L).
+			add("min", this._min / 1000L).
+			add("max", this._max / 1000L).
+			add("p50", this.percentile(0.50) / 1000L).
+			add("p90", this.percentile(0.90) / 1000L).
+			add("p99", this.percentile(0.99) / 1000L).
+			build();
+	}
+}
+
@@ -0,0 +1,157 @@
+package com.iopipe.plugin.trace;
+
+import com.iopipe.IOpipeConstants;
+import com.iopipe.IOpipeMeasurement;
+import com.iopipe.PerformanceEntry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This is a fixed size ring of measurements which are stored as primitives
+ * so that recording a measurement does not allocate anything. The entries
+ * are only converted to {@link PerformanceEntry} when the execution is
+ * finished, which is also when the names get their prefix.
+ *
+ * Recording does not lock, each measurement claims its slot by advancing an
+ * atomic cursor. If the ring is full then the oldest measurements are
+ * replaced and the number of replaced measurements is counted.
+ *
+ * @since 2026/10/19
+ */
+final class __TraceRing__
+{
+	/** The cursor of the next measurement to record. */
+	private final AtomicLong _cursor =
+		new AtomicLong();
+	
+	/**
+	 * The cursor value plus one of the measurement in each slot, this is
+	 * set after the measurement is written and is zero while it is being
+	 * written.
+	 */
+	private final AtomicLongArray _stamps;
+	
+	/** The name of each measurement. */
+	private final String[] _names;
+	
+	/** The start time of each measurement. */
+	private final long[] _starts;
+	
+	/** The duration of each measurement. */
+	private final long[] _durations;
+	
+	/**
+	 * Initializes the ring.
+	 *
+	 * @param __cap The capacity of the ring.
+	 * @throws IllegalArgumentException If the capacity is not positive.
+	 * @since 2026/10/19
+	 */
+	__TraceRing__(int __cap)
+		throws IllegalArgumentException
+	{
+		if (__cap <= 0)
+			throw new IllegalArgumentException("Invalid ring capacity.");
+		
+		this._stamps = new AtomicLongArray(__cap);
+		this._names = new String[__cap];
+		this._starts = new long[__cap];
+		this._durations = new long[__cap];
+	}
+	
+	/**
+	 * Returns the number of measurements which were dropped because they
+	 * were replaced.
+	 *
+	 * @return The number of dropped measurements.
+	 * @since 2026/10/19
+	 */
+	final long dropped()
+	{
+		long count = this._cursor.get(),
+			cap = this._names.length;
+		return (count > cap ? count - cap : 0);
+	}
+	
+	/**
+	 * Converts all of the measurements in the ring to performance entries,
+	 * measurements which are still being written are skipped.
+	 *
+	 * @param __m The measurement to add entries to.
+	 * @param __basens The nanosecond time which corresponds to the base
+	 * system time.
+	 * @param __basems The system time in milliseconds.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final void flush(IOpipeMeasurement __m, long __basens, long __basems)
+		throws NullPointerException
+	{
+		if (__m == null)
+			throw new NullPointerException();
+		
+		AtomicLongArray stamps = this._stamps;
+		String[] names = this._names;
+		long[] starts = this._starts,
+			durations = this._durations;
+		int cap = names.length;
+		
+		// Names only get their prefix once for each execution
+		Map<String, String> prefixed = new HashMap<>();
+		
+		// Start from the oldest measurement
+		long count = this._cursor.get();
+		for (long seq = Math.max(0, count - cap); seq < count; seq++)
+		{
+			int at = (int)(seq % cap);
+			if (stamps.get(at) != seq + 1)
+				continue;
+			
+			String name = names[at];
+			long start = starts[at],
+				duration = durations[at];
+			
+			// Replaced while it was being read
+			if (stamps.get(at) != seq + 1)
+				continue;
+			
+			String entry = prefixed.get(name);
+			if (entry == null)
+				prefixed.put(name, (entry = "measure:" + name));
+			
+			__m.addPerformanceEntry(new PerformanceEntry(entry, "measure",
+				start - IOpipeConstants.LOAD_TIME_NANOS,
+				__basems + ((start - __basens) / 1_000_000L), duration));
+		}
+	}
+	
+	/**
+	 * Records a measurement.
+	 *
+	 * @param __name The name of the measurement.
+	 * @param __startns The start time in nanoseconds.
+	 * @param __durns The duration in nanoseconds.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	final void record(String __name, long __startns, long __durns)
+		throws NullPointerException
+	{
+		if (__name == null)
+			throw new NullPointerException();
+		
+		long seq = this._cursor.getAndIncrement();
+		AtomicLongArray stamps = this._stamps;
+		int at = (int)(seq % stamps.length());
+		
+		// Mark the slot as being written so it is not read half written
+		stamps.set(at, 0);
+		this._names[at] = __name;
+		this._starts[at] = __startns;
+		this._durations[at] = __durns;
+		stamps.set(at, seq + 1);
+	}
+}
+
@@ -57,6 +57,13 @@ public abstract class Engine
 			__DoLongNameCustomMetric__::new,
 			__DoDiskReportCheck__::new,
 			__DoColdStartAutoLabel__::new,
+			__DoBatchedReports__::new,
+			__DoResilientConnection__::new,
+			__DoReportSpool__::new,
+			__DoLocalForwarding__::new,
+			__DoCompactReport__::new,
+			__DoTruncatedReport__::new,
+			__DoResponseMode__::new,
 			
 			// Event Info
 			(__e) -> new __DoEventInfoPlugin__(__e,
@@ -80,6 +87,24 @@ public abstract class Engine
 			(__e) -> new __DoEventInfoPlugin__(__e,
 				__DoEventInfoPlugin__::makeSNSEvent,
 				new SNSDecoder()),
+			
+			// Event Info (raw streams)
+			(__e) -> new __DoEventInfoPlugin__(__e,
+				"eventinfo_apigateway.json",
+				__DoEventInfoPlugin__::makeAPIGatewayProxyRequestEvent,
+				new APIGatewayDecoder()),
+			(__e) -> new __DoEventInfoPlugin__(__e,
+				"eventinfo_kinesis.json",
+				__DoEventInfoPlugin__::makeKinesisEvent,
+				new KinesisDecoder()),
+			(__e) -> new __DoEventInfoPlugin__(__e,
+				"eventinfo_s3.json",
+				__DoEventInfoPlugin__::makeS3Event,
+				new S3Decoder()),
+			(__e) -> new __DoEventInfoPlugin__(__e,
+				"eventinfo_sns.json",
+				__DoEventInfoPlugin__::makeSNSEvent,
+				new SNSDecoder()),
 		};
 	
 	/** The base name for this engine. */
@@ -172,7 +197,7 @@ public abstract class Engine
 		// Execute service
 		try
 		{
-			sv.<Object>run(new MockContext(__s.fullName()), (__exec) ->
+			__s.execute(sv, new MockContext(__s.fullName()), (__exec) ->
 				{
 					// Body entered, which should always happen no matter
 					// what
@@ -207,7 +232,7 @@ public abstract class Engine
 					}
 				
 					return null;
-				}, __s.input());
+				});
 		}
 		
 		// Ignore the mock exception
@@ -67,8 +67,8 @@ public final class MockConnection
 		if (url.equals(MockEngine.EVENT_URL))
 		{
 			if (MockConnection.VALID_TOKEN.equals(((JsonString)
-				((JsonObject)__r.bodyAsJsonStructure()).get("client_id")).
-				getString()))
+				((JsonObject)__CborDecoder__.bodyAsJsonStructure(__r)).
+				get("client_id")).getString()))
 				return new RemoteResult(202, "text/plain", "Accepted");
 			return new RemoteResult(401, RemoteBody.MIMETYPE_JSON,
 				"{\"message\":\"Invalid client id sent.\"}");
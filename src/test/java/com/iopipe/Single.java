@@ -1,7 +1,9 @@
 package com.iopipe;
 
+import com.amazonaws.services.lambda.runtime.Context;
 import com.iopipe.http.RemoteRequest;
 import com.iopipe.http.RemoteResult;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.json.JsonObject;
 import org.junit.jupiter.api.Assertions;
@@ -165,6 +167,26 @@ public abstract class Single
 		Assertions.assertEquals(__exp, __v.get(), __testName(__v.name()));
 	}
 	
+	/**
+	 * Executes the test body with the service, by default this runs it
+	 * directly with the input of the test.
+	 *
+	 * @param __sv The service to run with.
+	 * @param __c The context to run with.
+	 * @param __f The test body.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public void execute(IOpipeService __sv, Context __c,
+		Function<IOpipeExecution, Object> __f)
+		throws NullPointerException
+	{
+		if (__sv == null || __c == null || __f == null)
+			throw new NullPointerException();
+		
+		__sv.<Object>run(__c, __f, this.input());
+	}
+	
 	/**
 	 * Returns the full name of the test.
 	 *
@@ -74,6 +74,9 @@ public final class StandardPushEvent
 	/** Plugins. */
 	public final Map<String, Plugin> plugins;
 	
+	/** The amount of content which was dropped from the report. */
+	public final Map<String, Integer> truncated;
+	
 	/**
 	 * Intializes the event.
 	 *
@@ -93,6 +96,7 @@ public final class StandardPushEvent
 	 * @param __performanceentries Performance entries measured.
 	 * @param __labels Labels recorded.
 	 * @param __plugins Plugins used.
+	 * @param __truncated Content dropped from the report.
 	 * @since 2018/07/13
 	 */
 	public StandardPushEvent(String __token, String __installmethod,
@@ -101,7 +105,8 @@ public final class StandardPushEvent
 		Errors __errors, boolean __coldstart,
 		Map<String, CustomMetric> __custommetrics,
 		Map<String, PerformanceEntry> __performanceentries,
-		Set<String> __labels, Map<String, Plugin> __plugins)
+		Set<String> __labels, Map<String, Plugin> __plugins,
+		Map<String, Integer> __truncated)
 	{
 		this.token = __token;
 		this.installmethod = __installmethod;
@@ -129,6 +134,9 @@ public final class StandardPushEvent
 		this.plugins = Collections.<String, Plugin>unmodifiableMap(
 			(__plugins == null ? new LinkedHashMap<String, Plugin>() :
 			new LinkedHashMap<>(__plugins)));
+		this.truncated = Collections.<String, Integer>unmodifiableMap(
+			(__truncated == null ? new LinkedHashMap<String, Integer>() :
+			new LinkedHashMap<>(__truncated)));
 	}
 	
 	/**
@@ -194,6 +202,7 @@ public final class StandardPushEvent
 			new LinkedHashMap<>();
 		Set<String> labels = new LinkedHashSet<>();
 		Map<String, Plugin> plugins = new LinkedHashMap<>();
+		Map<String, Integer> truncated = new LinkedHashMap<>();
 		
 		for (Map.Entry<String, JsonValue> e : __data.entrySet())
 		{
@@ -278,6 +287,13 @@ public final class StandardPushEvent
 					}
 					break;
 				
+				case "truncated":
+					for (Map.Entry<String, JsonValue> t :
+						((JsonObject)v).entrySet())
+						truncated.put(t.getKey(),
+							((JsonNumber)t.getValue()).intValue());
+					break;
+				
 					// Unknown
 				default:
 					throw new RuntimeException("Invalid key in event: " + k);
@@ -286,7 +302,8 @@ public final class StandardPushEvent
 		
 		return new StandardPushEvent(token, installmethod, duration, stat,
 			processid, timestamp, timestampend, aws, disk, environment, errors,
-			coldstart, custommetrics, performanceentries, labels, plugins);
+			coldstart, custommetrics, performanceentries, labels, plugins,
+			truncated);
 	}
 	
 	/**
@@ -1300,6 +1317,12 @@ public final class StandardPushEvent
 		/** Uploads. */
 		public final List<String> uploads;
 		
+		/** The trace ID, may be {@code null}. */
+		public final String traceid;
+		
+		/** Trace spans. */
+		public final List<JsonObject> spans;
+		
 		/**
 		 * Initializes the plugin information.
 		 *
@@ -1308,10 +1331,13 @@ public final class StandardPushEvent
 		 * @param __homepage Homepage.
 		 * @param __enabled Is this enabled?
 		 * @param __uploads Uploads.
+		 * @param __traceid The trace ID.
+		 * @param __spans Trace spans.
 		 * @since 2018/07/13
 		 */
 		public Plugin(String __name, String __version, String __homepage,
-			boolean __enabled, List<String> __uploads)
+			boolean __enabled, List<String> __uploads, String __traceid,
+			List<JsonObject> __spans)
 		{
 			this.name = __name;
 			this.version = __version;
@@ -1320,6 +1346,10 @@ public final class StandardPushEvent
 			this.uploads = Collections.<String>unmodifiableList(
 				(__uploads == null ? new ArrayList<String>() :
 				new ArrayList<>(__uploads)));
+			this.traceid = __traceid;
+			this.spans = Collections.<JsonObject>unmodifiableList(
+				(__spans == null ? new ArrayList<JsonObject>() :
+				new ArrayList<>(__spans)));
 		}
 		
 		/**
@@ -1341,6 +1371,8 @@ public final class StandardPushEvent
 			String homepage = null;
 			boolean enabled = false;
 			List<String> uploads = new ArrayList<>();
+			String traceid = null;
+			List<JsonObject> spans = new ArrayList<>();
 			
 			for (Map.Entry<String, JsonValue> e : __data.entrySet())
 			{
@@ -1370,6 +1402,15 @@ public final class StandardPushEvent
 							uploads.add(((JsonString)w).getString());
 						break;
 					
+					case "traceId":
+						traceid = ((JsonString)v).getString();
+						break;
+					
+					case "spans":
+						for (JsonValue w : (JsonArray)v)
+							spans.add((JsonObject)w);
+						break;
+					
 						// Unknown
 					default:
 						throw new RuntimeException(
@@ -1377,7 +1418,8 @@ public final class StandardPushEvent
 				}
 			}
 			
-			return new Plugin(name, version, homepage, enabled, uploads);
+			return new Plugin(name, version, homepage, enabled, uploads,
+				traceid, spans);
 		}
 	}
 	
@@ -1,5 +1,6 @@
 package com.iopipe;
 
+import com.iopipe.http.RemoteBody;
 import com.iopipe.http.RemoteRequest;
 import com.iopipe.http.RequestType;
 import java.util.ArrayList;
@@ -52,7 +53,9 @@ public final class WrappedRequest
 		// Try to decode an event
 		Event event = null;
 		List<Throwable> oops = new ArrayList<>();
-		String body = __r.bodyAsString();
+		String body = (RemoteBody.MIMETYPE_CBOR.equals(__r.mimeType()) ?
+			__CborDecoder__.bodyAsJsonStructure(__r).toString() :
+			__r.bodyAsString());
 		
 		// Some data was PUT
 		if (__t == RequestType.PUT)
@@ -0,0 +1,321 @@
+package com.iopipe;
+
+import com.iopipe.http.RemoteBody;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+
+/**
+ * This decodes compact reports which were written by
+ * {@link __CborGenerator__} back into JSON.
+ *
+ * @since 2026/10/19
+ */
+final class __CborDecoder__
+{
+	/** Marker for the end of an indefinite length item. */
+	private static final Object _BREAK =
+		new Object();
+	
+	/** The data to decode. */
+	private final byte[] _data;
+	
+	/** Strings which may be referenced. */
+	private final List<String> _strings =
+		new ArrayList<>();
+	
+	/** The current position. */
+	private int _at;
+	
+	/**
+	 * Initializes the decoder.
+	 *
+	 * @param __b The data to decode.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	private __CborDecoder__(byte[] __b)
+		throws NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		
+		this._data = __b;
+	}
+	
+	/**
+	 * Decodes the given body, if it is compact it is decoded otherwise it
+	 * is parsed as JSON.
+	 *
+	 * @param __b The body to decode.
+	 * @return The JSON structure of the body.
+	 * @throws JsonException If it could not be decoded.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public static JsonStructure bodyAsJsonStructure(RemoteBody __b)
+		throws JsonException, NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		
+		if (RemoteBody.MIMETYPE_CBOR.equals(__b.mimeType()))
+			return (JsonStructure)__CborDecoder__.decode(__b.body());
+		return __b.bodyAsJsonStructure();
+	}
+	
+	/**
+	 * Decodes the given compact data.
+	 *
+	 * @param __b The data to decode.
+	 * @return The decoded value.
+	 * @throws JsonException If it could not be decoded.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	public static JsonValue decode(byte[] __b)
+		throws JsonException, NullPointerException
+	{
+		if (__b == null)
+			throw new NullPointerException();
+		
+		__CborDecoder__ d = new __CborDecoder__(__b);
+		Object rv = d.__decode();
+		if (!(rv instanceof JsonValue) || d._at != __b.length)
+			throw new JsonException("Not a single value.");
+		return (JsonValue)rv;
+	}
+	
+	/**
+	 * Decodes the next item.
+	 *
+	 * @return The decoded item, a {@link JsonValue} or the break marker.
+	 * @throws JsonException If the item is not valid.
+	 * @since 2026/10/19
+	 */
+	private Object __decode()
+		throws JsonException
+	{
+		int initial = this.__byte();
+		int major = initial >>> 5,
+			info = initial & 0x1F;
+		
+		// Break and simple values
+		if (major == 7)
+			switch (info)
+			{
+				case 20:
+					return JsonValue.FALSE;
+				
+				case 21:
+					return JsonValue.TRUE;
+				
+				case 22:
+					return JsonValue.NULL;
+				
+				case 26:
+					return Json.createValue((double)Float.intBitsToFloat(
+						(int)this.__bytes(4)));
+				
+				case 27:
+					return Json.createValue(Double.longBitsToDouble(
+						this.__bytes(8)));
+				
+				case 31:
+					return _BREAK;
+				
+				default:
+					throw new JsonException("Unknown simple value " + info);
+			}
+		
+		// Containers may have indefinite length
+		if (info == 31)
+			switch (major)
+			{
+				case 4:
+					JsonArrayBuilder array = Json.createArrayBuilder();
+					for (Object v; (v = this.__decode()) != _BREAK;)
+						array.add((JsonValue)v);
+					return array.build();
+				
+				case 5:
+					JsonObjectBuilder object = Json.createObjectBuilder();
+					for (Object k; (k = this.__decode()) != _BREAK;)
+						object.add(((JsonString)k).getString(),
+							(JsonValue)this.__decode());
+					return object.build();
+				
+				default:
+					throw new JsonException("Unsupported indefinite length.");
+			}
+		
+		long arg = this.__argument(info);
+		switch (major)
+		{
+			case 0:
+				return Json.createValue(arg);
+			
+			case 1:
+				return Json.createValue(-1L - arg);
+			
+			case 3:
+				byte[] data = this._data;
+				int at = this._at;
+				String s = new String(data, at, (int)arg,
+					StandardCharsets.UTF_8);
+				this._at = at + (int)arg;
+				
+				// Same rule as the generator
+				List<String> strings = this._strings;
+				if (arg >= __CborGenerator__.__minimumReferenced(
+					strings.size()))
+					strings.add(s);
+				return Json.createValue(s);
+			
+			case 4:
+				JsonArrayBuilder array = Json.createArrayBuilder();
+				for (long i = 0; i < arg; i++)
+					array.add((JsonValue)this.__decode());
+				return array.build();
+			
+			case 6:
+				return this.__tag((int)arg);
+			
+			default:
+				throw new JsonException("Unsupported major type " + major);
+		}
+	}
+	
+	/**
+	 * Reads the argument of an item.
+	 *
+	 * @param __info The additional information.
+	 * @return The argument.
+	 * @throws JsonException If it is not valid.
+	 * @since 2026/10/19
+	 */
+	private long __argument(int __info)
+		throws JsonException
+	{
+		if (__info < 24)
+			return __info;
+		else if (__info <= 27)
+			return this.__bytes(1 << (__info - 24));
+		throw new JsonException("Invalid argument " + __info);
+	}
+	
+	/**
+	 * Reads a single byte.
+	 *
+	 * @return The byte.
+	 * @throws JsonException If there are no more bytes.
+	 * @since 2026/10/19
+	 */
+	private int __byte()
+		throws JsonException
+	{
+		byte[] data = this._data;
+		if (this._at >= data.length)
+			throw new JsonException("Unexpected end of data.");
+		return data[this._at++] & 0xFF;
+	}
+	
+	/**
+	 * Reads multiple bytes as a value, most significant first.
+	 *
+	 * @param __n The number of bytes.
+	 * @return The value.
+	 * @throws JsonException If there are not enough bytes.
+	 * @since 2026/10/19
+	 */
+	private long __bytes(int __n)
+		throws JsonException
+	{
+		long rv = 0;
+		for (int i = 0; i < __n; i++)
+			rv = (rv << 8) | this.__byte();
+		return rv;
+	}
+	
+	/**
+	 * Decodes a tagged item.
+	 *
+	 * @param __tag The tag.
+	 * @return The decoded value.
+	 * @throws JsonException If the tag is not valid.
+	 * @since 2026/10/19
+	 */
+	private JsonValue __tag(int __tag)
+		throws JsonException
+	{
+		switch (__tag)
+		{
+				// Bignums
+			case 2:
+			case 3:
+				int initial = this.__byte();
+				if ((initial >>> 5) != 2)
+					throw new JsonException("Bignum is not a byte string.");
+				int len = (int)this.__argument(initial & 0x1F);
+				byte[] data = new byte[len + 1];
+				System.arraycopy(this._data, this._at, data, 1, len);
+				this._at += len;
+				BigInteger v = new BigInteger(data);
+				return Json.createValue((__tag == 2 ? v : v.not()));
+				
+				// Decimal fraction
+			case 4:
+				if (this.__byte() != 0x82)
+					throw new JsonException("Decimal is not two values.");
+				int exponent = ((Number)this.__number()).intValue();
+				Object mantissa = this.__number();
+				return Json.createValue(new BigDecimal((mantissa instanceof
+					BigInteger ? (BigInteger)mantissa :
+					BigInteger.valueOf((Long)mantissa)), -exponent));
+				
+				// String reference
+			case 25:
+				return Json.createValue(this._strings.get(
+					(int)this.__argument(this.__byte() & 0x1F)));
+				
+				// Namespace, which is only at the start
+			case 256:
+				return (JsonValue)this.__decode();
+			
+			default:
+				throw new JsonException("Unknown tag " + __tag);
+		}
+	}
+	
+	/**
+	 * Decodes an integer which is part of a decimal fraction.
+	 *
+	 * @return The integer, either {@link Long} or {@link BigInteger}.
+	 * @throws JsonException If it is not an integer.
+	 * @since 2026/10/19
+	 */
+	private Object __number()
+		throws JsonException
+	{
+		Object v = this.__decode();
+		if (!(v instanceof JsonNumber))
+			throw new JsonException("Expected a number.");
+		
+		JsonNumber n = (JsonNumber)v;
+		if (n.bigIntegerValue().bitLength() < Long.SIZE)
+			return n.longValue();
+		return n.bigIntegerValue();
+	}
+
+}
+
@@ -0,0 +1,219 @@
+package com.iopipe;
+
+import com.iopipe.http.BatchingConnection;
+import com.iopipe.http.RemoteBody;
+import com.iopipe.http.RemoteConnection;
+import com.iopipe.http.RemoteRequest;
+import com.iopipe.http.RemoteResult;
+import com.iopipe.http.RequestType;
+import java.util.concurrent.CompletableFuture;
+import javax.json.JsonArray;
+
+/**
+ * Tests that reports are held and sent together, that each report gets the
+ * actual result of its batch, and that held reports are only sent when the
+ * connection is flushed if the batch is ready and there is enough time.
+ *
+ * @since 2026/10/19
+ */
+class __DoBatchedReports__
+	extends Single
+{
+	/** Was the function executed? */
+	protected final BooleanValue executedit =
+		new BooleanValue("executedit");
+	
+	/** Got a result from the server okay? */
+	protected final BooleanValue remoterecvokay =
+		new BooleanValue("remoterecvokay");
+	
+	/** Were reports held without a result until the batch was full? */
+	protected final BooleanValue heldreports =
+		new BooleanValue("heldreports");
+	
+	/** The number of requests made by the batching connection. */
+	protected final IntegerValue batchrequests =
+		new IntegerValue("batchrequests");
+	
+	/** The number of reports in the first batch. */
+	protected final IntegerValue batchlength =
+		new IntegerValue("batchlength");
+	
+	/** Were reports which are not ready kept held after a flush? */
+	protected final BooleanValue heldacrossflush =
+		new BooleanValue("heldacrossflush");
+	
+	/** The number of held reports which failed. */
+	protected final IntegerValue heldfailed =
+		new IntegerValue("heldfailed");
+	
+	/** Did the report which sent the failed batch get its result? */
+	protected final BooleanValue inlinefailed =
+		new BooleanValue("inlinefailed");
+	
+	/** Were reports not held after the connection was closed? */
+	protected final BooleanValue closednotheld =
+		new BooleanValue("closednotheld");
+	
+	/** Was a ready batch kept held when there was too little time? */
+	protected final BooleanValue lowtimeheld =
+		new BooleanValue("lowtimeheld");
+	
+	/** Was a batch which was held for too long sent by a flush? */
+	protected final BooleanValue agedflush =
+		new BooleanValue("agedflush");
+	
+	/**
+	 * Constructs the test.
+	 *
+	 * @param __e The owning engine.
+	 * @since 2026/10/19
+	 */
+	__DoBatchedReports__(Engine __e)
+	{
+		super(__e, "batchedreports");
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void end()
+	{
+		super.assertTrue(this.executedit);
+		super.assertTrue(this.remoterecvokay);
+		super.assertTrue(this.heldreports);
+		super.assertEquals(4, this.batchrequests);
+		super.assertEquals(3, this.batchlength);
+		super.assertTrue(this.heldacrossflush);
+		super.assertEquals(4, this.heldfailed);
+		super.assertTrue(this.inlinefailed);
+		super.assertTrue(this.closednotheld);
+		super.assertTrue(this.lowtimeheld);
+		super.assertTrue(this.agedflush);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteRequest(WrappedRequest __r)
+	{
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteResult(WrappedResult __r)
+	{
+		if (__Utils__.isResultOkay(__r.result))
+			this.remoterecvokay.set(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void run(IOpipeExecution __e)
+		throws Throwable
+	{
+		this.executedit.set(true);
+		
+		// The first batch succeeds and the others fail
+		RemoteConnection wrapped = (__t, __r) ->
+		{
+			if (this.batchrequests.incrementAndGet() == 1)
+			{
+				this.batchlength.set(((JsonArray)__r.bodyAsJsonStructure()).
+					size());
+				return new RemoteResult(202, RemoteBody.MIMETYPE_JSON, "");
+			}
+			return new RemoteResult(500, RemoteBody.MIMETYPE_JSON, "");
+		};
+		BatchingConnection connection = new BatchingConnection(wrapped,
+			3, Integer.MAX_VALUE, 60_000L);
+		RemoteRequest report = new RemoteRequest(RemoteBody.MIMETYPE_JSON,
+			"{}");
+		
+		// Nothing is sent until the batch is full
+		CompletableFuture<RemoteResult> a = connection.sendAsync(
+				RequestType.POST, report),
+			b = connection.sendAsync(RequestType.POST, report);
+		if (this.batchrequests.get() == 0 && !a.isDone() && !b.isDone())
+			this.heldreports.set(true);
+		connection.sendAsync(RequestType.POST, report);
+		
+		// The batch is not ready, so it stays held for a later execution
+		CompletableFuture<RemoteResult> c = connection.sendAsync(
+				RequestType.POST, report),
+			d = connection.sendAsync(RequestType.POST, report);
+		connection.flush(60_000L);
+		if (this.batchrequests.get() == 1 && !c.isDone() && !d.isDone())
+			this.heldacrossflush.set(true);
+		
+		// These fill the second batch which fails
+		CompletableFuture<RemoteResult> e = connection.sendAsync(
+				RequestType.POST, report);
+		
+		// The report which sends the batch gets the failure itself
+		CompletableFuture<RemoteResult> f = connection.sendAsync(
+				RequestType.POST, report);
+		RemoteResult result = connection.send(RequestType.POST, report);
+		if (result.code() == 500)
+			this.inlinefailed.set(true);
+		
+		// Each held report has the result of its batch
+		int failed = 0;
+		for (CompletableFuture<RemoteResult> held :
+			new CompletableFuture[]{a, b, c, d, e, f})
+			if (held.isDone() && held.get().code() == 500)
+				failed++;
+		this.heldfailed.set(failed);
+		
+		// Closed connections send reports right away
+		connection.close();
+		if (connection.sendAsync(RequestType.POST, report).get().code() ==
+			500 && this.batchrequests.get() == 4)
+			this.closednotheld.set(true);
+		
+		// Sending a batch takes some time
+		IntegerValue timedrequests = new IntegerValue("timedrequests");
+		RemoteConnection slow = (__t, __r) ->
+		{
+			timedrequests.incrementAndGet();
+			try
+			{
+				Thread.sleep(20);
+			}
+			catch (InterruptedException ex)
+			{
+			}
+			return new RemoteResult(202, RemoteBody.MIMETYPE_JSON, "");
+		};
+		BatchingConnection timed = new BatchingConnection(slow,
+			3, Integer.MAX_VALUE, 50L);
+		
+		// Measures how long a batch takes to send
+		timed.send(RequestType.POST, report);
+		
+		// The report is held long enough to be ready, but there is not
+		// enough time left to send it
+		CompletableFuture<RemoteResult> g = timed.sendAsync(RequestType.POST,
+			report);
+		Thread.sleep(60);
+		timed.flush(1L);
+		if (!g.isDone() && timedrequests.get() == 1)
+			this.lowtimeheld.set(true);
+		
+		// With enough time it is sent
+		timed.flush(60_000L);
+		if (g.isDone() && timedrequests.get() == 2)
+			this.agedflush.set(true);
+	}
+}
+
@@ -0,0 +1,184 @@
+package com.iopipe;
+
+import com.iopipe.http.RemoteBody;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import javax.json.Json;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Tests that reports can be sent in the compact encoding, that they decode
+ * to the same report which would have been sent as JSON and that they are
+ * smaller.
+ *
+ * @since 2026/10/19
+ */
+class __DoCompactReport__
+	extends Single
+{
+	/** Was the function executed? */
+	protected final BooleanValue executedit =
+		new BooleanValue("executedit");
+	
+	/** Got a result from the server okay? */
+	protected final BooleanValue remoterecvokay =
+		new BooleanValue("remoterecvokay");
+	
+	/** Was the report compact? */
+	protected final BooleanValue wascompact =
+		new BooleanValue("wascompact");
+	
+	/** Was the decoded report valid? */
+	protected final BooleanValue decodedreport =
+		new BooleanValue("decodedreport");
+	
+	/** Was the compact report smaller than the JSON one? */
+	protected final BooleanValue wassmaller =
+		new BooleanValue("wassmaller");
+	
+	/** Did the compact encoding decode to the same JSON? */
+	protected final BooleanValue roundtrip =
+		new BooleanValue("roundtrip");
+	
+	/**
+	 * Constructs the test.
+	 *
+	 * @param __e The owning engine.
+	 * @since 2026/10/19
+	 */
+	__DoCompactReport__(Engine __e)
+	{
+		super(__e, "compactreport");
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void end()
+	{
+		super.assertTrue(this.executedit);
+		super.assertTrue(this.remoterecvokay);
+		super.assertTrue(this.wascompact);
+		super.assertTrue(this.decodedreport);
+		super.assertTrue(this.wassmaller);
+		super.assertTrue(this.roundtrip);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void modifyConfig(IOpipeConfigurationBuilder __cb)
+		throws NullPointerException
+	{
+		if (__cb == null)
+			throw new NullPointerException();
+		
+		__cb.setUseCompactReport(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteRequest(WrappedRequest __r)
+	{
+		if (RemoteBody.MIMETYPE_CBOR.equals(__r.request.mimeType()))
+			this.wascompact.set(true);
+		
+		StandardPushEvent event = (StandardPushEvent)__r.event;
+		if (!event.hasError() && event.custommetrics.containsKey("squirrel") &&
+			event.labels.contains("compact") &&
+			event.performanceentries.containsKey("mark"))
+			this.decodedreport.set(true);
+		
+		if (__r.request.body().length <
+			__CborDecoder__.bodyAsJsonStructure(__r.request).toString().
+			length())
+			this.wassmaller.set(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteResult(WrappedResult __r)
+	{
+		if (__Utils__.isResultOkay(__r.result))
+			this.remoterecvokay.set(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void run(IOpipeExecution __e)
+		throws Throwable
+	{
+		this.executedit.set(true);
+		
+		IOpipeMeasurement m = __e.measurement();
+		m.customMetric("squirrel", "Squirrels are cute!");
+		m.customMetric("acorns", 6012716073268438380L);
+		m.addLabel("compact");
+		m.addPerformanceEntry(new PerformanceEntry("mark", "mark",
+			System.nanoTime(), System.currentTimeMillis(), 1234567));
+		
+		// Write the same document with both generators
+		StringWriter json = new StringWriter();
+		ByteArrayOutputStream cbor = new ByteArrayOutputStream();
+		try (JsonGenerator a = Json.createGenerator(json);
+			JsonGenerator b = new __CborGenerator__(cbor))
+		{
+			for (JsonGenerator gen : new JsonGenerator[]{a, b})
+			{
+				gen.writeStartObject();
+				gen.write("string", "Hello \u00e9\u4e16 world!");
+				gen.write("repeat", "Hello \u00e9\u4e16 world!");
+				gen.write("int", -24);
+				gen.write("long", Long.MIN_VALUE);
+				gen.write("double", 1.5D);
+				gen.write("precise", Math.PI);
+				gen.write("tiny", 1.0E-5D);
+				gen.write("big", new BigInteger("-123456789012345678901234"));
+				gen.write("decimal", new BigDecimal("-1234.5678"));
+				gen.write("true", true);
+				gen.write("false", false);
+				gen.writeNull("null");
+				gen.writeStartArray("array");
+				for (int i = 0; i < 300; i++)
+				{
+					gen.writeStartObject();
+					gen.write("name", "entry" + (i % 30));
+					gen.write("value", i * 1000L);
+					gen.writeEnd();
+				}
+				gen.writeEnd();
+				gen.write("extra", Json.createObjectBuilder().
+					add("number", 2.25D).add("list", Json.createArrayBuilder().
+					add("entry1").add(1)).build());
+				gen.writeEnd();
+			}
+		}
+		
+		try (JsonReader r = Json.createReader(new StringReader(
+			json.toString())))
+		{
+			JsonValue decoded = __CborDecoder__.decode(cbor.toByteArray());
+			if (r.read().equals(decoded))
+				this.roundtrip.set(true);
+		}
+	}
+}
+
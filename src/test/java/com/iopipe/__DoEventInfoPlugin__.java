@@ -19,16 +19,23 @@ import com.iopipe.CustomMetric;
 import com.iopipe.http.RemoteRequest;
 import com.iopipe.http.RemoteResult;
 import com.iopipe.IOpipeMeasurement;
+import com.amazonaws.services.lambda.runtime.Context;
 import com.iopipe.plugin.eventinfo.EventInfoDecoder;
+import com.iopipe.plugin.eventinfo.EventInfoDecoders;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.Set;
+import java.util.TreeSet;
 import javax.json.JsonArray;
 import javax.json.JsonNumber;
 import javax.json.JsonObject;
@@ -69,9 +76,31 @@ class __DoEventInfoPlugin__
 	protected final BooleanValue hasslugnameautolabel =
 		new BooleanValue("hasslugnameautolabel");
 	
+	/** Did the method read the entire input stream? */
+	protected final BooleanValue streamintact =
+		new BooleanValue("streamintact");
+	
+	/** Was the stream given to the handler by the stream wrapper? */
+	protected final BooleanValue streamwrapped =
+		new BooleanValue("streamwrapped");
+	
+	/** Did the stream have the same fields as the object? */
+	protected final BooleanValue samefields =
+		new BooleanValue("samefields");
+	
+	/** Were metrics reused from the value slots? */
+	protected final BooleanValue reusedslots =
+		new BooleanValue("reusedslots");
+	
 	/** The decoder that is used. */
 	protected final EventInfoDecoder decoder;
 	
+	/** The resource used for raw stream input, may be {@code null}. */
+	protected final String stream;
+	
+	/** The same event as an object, used to compare with the stream. */
+	protected final Supplier<Object> object;
+	
 	/**
 	 * Constructs the test.
 	 *
@@ -91,6 +120,33 @@ class __DoEventInfoPlugin__
 			throw new NullPointerException();
 		
 		this.decoder = __decoder;
+		this.stream = null;
+		this.object = null;
+	}
+	
+	/**
+	 * Constructs the test which uses raw stream input.
+	 *
+	 * @param __e The owning engine.
+	 * @param __rc The resource to use as input.
+	 * @param __object The same event as an object.
+	 * @param __decoder The decoder for the same kind of event.
+	 * @throws NullPointerException On null arguments.
+	 * @since 2026/10/19
+	 */
+	__DoEventInfoPlugin__(Engine __e, String __rc, Supplier<Object> __object,
+		EventInfoDecoder __decoder)
+		throws NullPointerException
+	{
+		super(__e, "eventinfo-stream-" + __decoder.eventType(),
+			() -> __DoEventInfoPlugin__.class.getResourceAsStream(__rc));
+		
+		if (__rc == null || __object == null || __decoder == null)
+			throw new NullPointerException();
+		
+		this.decoder = __decoder;
+		this.stream = __rc;
+		this.object = __object;
 	}
 	
 	/**
@@ -108,6 +164,63 @@ class __DoEventInfoPlugin__
 		super.assertTrue(this.gotmetrics);
 		super.assertTrue(this.hasautolabel);
 		super.assertTrue(this.hasslugnameautolabel);
+		
+		// The method must still see the entire stream, which went through
+		// the wrapper and was decoded the same as the object
+		if (this.stream != null)
+		{
+			super.assertTrue(this.streamintact);
+			super.assertTrue(this.streamwrapped);
+			super.assertTrue(this.samefields);
+		}
+		else
+			super.assertTrue(this.reusedslots);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void execute(IOpipeService __sv, Context __c,
+		Function<IOpipeExecution, Object> __f)
+		throws NullPointerException
+	{
+		if (__sv == null || __c == null || __f == null)
+			throw new NullPointerException();
+		
+		// Objects are passed directly
+		if (this.stream == null)
+		{
+			super.execute(__sv, __c, __f);
+			return;
+		}
+		
+		// Streams go through the wrapper like they would for a handler
+		SimpleRequestStreamHandlerWrapper wrapper =
+			new SimpleRequestStreamHandlerWrapper()
+			{
+				@Override
+				protected void wrappedHandleRequest(IOpipeExecution __exec,
+					InputStream __in, OutputStream __out)
+				{
+					if (__in instanceof PeekableInputStream &&
+						__in == __exec.input())
+						__DoEventInfoPlugin__.this.streamwrapped.set(true);
+					
+					__f.apply(__exec);
+				}
+			};
+		
+		try
+		{
+			wrapper.__handleRequest(__sv, (InputStream)this.input(),
+				new ByteArrayOutputStream(), __c);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
 	}
 	
 	/**
@@ -155,6 +268,42 @@ class __DoEventInfoPlugin__
 		
 		if (event.labels.contains("@iopipe/" + decoder.slugifiedEventType()))
 			this.hasslugnameautolabel.set(true);
+		
+		// Decoding the same object again should use the same metrics for
+		// values which did not change
+		if (this.stream == null)
+		{
+			EventInfoDecoders ds = new EventInfoDecoders();
+			CustomMetric[] a = ds.decode(this.input()),
+				b = ds.decode(this.input());
+			for (int i = 1, n = Math.min(a.length, b.length); i < n; i++)
+				if (a[i] == b[i])
+					this.reusedslots.set(true);
+		}
+		
+		// Streams must record the same fields as the object, except for
+		// batch statistics which are only calculated for objects
+		Supplier<Object> object = this.object;
+		if (object != null)
+		{
+			String prefix = "@iopipe/event-info." + decoder.eventType() + ".";
+			Set<String> expected = new TreeSet<>(),
+				actual = new TreeSet<>();
+			for (CustomMetric m : EventInfoDecoders.decode(decoder,
+				object.get()))
+				if (m.name().startsWith(prefix) &&
+					!m.name().contains(".batch."))
+					expected.add(m.name());
+			for (String name : event.custommetrics.keySet())
+				if (name.startsWith(prefix))
+					actual.add(name);
+			
+			if (!expected.isEmpty() && expected.equals(actual))
+				this.samefields.set(true);
+			else
+				Logger.debug("Stream fields {} differ from {}.", actual,
+					expected);
+		}
 	}
 	
 	/**
@@ -176,7 +325,14 @@ class __DoEventInfoPlugin__
 	public void run(IOpipeExecution __e)
 		throws Throwable
 	{
-		// This is handled by the plugin, so nothing needs to be done
+		// Decoding is handled by the plugin, but streams must not have been
+		// consumed by it
+		String stream = this.stream;
+		if (stream != null)
+			if (__DoEventInfoPlugin__.__linesFromResource(stream).equals(
+				__DoEventInfoPlugin__.__linesFromStream(
+				(InputStream)__e.input())))
+				this.streamintact.set(true);
 	}
 	
 	/**
@@ -316,8 +472,26 @@ class __DoEventInfoPlugin__
 		if (__rc == null)
 			throw new NullPointerException();
 		
-		try (InputStream in = __DoEventInfoPlugin__.class.getResourceAsStream(
-			__rc);
+		return __DoEventInfoPlugin__.__linesFromStream(
+			__DoEventInfoPlugin__.class.getResourceAsStream(__rc));
+	}
+	
+	/**
+	 * Reads lines from a stream.
+	 *
+	 * @param __in The stream to read.
+	 * @return The lines from the stream.
+	 * @throws NullPointerException On null arguments.
+	 * @throws RuntimeException If it could not be read.
+	 * @since 2026/10/19
+	 */
+	private static String __linesFromStream(InputStream __in)
+		throws NullPointerException, RuntimeException
+	{
+		if (__in == null)
+			throw new NullPointerException();
+		
+		try (InputStream in = __in;
 			InputStreamReader isr = new InputStreamReader(in);
 			BufferedReader br = new BufferedReader(isr))
 		{
@@ -0,0 +1,208 @@
+package com.iopipe;
+
+import com.iopipe.http.LocalConnectionFactory;
+import com.iopipe.http.LocalForwarder;
+import com.iopipe.http.RemoteBody;
+import com.iopipe.http.RemoteConnection;
+import com.iopipe.http.RemoteConnectionFactory;
+import com.iopipe.http.RemoteException;
+import com.iopipe.http.RemoteRequest;
+import com.iopipe.http.RemoteResult;
+import com.iopipe.http.RequestType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tests that requests written to the local directory are sent to their
+ * destinations by the forwarder, and are kept when they cannot be sent. The
+ * token must not be written and requests for another token are not sent,
+ * and only a limited number of destinations may be written to.
+ *
+ * @since 2026/10/19
+ */
+class __DoLocalForwarding__
+	extends Single
+{
+	/** Was the function executed? */
+	protected final BooleanValue executedit =
+		new BooleanValue("executedit");
+	
+	/** Got a result from the server okay? */
+	protected final BooleanValue remoterecvokay =
+		new BooleanValue("remoterecvokay");
+	
+	/** Were the writes accepted? */
+	protected final BooleanValue writesaccepted =
+		new BooleanValue("writesaccepted");
+	
+	/** Were requests kept when they could not be sent? */
+	protected final BooleanValue keptonfailure =
+		new BooleanValue("keptonfailure");
+	
+	/** Were the requests sent to the right destinations? */
+	protected final BooleanValue forwarded =
+		new BooleanValue("forwarded");
+	
+	/** Were requests only sent once? */
+	protected final BooleanValue sentonce =
+		new BooleanValue("sentonce");
+	
+	/** Was the token kept out of the written destinations? */
+	protected final BooleanValue tokennotstored =
+		new BooleanValue("tokennotstored");
+	
+	/** Were too many destinations refused? */
+	protected final BooleanValue destinationsbounded =
+		new BooleanValue("destinationsbounded");
+	
+	/**
+	 * Constructs the test.
+	 *
+	 * @param __e The owning engine.
+	 * @since 2026/10/19
+	 */
+	__DoLocalForwarding__(Engine __e)
+	{
+		super(__e, "localforwarding");
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void end()
+	{
+		super.assertTrue(this.executedit);
+		super.assertTrue(this.remoterecvokay);
+		super.assertTrue(this.writesaccepted);
+		super.assertTrue(this.keptonfailure);
+		super.assertTrue(this.forwarded);
+		super.assertTrue(this.sentonce);
+		super.assertTrue(this.tokennotstored);
+		super.assertTrue(this.destinationsbounded);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteRequest(WrappedRequest __r)
+	{
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteResult(WrappedResult __r)
+	{
+		if (__Utils__.isResultOkay(__r.result))
+			this.remoterecvokay.set(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void run(IOpipeExecution __e)
+		throws Throwable
+	{
+		this.executedit.set(true);
+		
+		Path dir = Files.createTempDirectory("iopipe-local-test");
+		try
+		{
+			// Write requests to two different destinations
+			LocalConnectionFactory local = new LocalConnectionFactory(dir);
+			RemoteConnection event = local.connect("http://localhost/event",
+				"token"),
+				upload = local.connect("http://localhost/upload", null);
+			int accepted = 0;
+			for (int i = 1; i <= 2; i++)
+				if (__Utils__.isResultOkay(event.send(RequestType.POST,
+					new RemoteRequest(RemoteBody.MIMETYPE_JSON,
+					"{\"n\":" + i + "}"))))
+					accepted++;
+			if (__Utils__.isResultOkay(upload.send(RequestType.PUT,
+				new RemoteRequest("", "snapshot"))))
+				accepted++;
+			if (accepted == 3)
+				this.writesaccepted.set(true);
+			
+			// Nothing is lost when the destination is failing
+			List<String> sent = new ArrayList<>();
+			boolean[] failing = new boolean[]{true};
+			RemoteConnectionFactory remote = (__url, __auth) ->
+				(__t, __r) ->
+				{
+					if (failing[0])
+						return new RemoteResult(503, RemoteBody.MIMETYPE_JSON,
+							"");
+					
+					sent.add(__t + " " + __url + " " + __auth + " " +
+						__r.bodyAsString());
+					return new RemoteResult(202, RemoteBody.MIMETYPE_JSON, "");
+				};
+			LocalForwarder forwarder = new LocalForwarder(dir, remote,
+				"token");
+			if (forwarder.forward() == 0)
+				this.keptonfailure.set(true);
+			
+			// Then everything for the token is sent once it recovers, the
+			// upload was written without a token so it is not sent
+			failing[0] = false;
+			int count = forwarder.forward();
+			sent.sort(null);
+			if (count == 2 && sent.equals(Arrays.asList(
+				"POST http://localhost/event token {\"n\":1}",
+				"POST http://localhost/event token {\"n\":2}")))
+				this.forwarded.set(true);
+			
+			if (forwarder.forward() == 0)
+				this.sentonce.set(true);
+			
+			// Only the URL is written
+			boolean tokenfree = true;
+			try (Stream<Path> s = Files.walk(dir))
+			{
+				for (Path p : (Iterable<Path>)s::iterator)
+					if (p.getFileName().toString().endsWith(".properties"))
+						tokenfree &= !new String(Files.readAllBytes(p),
+							StandardCharsets.UTF_8).contains("token");
+			}
+			if (tokenfree)
+				this.tokennotstored.set(true);
+			
+			// Two destinations are open already
+			try
+			{
+				for (int i = 0; i < LocalConnectionFactory.MAX_DESTINATIONS;
+					i++)
+					local.connect("http://localhost/" + i, null);
+			}
+			catch (RemoteException e)
+			{
+				this.destinationsbounded.set(true);
+			}
+		}
+		finally
+		{
+			try (Stream<Path> s = Files.walk(dir))
+			{
+				s.sorted(Comparator.reverseOrder()).
+					forEach((__p) -> __p.toFile().delete());
+			}
+		}
+	}
+}
+
@@ -69,6 +69,10 @@ class __DoProfilerPlugin__
 	protected final BooleanValue hasautolabel =
 		new BooleanValue("hasautolabel");
 	
+	/** Has compression debug metrics? */
+	protected final BooleanValue hascompressionmetrics =
+		new BooleanValue("hascompressionmetrics");
+	
 	/**
 	 * Constructs the test.
 	 *
@@ -95,6 +99,7 @@ class __DoProfilerPlugin__
 		super.assertTrue(this.hassignerpostfields);
 		super.assertTrue(this.hasuploads);
 		super.assertTrue(this.hasautolabel);
+		super.assertTrue(this.hascompressionmetrics);
 	}
 	
 	/**
@@ -167,6 +172,13 @@ class __DoProfilerPlugin__
 			
 			if (event.labels.contains("@iopipe/plugin-profiler"))
 				this.hasautolabel.set(true);
+			
+			// Compression statistics are reported as metrics
+			if (event.custommetrics.containsKey(
+				"@iopipe/debug.profilerCompressionRatio") &&
+				event.custommetrics.containsKey(
+				"@iopipe/debug.profilerCompressionThroughput"))
+				this.hascompressionmetrics.set(true);
 		}
 		
 		// Do not know what this is
@@ -0,0 +1,285 @@
+package com.iopipe;
+
+import com.iopipe.http.RemoteBody;
+import com.iopipe.http.RemoteConnection;
+import com.iopipe.http.RemoteRequest;
+import com.iopipe.http.RemoteResult;
+import com.iopipe.http.ReportSpool;
+import com.iopipe.http.RequestType;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests that requests are stored in the spool and are sent later, that a
+ * request which was partially written does not cause any other request to
+ * be lost, that the spool does not grow past its size, that requests are only
+ * sent to their own destination, and that a single thread replays requests
+ * in the background.
+ *
+ * @since 2026/10/19
+ */
+class __DoReportSpool__
+	extends Single
+{
+	/** The destination of the spooled requests. */
+	private static final String _TARGET =
+		ReportSpool.target("http://localhost/", "token");
+	
+	/** Was the function executed? */
+	protected final BooleanValue executedit =
+		new BooleanValue("executedit");
+	
+	/** Got a result from the server okay? */
+	protected final BooleanValue remoterecvokay =
+		new BooleanValue("remoterecvokay");
+	
+	/** Were requests kept when they could not be sent? */
+	protected final BooleanValue keptonfailure =
+		new BooleanValue("keptonfailure");
+	
+	/** Were the complete requests sent in order after the crash? */
+	protected final BooleanValue replayedinorder =
+		new BooleanValue("replayedinorder");
+	
+	/** Was the spool empty after replaying? */
+	protected final BooleanValue emptyafterreplay =
+		new BooleanValue("emptyafterreplay");
+	
+	/** Did the spool stay within its size? */
+	protected final BooleanValue withinsize =
+		new BooleanValue("withinsize");
+	
+	/** Were the newest requests kept when the spool was full? */
+	protected final BooleanValue keptnewest =
+		new BooleanValue("keptnewest");
+	
+	/** Were requests for another destination kept and not sent? */
+	protected final BooleanValue othertargetkept =
+		new BooleanValue("othertargetkept");
+	
+	/** Did the other destination send its own requests? */
+	protected final BooleanValue othertargetsent =
+		new BooleanValue("othertargetsent");
+	
+	/** Were background replays all run on the same thread? */
+	protected final BooleanValue singlereplaythread =
+		new BooleanValue("singlereplaythread");
+	
+	/**
+	 * Constructs the test.
+	 *
+	 * @param __e The owning engine.
+	 * @since 2026/10/19
+	 */
+	__DoReportSpool__(Engine __e)
+	{
+		super(__e, "reportspool");
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void end()
+	{
+		super.assertTrue(this.executedit);
+		super.assertTrue(this.remoterecvokay);
+		super.assertTrue(this.keptonfailure);
+		super.assertTrue(this.replayedinorder);
+		super.assertTrue(this.emptyafterreplay);
+		super.assertTrue(this.withinsize);
+		super.assertTrue(this.keptnewest);
+		super.assertTrue(this.othertargetkept);
+		super.assertTrue(this.othertargetsent);
+		super.assertTrue(this.singlereplaythread);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteRequest(WrappedRequest __r)
+	{
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteResult(WrappedResult __r)
+	{
+		if (__Utils__.isResultOkay(__r.result))
+			this.remoterecvokay.set(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void run(IOpipeExecution __e)
+		throws Throwable
+	{
+		this.executedit.set(true);
+		
+		Path dir = Files.createTempDirectory("iopipe-spool-test");
+		try
+		{
+			List<String> sent = new ArrayList<>();
+			RemoteConnection accept = (__t, __r) ->
+			{
+				sent.add(__r.bodyAsString());
+				return new RemoteResult(202, RemoteBody.MIMETYPE_JSON, "");
+			};
+			RemoteConnection reject = (__t, __r) ->
+				new RemoteResult(503, RemoteBody.MIMETYPE_JSON, "");
+			
+			// Nothing is lost when the server is still failing
+			ReportSpool spool = new ReportSpool(dir, __DoReportSpool__._TARGET,
+				1048576, 65536);
+			for (int i = 1; i <= 3; i++)
+				spool.append(RequestType.POST, __DoReportSpool__.__report(i));
+			long before = spool.bytes();
+			if (spool.replay(reject) == 0 && spool.bytes() == before)
+				this.keptonfailure.set(true);
+			
+			// Stop while the last request is being written by cutting off
+			// the end of its segment
+			spool.append(RequestType.POST, __DoReportSpool__.__report(4));
+			spool.flush(0);
+			List<Path> segments = __DoReportSpool__.__segments(dir);
+			Path last = segments.get(segments.size() - 1);
+			try (FileChannel fc = FileChannel.open(last,
+				StandardOpenOption.WRITE))
+			{
+				fc.truncate(fc.size() - 5);
+			}
+			
+			// A new process must not lose anything other than the request
+			// which was partially written
+			spool = new ReportSpool(dir, __DoReportSpool__._TARGET, 1048576,
+				65536);
+			spool.append(RequestType.POST, __DoReportSpool__.__report(5));
+			int count = spool.replay(accept);
+			if (count == 4 && sent.equals(Arrays.asList(
+				"{\"n\":1}", "{\"n\":2}", "{\"n\":3}", "{\"n\":5}")))
+				this.replayedinorder.set(true);
+			if (spool.bytes() == 0 &&
+				__DoReportSpool__.__segments(dir).isEmpty())
+				this.emptyafterreplay.set(true);
+			
+			// Each request is in its own segment so old ones are removed
+			sent.clear();
+			spool = new ReportSpool(dir, __DoReportSpool__._TARGET, 512, 16);
+			for (int i = 1; i <= 8; i++)
+				spool.append(RequestType.POST, __DoReportSpool__.__report(i));
+			if (spool.bytes() <= 512)
+				this.withinsize.set(true);
+			spool.replay(accept);
+			if (!sent.isEmpty() && sent.size() < 8 &&
+				sent.get(sent.size() - 1).equals("{\"n\":8}"))
+				this.keptnewest.set(true);
+			
+			// Each spool only sends the requests for its own destination
+			sent.clear();
+			spool = new ReportSpool(dir, __DoReportSpool__._TARGET, 1048576,
+				65536);
+			spool.append(RequestType.POST, __DoReportSpool__.__report(1));
+			spool.flush(0);
+			ReportSpool other = new ReportSpool(dir, ReportSpool.target(
+				"http://localhost/other", null), 1048576, 65536);
+			other.append(RequestType.POST, __DoReportSpool__.__report(2));
+			other.flush(0);
+			if (spool.replay(accept) == 1 && sent.equals(Arrays.asList(
+				"{\"n\":1}")) && other.bytes() > 0 &&
+				!__DoReportSpool__.__segments(dir).isEmpty())
+				this.othertargetkept.set(true);
+			if (other.replay(accept) == 1 && sent.equals(Arrays.asList(
+				"{\"n\":1}", "{\"n\":2}")) &&
+				__DoReportSpool__.__segments(dir).isEmpty())
+				this.othertargetsent.set(true);
+			
+			// Replays in the background do not start a thread each time and
+			// a request made while the previous replay is finishing is not
+			// lost, each send is waited on rather than polling the spool
+			Set<Thread> threads = Collections.synchronizedSet(
+				new HashSet<>());
+			Semaphore sends = new Semaphore(0);
+			RemoteConnection later = (__t, __r) ->
+			{
+				threads.add(Thread.currentThread());
+				sends.release();
+				return new RemoteResult(202, RemoteBody.MIMETYPE_JSON, "");
+			};
+			spool = new ReportSpool(dir, __DoReportSpool__._TARGET, 1048576,
+				65536);
+			boolean drained = true;
+			for (int i = 1; i <= 2; i++)
+			{
+				spool.append(RequestType.POST, __DoReportSpool__.__report(i));
+				for (int j = 0; j < 4; j++)
+					spool.replayLater(later);
+				drained &= sends.tryAcquire(30, TimeUnit.SECONDS);
+			}
+			if (drained && threads.size() == 1 &&
+				!threads.contains(Thread.currentThread()))
+				this.singlereplaythread.set(true);
+		}
+		finally
+		{
+			for (Path p : __DoReportSpool__.__segments(dir))
+				Files.deleteIfExists(p);
+			Files.deleteIfExists(dir);
+		}
+	}
+	
+	/**
+	 * Creates a request to be spooled.
+	 *
+	 * @param __n The request number.
+	 * @return The request.
+	 * @since 2026/10/19
+	 */
+	private static RemoteRequest __report(int __n)
+	{
+		return new RemoteRequest(RemoteBody.MIMETYPE_JSON,
+			"{\"n\":" + __n + "}");
+	}
+	
+	/**
+	 * Returns the files in the spool directory, sorted.
+	 *
+	 * @param __dir The spool directory.
+	 * @return The files in the directory.
+	 * @throws Exception If the directory could not be read.
+	 * @since 2026/10/19
+	 */
+	private static List<Path> __segments(Path __dir)
+		throws Exception
+	{
+		List<Path> rv = new ArrayList<>();
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(__dir))
+		{
+			for (Path p : ds)
+				rv.add(p);
+		}
+		
+		rv.sort(null);
+		return rv;
+	}
+}
+
@@ -0,0 +1,197 @@
+package com.iopipe;
+
+import com.iopipe.http.RemoteBody;
+import com.iopipe.http.RemoteConnection;
+import com.iopipe.http.RemoteException;
+import com.iopipe.http.RemoteRequest;
+import com.iopipe.http.RemoteResult;
+import com.iopipe.http.RequestType;
+import com.iopipe.http.ResilientConnection;
+import com.iopipe.http.ResponseMode;
+
+/**
+ * Tests that failed requests are retried, that attempts are limited to the
+ * time which is left, and that requests are skipped once the remote server
+ * keeps failing while still failing for the caller.
+ *
+ * @since 2026/10/19
+ */
+class __DoResilientConnection__
+	extends Single
+{
+	/** Was the function executed? */
+	protected final BooleanValue executedit =
+		new BooleanValue("executedit");
+	
+	/** Got a result from the server okay? */
+	protected final BooleanValue remoterecvokay =
+		new BooleanValue("remoterecvokay");
+	
+	/** Did the request succeed after being retried? */
+	protected final BooleanValue retriedokay =
+		new BooleanValue("retriedokay");
+	
+	/** The number of attempts made for the retried request. */
+	protected final IntegerValue retryattempts =
+		new IntegerValue("retryattempts");
+	
+	/** Was the circuit opened? */
+	protected final BooleanValue circuitopened =
+		new BooleanValue("circuitopened");
+	
+	/** The number of requests made to the failing server. */
+	protected final IntegerValue failingattempts =
+		new IntegerValue("failingattempts");
+	
+	/** The number of requests given to the fallback. */
+	protected final IntegerValue fallbackrequests =
+		new IntegerValue("fallbackrequests");
+	
+	/** The number of requests which failed for the caller. */
+	protected final IntegerValue failedrequests =
+		new IntegerValue("failedrequests");
+	
+	/** Did the connection count the requests given to the fallback? */
+	protected final BooleanValue countedfallback =
+		new BooleanValue("countedfallback");
+	
+	/** Was every attempt limited to the time which was left? */
+	protected final BooleanValue attemptslimited =
+		new BooleanValue("attemptslimited");
+	
+	/**
+	 * Constructs the test.
+	 *
+	 * @param __e The owning engine.
+	 * @since 2026/10/19
+	 */
+	__DoResilientConnection__(Engine __e)
+	{
+		super(__e, "resilientconnection");
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void end()
+	{
+		super.assertTrue(this.executedit);
+		super.assertTrue(this.remoterecvokay);
+		super.assertTrue(this.retriedokay);
+		super.assertEquals(3, this.retryattempts);
+		super.assertTrue(this.circuitopened);
+		super.assertEquals(2, this.failingattempts);
+		super.assertEquals(3, this.fallbackrequests);
+		super.assertEquals(3, this.failedrequests);
+		super.assertTrue(this.countedfallback);
+		super.assertTrue(this.attemptslimited);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteRequest(WrappedRequest __r)
+	{
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteResult(WrappedResult __r)
+	{
+		if (__Utils__.isResultOkay(__r.result))
+			this.remoterecvokay.set(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void run(IOpipeExecution __e)
+		throws Throwable
+	{
+		this.executedit.set(true);
+		
+		RemoteRequest report = new RemoteRequest(RemoteBody.MIMETYPE_JSON,
+			"{}");
+		
+		// Unavailable twice and then accepted
+		RemoteConnection flaky = (__t, __r) ->
+		{
+			if (this.retryattempts.incrementAndGet() < 3)
+				return new RemoteResult(503, RemoteBody.MIMETYPE_JSON, "");
+			return new RemoteResult(202, RemoteBody.MIMETYPE_JSON, "");
+		};
+		if (__Utils__.isResultOkay(new ResilientConnection(flaky, 3, 60_000L,
+			0, 0, null).send(RequestType.POST, report)))
+			this.retriedokay.set(true);
+		
+		// Every attempt must be limited to the time left, not only the
+		// time waited between attempts
+		IntegerValue limited = new IntegerValue("limited"),
+			unlimited = new IntegerValue("unlimited");
+		RemoteConnection slow = new RemoteConnection()
+			{
+				@Override
+				public RemoteResult send(RequestType __t, RemoteRequest __r)
+				{
+					return this.send(__t, __r, ResponseMode.BODY, 0);
+				}
+				
+				@Override
+				public RemoteResult send(RequestType __t, RemoteRequest __r,
+					ResponseMode __m, long __timeoutms)
+				{
+					if (__timeoutms > 0 && __timeoutms <= 200)
+						limited.incrementAndGet();
+					else
+						unlimited.incrementAndGet();
+					return new RemoteResult(503, RemoteBody.MIMETYPE_JSON,
+						"");
+				}
+			};
+		RemoteResult slowresult = new ResilientConnection(slow, 3, 60_000L,
+			0, 0, null).send(RequestType.POST, report, ResponseMode.STATUS,
+			200);
+		if (slowresult.code() == 503 && limited.get() >= 1 &&
+			unlimited.get() == 0)
+			this.attemptslimited.set(true);
+		
+		// Never reachable, the third request must not be attempted and
+		// every request goes to the fallback but still fails
+		RemoteConnection failing = (__t, __r) ->
+		{
+			this.failingattempts.incrementAndGet();
+			throw new RemoteException("Unreachable.");
+		};
+		RemoteConnection fallback = (__t, __r) ->
+		{
+			this.fallbackrequests.incrementAndGet();
+			return new RemoteResult(202, RemoteBody.MIMETYPE_JSON, "");
+		};
+		ResilientConnection connection = new ResilientConnection(failing, 1,
+			60_000L, 2, 60_000L, fallback);
+		for (int i = 0; i < 3; i++)
+			try
+			{
+				connection.send(RequestType.POST, report);
+			}
+			catch (RemoteException e)
+			{
+				this.failedrequests.incrementAndGet();
+			}
+		
+		if (connection.isOpen())
+			this.circuitopened.set(true);
+		if (connection.fallbackCount() == 3)
+			this.countedfallback.set(true);
+	}
+}
+
@@ -0,0 +1,163 @@
+package com.iopipe;
+
+import com.iopipe.http.RemoteBody;
+import com.iopipe.http.RemoteConnection;
+import com.iopipe.http.RemoteRequest;
+import com.iopipe.http.RemoteResult;
+import com.iopipe.http.RequestType;
+import com.iopipe.http.ResponseMode;
+import com.iopipe.http.ServiceConnection;
+import com.iopipe.http.ServiceConnectionFactory;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Tests that responses are only read as far as the caller needs them, a
+ * status only request does not read the body and large bodies are limited.
+ *
+ * @since 2026/10/19
+ */
+class __DoResponseMode__
+	extends Single
+{
+	/** The size of the response body the server sends. */
+	private static final int _BODY_SIZE =
+		1048576;
+	
+	/** Was the function executed? */
+	protected final BooleanValue executedit =
+		new BooleanValue("executedit");
+	
+	/** Got a result from the server okay? */
+	protected final BooleanValue remoterecvokay =
+		new BooleanValue("remoterecvokay");
+	
+	/** Was the status only result empty? */
+	protected final BooleanValue statusonly =
+		new BooleanValue("statusonly");
+	
+	/** Was the body limited? */
+	protected final BooleanValue bodylimited =
+		new BooleanValue("bodylimited");
+	
+	/** Was a failed response body still read? */
+	protected final BooleanValue failureread =
+		new BooleanValue("failureread");
+	
+	/**
+	 * Constructs the test.
+	 *
+	 * @param __e The owning engine.
+	 * @since 2026/10/19
+	 */
+	__DoResponseMode__(Engine __e)
+	{
+		super(__e, "responsemode");
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void end()
+	{
+		super.assertTrue(this.executedit);
+		super.assertTrue(this.remoterecvokay);
+		super.assertTrue(this.statusonly);
+		super.assertTrue(this.bodylimited);
+		super.assertTrue(this.failureread);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteRequest(WrappedRequest __r)
+	{
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteResult(WrappedResult __r)
+	{
+		if (__Utils__.isResultOkay(__r.result))
+			this.remoterecvokay.set(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void run(IOpipeExecution __e)
+		throws Throwable
+	{
+		this.executedit.set(true);
+		
+		// The path selects the code of the response
+		HttpServer server = HttpServer.create(new InetSocketAddress(
+			InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/", (__x) ->
+		{
+			__x.getRequestBody().close();
+			
+			byte[] chunk = new byte[8192];
+			__x.getResponseHeaders().set("Content-Type",
+				RemoteBody.MIMETYPE_JSON);
+			__x.sendResponseHeaders(
+				(__x.getRequestURI().getPath().endsWith("fail") ? 500 : 202),
+				_BODY_SIZE);
+			try (OutputStream out = __x.getResponseBody())
+			{
+				for (int i = 0; i < _BODY_SIZE; i += chunk.length)
+					out.write(chunk);
+			}
+			catch (IOException e)
+			{
+				// The client may close early
+			}
+		});
+		server.start();
+		
+		try
+		{
+			String base = "http://" + server.getAddress().getHostString() +
+				":" + server.getAddress().getPort() + "/";
+			RemoteRequest request = new RemoteRequest(
+				RemoteBody.MIMETYPE_JSON, "{}");
+			
+			RemoteConnection okay = new ServiceConnectionFactory().
+				connect(base + "okay", null);
+			RemoteResult status = okay.send(RequestType.POST, request,
+				ResponseMode.STATUS);
+			if (status.code() == 202 && status.body().length == 0)
+				this.statusonly.set(true);
+			
+			RemoteResult body = okay.send(RequestType.POST, request,
+				ResponseMode.BODY);
+			if (body.code() == 202 &&
+				body.body().length == Math.min(_BODY_SIZE,
+					ServiceConnection.RESPONSE_BYTES))
+				this.bodylimited.set(true);
+			
+			RemoteResult fail = new ServiceConnectionFactory().
+				connect(base + "fail", null).send(RequestType.POST, request,
+				ResponseMode.STATUS);
+			if (fail.code() == 500 && fail.body().length > 0)
+				this.failureread.set(true);
+		}
+		finally
+		{
+			server.stop(0);
+		}
+	}
+}
+
@@ -1,18 +1,33 @@
 package com.iopipe;
 
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.services.s3.model.ListBucketsRequest;
 import com.iopipe.http.RemoteRequest;
 import com.iopipe.http.RemoteResult;
 import com.iopipe.plugin.trace.TraceExecution;
+import com.iopipe.plugin.trace.TraceInterceptor;
 import com.iopipe.plugin.trace.TraceMeasurement;
 import com.iopipe.plugin.trace.TracePlugin;
+import com.iopipe.plugin.trace.TraceRequestHandler;
+import com.iopipe.plugin.trace.TraceSpan;
 import com.iopipe.plugin.trace.TraceUtils;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import javax.json.JsonObject;
 import javax.json.JsonString;
 import javax.json.JsonValue;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 /**
  * Tests that the trace plugin exists.
@@ -63,6 +78,30 @@ class __DoTracePlugin__
 	protected final BooleanValue hasautolabel =
 		new BooleanValue("hasautolabel");
 	
+	/** Was the HTTP request traced? */
+	protected final BooleanValue httptraced =
+		new BooleanValue("httptraced");
+	
+	/** Was the loop measurement recorded? */
+	protected final BooleanValue looprecorded =
+		new BooleanValue("looprecorded");
+	
+	/** Were the spans nested correctly? */
+	protected final BooleanValue spansnested =
+		new BooleanValue("spansnested");
+	
+	/** Was the AWS SDK request traced? */
+	protected final BooleanValue awstraced =
+		new BooleanValue("awstraced");
+	
+	/** Did an unfinished AWS SDK request leave later spans unnested? */
+	protected final BooleanValue awsnotcurrent =
+		new BooleanValue("awsnotcurrent");
+	
+	/** Did only wrapped tasks in other threads see the execution? */
+	protected final BooleanValue wrappedcurrent =
+		new BooleanValue("wrappedcurrent");
+	
 	/**
 	 * Constructs the test.
 	 *
@@ -94,6 +133,12 @@ class __DoTracePlugin__
 		super.assertEquals(enabled, this.tracepluginexecuted);
 		super.assertEquals((enabled ? _ORDER.length / 2 : 0), this.orderdepth);
 		super.assertEquals(enabled, this.hasautolabel);
+		super.assertEquals(enabled, this.spansnested);
+		super.assertEquals(enabled, this.looprecorded);
+		super.assertEquals(enabled, this.httptraced);
+		super.assertEquals(enabled, this.awstraced);
+		super.assertEquals(enabled, this.awsnotcurrent);
+		super.assertTrue(this.wrappedcurrent);
 	}
 	
 	/**
@@ -130,8 +175,16 @@ class __DoTracePlugin__
 		
 		// Check all entries that they are in the right order
 		IntegerValue orderdepth = this.orderdepth;
-		List<PerformanceEntry> es = new ArrayList<>(
-			event.performanceentries.values());
+		List<PerformanceEntry> es = new ArrayList<>();
+		for (PerformanceEntry e : event.performanceentries.values())
+		{
+			// Recorded measurements are not part of the order
+			if (Objects.equals(e.name(), "measure:loop") &&
+				Objects.equals(e.type(), "measure"))
+				this.looprecorded.set(true);
+			else
+				es.add(e);
+		}
 		for (int i = 0, n = es.size(); i < n; i++)
 		{
 			PerformanceEntry e = es.get(i);
@@ -148,6 +201,46 @@ class __DoTracePlugin__
 		
 		if (event.labels.contains("@iopipe/plugin-trace"))
 			this.hasautolabel.set(true);
+		
+		// Check that the inner span is the child of the outer span, spans
+		// are recorded in the order they are closed
+		if (plugin != null && plugin.traceid != null &&
+			plugin.spans.size() == 5)
+		{
+			JsonObject inner = plugin.spans.get(0),
+				outer = plugin.spans.get(1);
+			
+			if ("inner".equals(inner.getString("n", null)) &&
+				"outer".equals(outer.getString("n", null)) &&
+				!outer.containsKey("p") &&
+				outer.getString("i").equals(inner.getString("p", null)) &&
+				"value".equals(inner.getJsonObject("a").getString("key")))
+				this.spansnested.set(true);
+			
+			// The HTTP request is not within any span
+			JsonObject http = plugin.spans.get(2);
+			if ("GET example.com".equals(http.getString("n", null)) &&
+				!http.containsKey("p") &&
+				"200".equals(http.getJsonObject("a").getString("status")) &&
+				"5".equals(http.getJsonObject("a").getString("responseBytes")))
+				this.httptraced.set(true);
+			
+			// The unfinished AWS request is not reported and is not the
+			// parent of the span after it
+			JsonObject after = plugin.spans.get(3);
+			if ("afteraws".equals(after.getString("n", null)) &&
+				!after.containsKey("p"))
+				this.awsnotcurrent.set(true);
+			
+			JsonObject aws = plugin.spans.get(4);
+			if ("Amazon S3.ListBuckets".equals(aws.getString("n", null)) &&
+				!aws.containsKey("p") &&
+				"200".equals(aws.getJsonObject("a").getString("status")) &&
+				"s3.amazonaws.com".equals(
+					aws.getJsonObject("a").getString("host")) &&
+				"7".equals(aws.getJsonObject("a").getString("responseBytes")))
+				this.awstraced.set(true);
+		}
 	}
 	
 	/**
@@ -200,6 +293,88 @@ class __DoTracePlugin__
 			{
 			}
 		}
+		
+		// Nested spans
+		try (TraceSpan outer = TraceUtils.span(__e, "outer"))
+		{
+			try (TraceSpan inner = TraceUtils.span(__e, "inner",
+				Collections.<String, String>singletonMap("key", "value")))
+			{
+			}
+		}
+		
+		// Requests made with OkHttp are traced, this responds without
+		// making a connection
+		OkHttpClient client = new OkHttpClient.Builder().
+			addInterceptor(new TraceInterceptor()).
+			addInterceptor((__c) -> new Response.Builder().
+				request(__c.request()).
+				protocol(Protocol.HTTP_1_1).
+				code(200).
+				message("OK").
+				body(ResponseBody.create(MediaType.parse("text/plain"),
+					"hello")).
+				build()).
+			build();
+		try (Response response = client.newCall(new Request.Builder().
+			url("http://example.com/").build()).execute())
+		{
+		}
+		
+		// Requests made with the AWS SDK are traced by the request handler,
+		// the first request never finishes
+		TraceRequestHandler handler = new TraceRequestHandler();
+		DefaultRequest<?> lost = __DoTracePlugin__.__awsRequest(),
+			aws = __DoTracePlugin__.__awsRequest();
+		handler.beforeRequest(lost);
+		handler.beforeRequest(aws);
+		try (TraceSpan after = TraceUtils.span(__e, "afteraws"))
+		{
+		}
+		HttpResponse awsresponse = new HttpResponse(aws, null);
+		awsresponse.setStatusCode(200);
+		awsresponse.addHeader("Content-Length", "7");
+		handler.afterResponse(aws,
+			new com.amazonaws.Response<Object>(null, awsresponse));
+		
+		// Threads do not inherit the execution unless given it
+		boolean[] seen = new boolean[2];
+		Thread plain = new Thread(() ->
+				{
+					seen[0] = (IOpipeExecution.currentExecution() != null);
+				}),
+			wrapped = new Thread(__e.wrap(() ->
+				{
+					seen[1] = (IOpipeExecution.currentExecution() == __e);
+				}));
+		plain.start();
+		wrapped.start();
+		plain.join();
+		wrapped.join();
+		if (!seen[0] && seen[1])
+			this.wrappedcurrent.set(true);
+		
+		// Measurements which are recorded without allocation
+		for (int i = 0; i < 3; i++)
+		{
+			long start = System.nanoTime();
+			TraceUtils.record(__e, "loop", start);
+		}
+	}
+	
+	/**
+	 * Creates a request as the AWS SDK would make it.
+	 *
+	 * @return The request.
+	 * @since 2026/10/19
+	 */
+	private static DefaultRequest<?> __awsRequest()
+	{
+		DefaultRequest<?> rv = new DefaultRequest<>(new ListBucketsRequest(),
+			"Amazon S3");
+		rv.setEndpoint(URI.create("https://s3.amazonaws.com"));
+		rv.setHttpMethod(HttpMethodName.GET);
+		return rv;
 	}
 }
 
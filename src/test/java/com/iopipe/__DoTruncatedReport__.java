@@ -0,0 +1,168 @@
+package com.iopipe;
+
+/**
+ * Tests that a report which would be too large has content dropped in the
+ * correct order, stays within its limit and records what was dropped.
+ *
+ * @since 2026/10/19
+ */
+class __DoTruncatedReport__
+	extends Single
+{
+	/** The limit for the report size. */
+	private static final int _LIMIT =
+		16384;
+	
+	/** The number of metrics and entries to add. */
+	private static final int _COUNT =
+		500;
+	
+	/** The depth of the stack when the exception is thrown. */
+	private static final int _DEPTH =
+		400;
+	
+	/** Was the function executed? */
+	protected final BooleanValue executedit =
+		new BooleanValue("executedit");
+	
+	/** Got a result from the server okay? */
+	protected final BooleanValue remoterecvokay =
+		new BooleanValue("remoterecvokay");
+	
+	/** Was the report within the limit? */
+	protected final BooleanValue withinlimit =
+		new BooleanValue("withinlimit");
+	
+	/** Were performance entries dropped and counted? */
+	protected final BooleanValue droppedperfs =
+		new BooleanValue("droppedperfs");
+	
+	/** Were the custom metrics up to the limit kept? */
+	protected final BooleanValue keptmetrics =
+		new BooleanValue("keptmetrics");
+	
+	/** Was the stack shortened and counted? */
+	protected final BooleanValue shortstack =
+		new BooleanValue("shortstack");
+	
+	/**
+	 * Constructs the test.
+	 *
+	 * @param __e The owning engine.
+	 * @since 2026/10/19
+	 */
+	__DoTruncatedReport__(Engine __e)
+	{
+		super(__e, "truncatedreport");
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void end()
+	{
+		super.assertTrue(this.executedit);
+		super.assertTrue(this.remoterecvokay);
+		super.assertTrue(this.withinlimit);
+		super.assertTrue(this.droppedperfs);
+		super.assertTrue(this.keptmetrics);
+		super.assertTrue(this.shortstack);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void modifyConfig(IOpipeConfigurationBuilder __cb)
+		throws NullPointerException
+	{
+		if (__cb == null)
+			throw new NullPointerException();
+		
+		__cb.setReportByteLimit(_LIMIT);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteRequest(WrappedRequest __r)
+	{
+		if (__r.request.body().length <= _LIMIT)
+			this.withinlimit.set(true);
+		
+		StandardPushEvent event = (StandardPushEvent)__r.event;
+		Integer perfs = event.truncated.get("performanceEntries"),
+			metrics = event.truncated.get("customMetrics"),
+			frames = event.truncated.get("stackFrames");
+		if (perfs == null || metrics == null || frames == null)
+			return;
+		
+		// Performance entries are dropped before anything else
+		if (perfs > 0 && perfs + event.performanceentries.size() == _COUNT)
+			this.droppedperfs.set(true);
+		
+		int kept = event.custommetrics.size();
+		if (kept >= IOpipeConstants.TRUNCATED_CUSTOM_METRIC_LIMIT &&
+			metrics + kept == _COUNT)
+			this.keptmetrics.set(true);
+		
+		if (frames > 0 && event.hasError() &&
+			event.errors.stack.startsWith(MockException.class.getName()))
+			this.shortstack.set(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void remoteResult(WrappedResult __r)
+	{
+		if (__Utils__.isResultOkay(__r.result))
+			this.remoterecvokay.set(true);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @since 2026/10/19
+	 */
+	@Override
+	public void run(IOpipeExecution __e)
+		throws Throwable
+	{
+		this.executedit.set(true);
+		
+		IOpipeMeasurement m = __e.measurement();
+		long now = System.nanoTime();
+		for (int i = 0; i < _COUNT; i++)
+		{
+			m.customMetric("metric" + i, i);
+			m.addPerformanceEntry(new PerformanceEntry("entry" + i, "mark",
+				now, System.currentTimeMillis(), i));
+		}
+		
+		__DoTruncatedReport__.__throwDeep(_DEPTH);
+	}
+	
+	/**
+	 * Throws an exception with a deep stack.
+	 *
+	 * @param __d The depth to recurse to.
+	 * @throws MockException Always.
+	 * @since 2026/10/19
+	 */
+	private static void __throwDeep(int __d)
+		throws MockException
+	{
+		if (__d <= 0)
+			throw new MockException("Deep exception");
+		
+		__DoTruncatedReport__.__throwDeep(__d - 1);
+	}
+}
+